@@ -0,0 +1,80 @@
+package com.sample.stockexchange.controller;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.TransactionStore;
+import com.sample.stockexchange.usecase.OrderUsecasesRepo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 200 concurrent {@link HttpLoadClient} clients placing 20 orders each on an
+ * {@link HttpGateway} served on virtual threads or on a pool of 8 platform
+ * threads, while 4 trade streams each hold a request thread. Scores are per
+ * 4,000 orders, each batch on a new gateway with empty books, as clients
+ * reuse their order ids.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpGatewayBenchmark {
+    private static final int STREAMS = 4;
+
+    @Param({ "virtual", "platform" })
+    private String threads;
+
+    private HttpGateway gateway;
+    private HttpClient http;
+    private URI base;
+
+    @Setup(Level.Invocation)
+    public void setup() throws IOException {
+        OrderUsecasesRepo repo = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore());
+        gateway = new HttpGateway(repo, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                threads.equals("virtual") ? Executors.newVirtualThreadPerTaskExecutor()
+                        : Executors.newFixedThreadPool(8));
+        gateway.start();
+        base = URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + gateway.getPort());
+
+        http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        for (int i = 0; i < STREAMS; i++) {
+            http.sendAsync(HttpRequest.newBuilder(base.resolve("/trades")).build(),
+                    HttpResponse.BodyHandlers.discarding());
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        gateway.close();
+        http.close();
+    }
+
+    @Benchmark
+    public LoadResult placeOrders() throws InterruptedException {
+        return new HttpLoadClient(base, 200, 20).run();
+    }
+}
\ No newline at end of file
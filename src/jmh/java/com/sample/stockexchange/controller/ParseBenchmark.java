@@ -0,0 +1,78 @@
+package com.sample.stockexchange.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.TransactionStore;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderPool;
+import com.sample.stockexchange.usecase.OrderUsecasesRepo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing a single order line, from a String with {@link CLIController} and
+ * in place from bytes with {@link OrderLineParser}, as stdin is read
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+    private static final int LINES = 1024;
+
+    private CLIController controller;
+    private OrderLineParser parser;
+    private OrderPool pool;
+    private String[] lines;
+    private byte[][] bytes;
+    private int next;
+
+    @Setup
+    public void setup() {
+        controller = new CLIController(new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore()));
+        parser = new OrderLineParser(StandardCharsets.US_ASCII);
+        pool = new OrderPool();
+        lines = new String[LINES];
+        bytes = new byte[LINES][];
+        Random random = new Random(1);
+        for (int i = 0; i < LINES; i++) {
+            lines[i] = String.format("#%d %02d:%02d STOCK%d %s %d %d.%02d", i, random.nextInt(24), random.nextInt(60),
+                    random.nextInt(100), random.nextBoolean() ? "buy" : "sell", 1 + random.nextInt(1000),
+                    100 + random.nextInt(900), random.nextInt(100));
+            bytes[i] = lines[i].getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    @Benchmark
+    public Order parseString() {
+        return controller.parse(lines[next++ & (LINES - 1)]);
+    }
+
+    @Benchmark
+    public Order parseBytes() {
+        byte[] line = bytes[next++ & (LINES - 1)];
+        return parser.parse(line, 0, line.length);
+    }
+
+    @Benchmark
+    public Order parseBytesPooled() {
+        byte[] line = bytes[next++ & (LINES - 1)];
+        Order order = parser.parse(line, 0, line.length, pool);
+        order.release();
+        return order;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.sample.stockexchange.controller;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.TransactionStore;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderEntry;
+import com.sample.stockexchange.entity.OrderType;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+import com.sample.stockexchange.usecase.OrderUsecasesRepo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writing trades in the CLI output format, per trade: a batch with
+ * {@link CLIController#writeToCLI(List)}, and one at a time with
+ * {@link TradeWriter} as the streaming run does. stdout is discarded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WriteBenchmark {
+    private static final int ENTRIES = 1000;
+
+    private CLIController controller;
+    private List<OrderEntry> entries;
+    private TradeWriter writer;
+    private PrintStream stdout;
+
+    @Setup
+    public void setup() {
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        controller = new CLIController(new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore()));
+        writer = new TradeWriter(OutputStream.nullOutputStream());
+
+        Stock stock = StockRegistry.getInstance().intern("WRITE");
+        Random random = new Random(1);
+        entries = new ArrayList<>(ENTRIES);
+        for (int i = 0; i < ENTRIES; i++) {
+            long price = 10_000 + random.nextInt(90_000);
+            Order sell = new Order("#" + (2 * i), LocalTime.NOON, OrderType.SELL, 100, stock, price);
+            Order buy = new Order("#" + (2 * i + 1), LocalTime.NOON, OrderType.BUY, 100, stock, price);
+            entries.add(new OrderEntry(i, sell, buy, 1 + random.nextInt(100), price));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTRIES)
+    public void writeToCLI() {
+        controller.writeToCLI(entries);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTRIES)
+    public void tradeWriter() {
+        for (OrderEntry entry : entries) {
+            writer.onTrade(entry);
+        }
+        writer.flush();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.sample.stockexchange.entity;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time priority comparisons of {@link BuyOrderSet} and {@link SellOrderSet},
+ * by arrival sequence, per compare. Sorting buys by arrival, as batch matching
+ * does, is per order.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComparatorBenchmark {
+    private static final int ORDERS = 1024;
+
+    private final ArrivalComparator comparator = new ArrivalComparator();
+    private Order[] orders;
+    private BuyOrderSet buys;
+
+    @Setup
+    public void setup() {
+        Stock stock = StockRegistry.getInstance().intern("JMHCMP");
+        Random random = new Random(1);
+        orders = new Order[ORDERS];
+        buys = new BuyOrderSet();
+        for (int i = 0; i < ORDERS; i++) {
+            orders[i] = new Order("#" + i, LocalTime.ofSecondOfDay(random.nextInt(ORDERS / 8)), OrderType.BUY,
+                    1 + random.nextInt(100), stock, 9_900 + random.nextInt(100));
+            orders[i].setSequence(i + 1);
+            buys.add(orders[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public int arrivalComparator() {
+        int sum = 0;
+        for (int i = 0; i < ORDERS; i++) {
+            sum += comparator.compare(orders[i], orders[(i + 1) & (ORDERS - 1)]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public List<Order> buyOrdersByTime() {
+        return buys.getOrdersByTime();
+    }
+}
\ No newline at end of file
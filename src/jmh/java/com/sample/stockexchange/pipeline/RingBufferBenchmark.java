@@ -0,0 +1,65 @@
+package com.sample.stockexchange.pipeline;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Handing events from a producer to a consumer thread through a
+ * {@link RingBuffer} of 64 slots, per event, with each wait strategy. A busy
+ * spinning consumer only gives way when preempted on a single core, so
+ * BUSY_SPIN needs at least two.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RingBufferBenchmark {
+    private static final int EVENTS = 1_000_000;
+
+    @Param({ "PARK", "YIELD", "BUSY_SPIN" })
+    private WaitStrategy waitStrategy;
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public long passEvents() throws InterruptedException {
+        RingBuffer<AtomicLong> ring = new RingBuffer<>(64, AtomicLong::new, waitStrategy);
+        long[] sum = new long[1];
+        Thread consumer = new Thread(() -> {
+            long next = 0;
+            try {
+                while (next < EVENTS) {
+                    long available = ring.waitFor(next);
+                    for (; next <= available; next++) {
+                        sum[0] += ring.get(next).get();
+                    }
+                    ring.release(available);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+
+        for (long i = 0; i < EVENTS; i++) {
+            long seq = ring.claim();
+            ring.get(seq).set(i);
+            ring.publish(seq);
+        }
+        consumer.join();
+        return sum[0];
+    }
+}
\ No newline at end of file
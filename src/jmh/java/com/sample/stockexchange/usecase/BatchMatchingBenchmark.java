@@ -0,0 +1,104 @@
+package com.sample.stockexchange.usecase;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.TransactionStore;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderEntry;
+import com.sample.stockexchange.entity.OrderType;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Matching a batch of 2 * depth orders for each of 5,000 stocks, added with
+ * {@link OrderUsecasesRepo#addOrders(List)} before each invocation, on the
+ * calling thread with {@link OrderUsecasesRepo#processOrders()} and on
+ * parallelism threads with {@link OrderUsecasesRepo#processOrders(ForkJoinPool)}.
+ * Scores are per batch, speedups are bounded by the cores available.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchMatchingBenchmark {
+    private static final int SYMBOLS = 5_000;
+
+    @Param({ "10", "100" })
+    private int depth;
+
+    @Param({ "1", "2", "4", "8" })
+    private int parallelism;
+
+    private OrderUsecasesRepo repo;
+    private ForkJoinPool pool;
+    // buys and sells of all stocks in arrival order, sells overlapping buys' prices
+    private List<Order> orders;
+
+    @Setup
+    public void setup() {
+        repo = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore());
+        pool = new ForkJoinPool(parallelism);
+        Stock[] stocks = new Stock[SYMBOLS];
+        for (int i = 0; i < SYMBOLS; i++) {
+            stocks[i] = StockRegistry.getInstance().intern("JMH" + i);
+        }
+
+        Random random = new Random(1);
+        orders = new ArrayList<>(2 * depth * SYMBOLS);
+        for (int i = 0; i < 2 * depth * SYMBOLS; i++) {
+            boolean buy = random.nextBoolean();
+            orders.add(new Order("#" + i, LocalTime.ofSecondOfDay(random.nextInt(86400)),
+                    buy ? OrderType.BUY : OrderType.SELL, 1 + random.nextInt(100), stocks[i % SYMBOLS],
+                    (buy ? 9_900 : 9_950) + random.nextInt(100)));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() throws AddOrderException {
+        repo.cleanup();
+        // matching fills orders in place, so every invocation gets fresh ones
+        List<Order> copies = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            copies.add(new Order(order.getId(), order.getTime(), order.getType(), order.getQuantity(),
+                    order.getStock(), order.getPrice()));
+        }
+        repo.addOrders(copies);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<OrderEntry> processOrders() {
+        return repo.processOrders();
+    }
+
+    @Benchmark
+    public List<OrderEntry> processOrdersInParallel() {
+        return repo.processOrders(pool);
+    }
+}
\ No newline at end of file
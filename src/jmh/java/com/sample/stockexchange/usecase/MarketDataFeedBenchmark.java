@@ -0,0 +1,81 @@
+package com.sample.stockexchange.usecase;
+
+import static com.sample.stockexchange.entity.OrderType.BUY;
+import static com.sample.stockexchange.entity.OrderType.SELL;
+
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.TransactionStore;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A thread placing and cancelling orders of one stock, publishing every change
+ * to a {@link MarketDataFeed}, while another reads the depth of the stock.
+ * Scores are per order placed and cancelled, and per consistent depth read.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarketDataFeedBenchmark {
+    // resting orders, each cancelled once this many others have been placed
+    private static final int RESTING = 100;
+
+    private final String[] ids = new String[1024];
+    private MarketDataFeed feed;
+    private OrderUsecasesRepo repo;
+    private Stock stock;
+    private Depth depth;
+    private int next;
+
+    @Setup
+    public void setup() {
+        stock = StockRegistry.getInstance().intern("JMHFEED");
+        feed = new MarketDataFeed(MarketDataFeed.DEFAULT_DEPTH, 0, TimeUnit.MILLISECONDS);
+        repo = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore(), new Sequence(), null, null, 0,
+                null, feed);
+        depth = new Depth(feed.getDepth());
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = "#" + i;
+        }
+    }
+
+    @Benchmark
+    @Group("feed")
+    @GroupThreads(1)
+    public int match() throws AddOrderException {
+        int i = next++;
+        boolean buy = (i & 1) == 0;
+        // never crossing, so the book keeps RESTING orders over 50 levels per side
+        repo.placeOrder(new Order(ids[i & 1023], LocalTime.NOON, buy ? BUY : SELL, 10, stock,
+                buy ? 950 + i % 50 : 1001 + i % 50), entry -> {
+                });
+        return repo.cancelOrder(ids[(i - RESTING) & 1023]);
+    }
+
+    @Benchmark
+    @Group("feed")
+    @GroupThreads(1)
+    public boolean read() {
+        return feed.read(stock, depth);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.sample.stockexchange.usecase;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.TransactionStore;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderEntry;
+import com.sample.stockexchange.entity.OrderType;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Filling and matching books of depth orders per side, for each of symbols
+ * stocks, in batch mode with {@link OrderUsecasesRepo#addOrders(List)} then
+ * {@link OrderUsecasesRepo#processOrders()}, and in continuous mode with
+ * {@link OrderUsecasesRepo#placeOrder(Order, TradeListener)}. Scores are per
+ * batch of 2 * depth * symbols orders. Allocation rates include the fresh
+ * copies of orders made before each batch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderBookBenchmark {
+    @Param({ "10", "100", "1000" })
+    private int depth;
+
+    @Param({ "1", "10", "100" })
+    private int symbols;
+
+    private OrderUsecasesRepo repo;
+    // buys and sells of all stocks in arrival order, sells overlapping buys' prices
+    private List<Order> orders;
+    private List<Order> copies;
+    private long traded;
+
+    @Setup
+    public void setup() {
+        repo = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore());
+        Stock[] stocks = new Stock[symbols];
+        for (int i = 0; i < symbols; i++) {
+            stocks[i] = StockRegistry.getInstance().intern("JMH" + i);
+        }
+
+        Random random = new Random(1);
+        orders = new ArrayList<>(2 * depth * symbols);
+        for (int i = 0; i < 2 * depth * symbols; i++) {
+            boolean buy = random.nextBoolean();
+            orders.add(new Order("#" + i, LocalTime.ofSecondOfDay(i % 86400), buy ? OrderType.BUY : OrderType.SELL,
+                    1 + random.nextInt(100), stocks[i % symbols], (buy ? 9_900 : 9_950) + random.nextInt(100)));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        repo.cleanup();
+        // matching fills orders in place, so every invocation gets fresh ones
+        copies = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            copies.add(new Order(order.getId(), order.getTime(), order.getType(), order.getQuantity(),
+                    order.getStock(), order.getPrice()));
+        }
+    }
+
+    @Benchmark
+    public OrderUsecasesRepo addOrders() throws AddOrderException {
+        repo.addOrders(copies);
+        return repo;
+    }
+
+    @Benchmark
+    public List<OrderEntry> addAndProcessOrders() throws AddOrderException {
+        repo.addOrders(copies);
+        return repo.processOrders();
+    }
+
+    @Benchmark
+    public long placeOrders() throws AddOrderException {
+        for (Order order : copies) {
+            repo.placeOrder(order, entry -> traded += entry.getQuantity());
+        }
+        return traded;
+    }
+}
\ No newline at end of file
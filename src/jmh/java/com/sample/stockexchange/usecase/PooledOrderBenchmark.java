@@ -0,0 +1,70 @@
+package com.sample.stockexchange.usecase;
+
+import static com.sample.stockexchange.entity.OrderType.BUY;
+import static com.sample.stockexchange.entity.OrderType.SELL;
+
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.TransactionStore;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderPool;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Pooled orders crossing the touch of a book that never empties, each filled
+ * on arrival with {@link OrderUsecasesRepo#placeOrder(Order, TradeListener)}.
+ * Run with -prof gc to check steady state matching allocates nothing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PooledOrderBenchmark {
+    private final OrderPool pool = new OrderPool();
+    private final String[] ids = new String[1024];
+    private OrderUsecasesRepo repo;
+    private Stock stock;
+    private TradeListener listener;
+    private long traded;
+    private int next;
+
+    @Setup
+    public void setup() throws AddOrderException {
+        stock = StockRegistry.getInstance().intern("JMHPOOL");
+        repo = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore());
+        listener = entry -> traded += entry.getQuantity();
+        for (int i = 0; i < 10; i++) {
+            repo.placeOrder(pool.acquire("B" + i, LocalTime.NOON, BUY, Integer.MAX_VALUE, stock, 24_000 - i),
+                    listener);
+            repo.placeOrder(pool.acquire("S" + i, LocalTime.NOON, SELL, Integer.MAX_VALUE, stock, 24_010 + i),
+                    listener);
+        }
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = "#" + i;
+        }
+    }
+
+    @Benchmark
+    public long placeOrder() throws AddOrderException {
+        boolean buy = (next++ & 1) == 0;
+        repo.placeOrder(pool.acquire(ids[next & 1023], LocalTime.NOON, buy ? BUY : SELL, 10, stock,
+                buy ? 24_010 : 24_000), listener);
+        return traded;
+    }
+}
\ No newline at end of file
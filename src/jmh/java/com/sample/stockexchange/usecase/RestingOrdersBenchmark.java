@@ -0,0 +1,90 @@
+package com.sample.stockexchange.usecase;
+
+import static com.sample.stockexchange.entity.OrderType.BUY;
+import static com.sample.stockexchange.entity.OrderType.SELL;
+
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+import com.sample.stockexchange.adapter.IOrderSetStore;
+import com.sample.stockexchange.adapter.OffHeapOrderSetStore;
+import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.TransactionStore;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Matching at the touch of a book holding resting orders over 20k levels per
+ * side, kept on heap or off heap. Each operation fills the first order of the
+ * best level of a side and rests a new one deeper on that side, so the book
+ * keeps its size. Run with -prof gc to compare the GC cost of the stores, e.g.
+ * gradle jmh --args='RestingOrdersBenchmark -prof gc'.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-XX:+UseG1GC", "-Xmx3g" })
+public class RestingOrdersBenchmark {
+    private static final int LEVELS = 20_000;
+    private static final int QUANTITY = 10;
+    // buys rest at [1, LEVELS], sells above them
+    private static final long SELLS = LEVELS + 1;
+
+    @Param({ "heap", "offheap" })
+    private String store;
+
+    @Param({ "10000000" })
+    private int resting;
+
+    private OrderUsecasesRepo repo;
+    private Stock stock;
+    private TradeListener listener;
+    private long traded;
+    private int next;
+    private boolean buy;
+
+    @Setup
+    public void setup() throws AddOrderException {
+        IOrderSetStore orders = store.equals("offheap") ? new OffHeapOrderSetStore() : new OrderSetStore();
+        repo = new OrderUsecasesRepo(orders, new TransactionStore());
+        stock = StockRegistry.getInstance().intern("JMHREST");
+        listener = entry -> traded += entry.getQuantity();
+        for (next = 0; next < resting; next++) {
+            rest(next, (next & 1) == 0);
+        }
+    }
+
+    @Benchmark
+    public long matchAtTouch() throws AddOrderException {
+        buy = !buy;
+        // crosses every level of the other side, filled by its first order
+        repo.placeOrder(new Order("#" + next++, LocalTime.NOON, buy ? BUY : SELL, QUANTITY, stock,
+                buy ? SELLS + LEVELS : 1), listener);
+        rest(next++, !buy);
+        return traded;
+    }
+
+    /**
+     * Rests order i on a side, spread over every level as i grows
+     */
+    private void rest(int i, boolean buy) throws AddOrderException {
+        long level = (i >>> 1) % LEVELS;
+        repo.placeOrder(new Order("#" + i, LocalTime.NOON, buy ? BUY : SELL, QUANTITY, stock,
+                buy ? 1 + level : SELLS + level), listener);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.sample.stockexchange.usecase;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.TransactionStore;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderEntry;
+import com.sample.stockexchange.entity.OrderType;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Matching 200,000 orders across 64 stocks on a {@link ShardedOrderEngine} of
+ * shards threads, from the first order submitted to the last trade published.
+ * Scores are per batch, speedups are bounded by the cores available.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShardedEngineBenchmark {
+    private static final int ORDERS = 200_000;
+    private static final int STOCKS = 64;
+
+    @Param({ "1", "2", "4", "8" })
+    private int shards;
+
+    private List<Order> orders;
+    private List<Order> copies;
+    private ShardedOrderEngine engine;
+    private long traded;
+
+    @Setup
+    public void setup() {
+        Stock[] stocks = new Stock[STOCKS];
+        for (int i = 0; i < STOCKS; i++) {
+            stocks[i] = StockRegistry.getInstance().intern("JMH" + i);
+        }
+
+        Random random = new Random(7);
+        orders = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            boolean buy = random.nextBoolean();
+            orders.add(new Order("#" + i, LocalTime.ofSecondOfDay(i % 86400), buy ? OrderType.BUY : OrderType.SELL,
+                    1 + random.nextInt(100), stocks[random.nextInt(STOCKS)], 9900 + random.nextInt(200)));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        // matching fills orders in place, so every invocation gets fresh ones
+        copies = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            copies.add(new Order(order.getId(), order.getTime(), order.getType(), order.getQuantity(),
+                    order.getStock(), order.getPrice()));
+        }
+        engine = new ShardedOrderEngine(shards, shard -> new OrderUsecasesRepo(new OrderSetStore(),
+                new TransactionStore(), new Sequence(shard, shards)), new EngineListener() {
+                    @Override
+                    public void onTrade(OrderEntry entry) {
+                        traded += entry.getQuantity();
+                    }
+
+                    @Override
+                    public void onRejected(AddOrderException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+    }
+
+    @Benchmark
+    public long submitOrders() throws InterruptedException {
+        for (Order order : copies) {
+            engine.submit(order);
+        }
+        engine.close();
+        return traded;
+    }
+}
\ No newline at end of file
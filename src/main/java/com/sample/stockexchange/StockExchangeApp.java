@@ -1,19 +1,191 @@
 package com.sample.stockexchange;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.sample.stockexchange.adapter.IOrderSetStore;
+import com.sample.stockexchange.adapter.OffHeapOrderSetStore;
+import com.sample.stockexchange.adapter.OrderJournal;
+import com.sample.stockexchange.adapter.OrderJournal.SyncPolicy;
 import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.SnapshotStore;
 import com.sample.stockexchange.adapter.TransactionStore;
 import com.sample.stockexchange.controller.CLIController;
+import com.sample.stockexchange.controller.EngineMetricsBean;
+import com.sample.stockexchange.controller.HttpGateway;
+import com.sample.stockexchange.controller.OrderGateway;
+import com.sample.stockexchange.entity.OrderPool;
+import com.sample.stockexchange.pipeline.WaitStrategy;
+import com.sample.stockexchange.usecase.MarketDataFeed;
 import com.sample.stockexchange.usecase.OrderUsecasesRepo;
+import com.sample.stockexchange.usecase.Sequence;
 
 public class StockExchangeApp {
-    public static void main(String[] args) {
-        // initialize usecase repo
-        OrderUsecasesRepo repo = new OrderUsecasesRepo(OrderSetStore.getInstance(), TransactionStore.getInstance());
+    /**
+     * Options: --shards=N to match orders on N threads sharded by stock,
+     * --pipeline=busy-spin|yield|park to parse, match and write trades on
+     * separate threads, --journal=DIR to journal orders in DIR and recover them
+     * on startup, --journal-sync=none|rollover|always for when the journal is
+     * forced to disk, --snapshot-every=N to snapshot order books in the journal
+     * directory every N orders, so startup only replays orders after the latest
+     * snapshot, --gateway=PORT to take orders over TCP in a binary protocol
+     * instead of stdin, --http=PORT to serve a JSON API instead of stdin,
+     * --http-threads=N to serve it on N platform threads instead of virtual
+     * threads, --off-heap to keep resting orders in direct memory instead of on
+     * heap, --pooled to recycle orders and trades instead of allocating them per
+     * line, when matching on a single thread, --metrics to serve engine metrics
+     * over JMX, --market-data=MS to publish the best price levels of changed
+     * stocks at most every MS milliseconds, served by the HTTP gateway,
+     * --input=FILE to read orders from FILE instead of stdin, memory-mapped and
+     * parsed in parallel, --parse-threads=N to parse it on N threads.
+     *
+     * --http, --gateway, --input, --pipeline, --shards and --pooled each pick
+     * how orders are matched, so at most one of them can be given. Options
+     * which would be ignored by the others given are refused, rather than
+     * silently dropped.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int shards = 0;
+        WaitStrategy pipeline = null;
+        Path journalDir = null;
+        SyncPolicy syncPolicy = null;
+        int snapshotInterval = 0;
+        int gatewayPort = -1;
+        int httpPort = -1;
+        int httpThreads = 0;
+        boolean offHeap = false;
+        boolean pooled = false;
+        boolean metered = false;
+        int marketDataInterval = -1;
+        Path inputFile = null;
+        int parseThreads = 0;
+        for (String arg : args) {
+            if (arg.startsWith("--shards=")) {
+                shards = Integer.parseInt(arg.substring("--shards=".length()));
+            } else if (arg.startsWith("--pipeline=")) {
+                pipeline = WaitStrategy
+                        .valueOf(arg.substring("--pipeline=".length()).replace('-', '_').toUpperCase(Locale.ROOT));
+            } else if (arg.startsWith("--journal=")) {
+                journalDir = Paths.get(arg.substring("--journal=".length()));
+            } else if (arg.startsWith("--journal-sync=")) {
+                syncPolicy = SyncPolicy.valueOf(arg.substring("--journal-sync=".length()).toUpperCase(Locale.ROOT));
+            } else if (arg.startsWith("--snapshot-every=")) {
+                snapshotInterval = Integer.parseInt(arg.substring("--snapshot-every=".length()));
+            } else if (arg.startsWith("--gateway=")) {
+                gatewayPort = Integer.parseInt(arg.substring("--gateway=".length()));
+            } else if (arg.startsWith("--http=")) {
+                httpPort = Integer.parseInt(arg.substring("--http=".length()));
+            } else if (arg.startsWith("--http-threads=")) {
+                httpThreads = Integer.parseInt(arg.substring("--http-threads=".length()));
+            } else if (arg.equals("--off-heap")) {
+                offHeap = true;
+            } else if (arg.equals("--pooled")) {
+                pooled = true;
+            } else if (arg.equals("--metrics")) {
+                metered = true;
+            } else if (arg.startsWith("--market-data=")) {
+                marketDataInterval = Integer.parseInt(arg.substring("--market-data=".length()));
+            } else if (arg.startsWith("--input=")) {
+                inputFile = Paths.get(arg.substring("--input=".length()));
+            } else if (arg.startsWith("--parse-threads=")) {
+                parseThreads = Integer.parseInt(arg.substring("--parse-threads=".length()));
+            } else {
+                System.out.println("Unknown option: " + arg);
+                return;
+            }
+        }
+
+        String conflict = conflict(shards, pipeline, journalDir, syncPolicy, snapshotInterval, gatewayPort, httpPort,
+                httpThreads, pooled, marketDataInterval, inputFile, parseThreads);
+        if (conflict != null) {
+            System.out.println("Invalid options: " + conflict);
+            return;
+        }
+
+        OrderJournal journal = journalDir == null ? null
+                : new OrderJournal(journalDir, OrderJournal.DEFAULT_SEGMENT_RECORDS,
+                        syncPolicy == null ? SyncPolicy.NONE : syncPolicy);
+        SnapshotStore snapshots = journal == null || snapshotInterval < 1 ? null : new SnapshotStore(journalDir);
+        EngineMetricsBean metrics = metered ? new EngineMetricsBean() : null;
+        try {
+            // initialize usecase repo
+            IOrderSetStore orderStore = offHeap ? new OffHeapOrderSetStore() : OrderSetStore.getInstance();
+            MarketDataFeed marketData = marketDataInterval < 0 ? null
+                    : new MarketDataFeed(MarketDataFeed.DEFAULT_DEPTH, marketDataInterval, TimeUnit.MILLISECONDS);
+            OrderUsecasesRepo repo = new OrderUsecasesRepo(orderStore, TransactionStore.getInstance(), new Sequence(),
+                    journal, snapshots, snapshotInterval, metrics == null ? null : metrics.newMetrics(), marketData);
 
-        // initialize controller
-        CLIController controller = new CLIController(repo);
+            // initialize controller
+            CLIController controller = new CLIController(repo);
+
+            // execute
+            if (httpPort >= 0) {
+                InetSocketAddress address = new InetSocketAddress(httpPort);
+                HttpGateway gateway = httpThreads > 0
+                        ? new HttpGateway(repo, address, Executors.newFixedThreadPool(httpThreads))
+                        : new HttpGateway(repo, address);
+                gateway.start();
+                System.out.println("HTTP gateway listening on port " + gateway.getPort());
+                Runtime.getRuntime().addShutdownHook(new Thread(gateway::close));
+                // serves until the process is stopped
+                Thread.currentThread().join();
+            } else if (gatewayPort >= 0) {
+                OrderGateway gateway = new OrderGateway(repo, new InetSocketAddress(gatewayPort));
+                System.out.println("Order gateway listening on port " + gateway.getPort());
+                gateway.run();
+            } else if (inputFile != null) {
+                controller.run(inputFile, parseThreads > 0 ? parseThreads : Runtime.getRuntime().availableProcessors());
+            } else if (pipeline != null) {
+                controller.run(pipeline);
+            } else if (shards > 0) {
+                controller.run(shards, offHeap ? OffHeapOrderSetStore::new : OrderSetStore::new,
+                        () -> metrics == null ? null : metrics.newMetrics());
+            } else if (pooled) {
+                controller.run(new OrderPool());
+            } else {
+                controller.run();
+            }
+        } finally {
+            if (metrics != null) {
+                metrics.close();
+            }
+            if (snapshots != null) {
+                snapshots.close();
+            }
+            if (journal != null) {
+                journal.close();
+            }
+        }
+    }
 
-        // execute
-        controller.run();
+    /**
+     * @return why options given can't be used together, null if they can
+     */
+    private static String conflict(int shards, WaitStrategy pipeline, Path journalDir, SyncPolicy syncPolicy,
+            int snapshotInterval, int gatewayPort, int httpPort, int httpThreads, boolean pooled,
+            int marketDataInterval, Path inputFile, int parseThreads) {
+        int modes = (httpPort >= 0 ? 1 : 0) + (gatewayPort >= 0 ? 1 : 0) + (inputFile != null ? 1 : 0)
+                + (pipeline != null ? 1 : 0) + (shards > 0 ? 1 : 0) + (pooled ? 1 : 0);
+        if (modes > 1) {
+            return "only one of --http, --gateway, --input, --pipeline, --shards and --pooled can be used";
+        }
+        if (journalDir != null && shards > 0) {
+            return "--journal can't be used with --shards, shards don't journal orders";
+        }
+        if (journalDir == null && (syncPolicy != null || snapshotInterval != 0)) {
+            return "--journal-sync and --snapshot-every need --journal";
+        }
+        if (httpPort < 0 && (httpThreads != 0 || marketDataInterval >= 0)) {
+            return "--http-threads and --market-data need --http";
+        }
+        if (inputFile == null && parseThreads != 0) {
+            return "--parse-threads needs --input";
+        }
+        return null;
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.sample.stockexchange.adapter;
+
+import com.sample.stockexchange.entity.Order;
+
+/**
+ * Interface for journaling accepted orders, cancels and amends, so the order
+ * book can be rebuilt by replaying them in the same order. Records of every
+ * kind share one sequence.
+ */
+public interface IOrderJournal {
+    /**
+     * Appends an order as it was accepted, before it's matched
+     *
+     * @return journal sequence of the order, starting at 1
+     * @throws IllegalArgumentException if the order can't be journaled
+     */
+    public long append(Order order);
+
+    /**
+     * Appends the cancel of the resting order with id, before it's cancelled
+     *
+     * @return journal sequence of the cancel
+     * @throws IllegalArgumentException if the id can't be journaled
+     */
+    public long appendCancel(String id);
+
+    /**
+     * Appends the amend of the resting order with id to quantity, before it's
+     * amended
+     *
+     * @return journal sequence of the amend
+     * @throws IllegalArgumentException if the id can't be journaled
+     */
+    public long appendAmend(String id, int quantity);
+
+    /**
+     * Hands every journaled record to listener, oldest first
+     */
+    public default void replay(JournalListener listener) {
+        replay(0, listener);
+    }
+
+    /**
+     * Hands records journaled after sequence to listener, oldest first
+     */
+    public void replay(long after, JournalListener listener);
+}
\ No newline at end of file
@@ -1,17 +1,54 @@
 package com.sample.stockexchange.adapter;
 
-import java.util.Map;
-
 import com.sample.stockexchange.entity.BuyOrderSet;
+import com.sample.stockexchange.entity.Order;
 import com.sample.stockexchange.entity.SellOrderSet;
-import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockMap;
 
 /**
  * Interface for persisting incoming orders based stock. For simplicity's sake,
- * just a map for this implementation
+ * just a map indexed by stock id for this implementation
  */
 public interface IOrderSetStore {
-    public Map<Stock, BuyOrderSet> getBuyOrderStore();
+    public StockMap<BuyOrderSet> getBuyOrderStore();
+
+    public StockMap<SellOrderSet> getSellOrderStore();
+
+    /**
+     * @return an empty set for the buy orders of a stock, kept where this store
+     *         keeps orders
+     */
+    public default BuyOrderSet newBuyOrderSet() {
+        return new BuyOrderSet();
+    }
+
+    /**
+     * @return an empty set for the sell orders of a stock, kept where this store
+     *         keeps orders
+     */
+    public default SellOrderSet newSellOrderSet() {
+        return new SellOrderSet();
+    }
+
+    /**
+     * @return true if the sets of this store can be detached from their index,
+     *         see {@link com.sample.stockexchange.entity.OrderSet#detach()}, so
+     *         their stocks can be matched on different threads
+     */
+    public default boolean supportsDetach() {
+        return true;
+    }
+
+    /**
+     * @return resting order with id, on either side of any stock, null if there
+     *         is none. Off-heap orders may be copies
+     */
+    public Order findOrder(String id);
 
-    public Map<Stock, SellOrderSet> getSellOrderStore();
+    /**
+     * @return true if an order with id rests on either side of any stock
+     */
+    public default boolean containsOrder(String id) {
+        return findOrder(id) != null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.sample.stockexchange.adapter;
+
+import com.sample.stockexchange.entity.BookSnapshot;
+
+/**
+ * Interface for persisting {@link BookSnapshot}, so a restart only replays
+ * orders journaled after the latest one.
+ */
+public interface ISnapshotStore {
+    /**
+     * Saves a snapshot, possibly in the background
+     */
+    public void save(BookSnapshot snapshot);
+
+    /**
+     * @return latest saved snapshot, null if there is none
+     */
+    public BookSnapshot loadLatest();
+}
\ No newline at end of file
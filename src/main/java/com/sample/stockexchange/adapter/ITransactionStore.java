@@ -6,7 +6,8 @@ import com.sample.stockexchange.entity.OrderEntry;
 
 /**
  * Interface for persisting order book containing executed orders. For
- * simplicity's sake, just a list for this implementation
+ * simplicity's sake, just a list for this implementation, which may hand back
+ * copies of the entries added to it
  * 
  */
 public interface ITransactionStore {
@@ -0,0 +1,15 @@
+package com.sample.stockexchange.adapter;
+
+import com.sample.stockexchange.entity.Order;
+
+/**
+ * JournalListener receives the records of an {@link IOrderJournal} as they're
+ * replayed, oldest first, to apply them to the order books again.
+ */
+public interface JournalListener {
+    public void onPlaced(Order order);
+
+    public void onCancelled(String id);
+
+    public void onAmended(String id, int quantity);
+}
\ No newline at end of file
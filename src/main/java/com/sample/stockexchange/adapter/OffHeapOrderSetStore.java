@@ -0,0 +1,71 @@
+package com.sample.stockexchange.adapter;
+
+import com.sample.stockexchange.entity.BuyOrderSet;
+import com.sample.stockexchange.entity.OffHeapOrders;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.SellOrderSet;
+import com.sample.stockexchange.entity.StockMap;
+
+/**
+ * Order store keeping resting orders of every stock as fixed-width records in
+ * direct memory, see {@link OffHeapOrders}. The heap only holds price levels
+ * and record handles, so very large books don't add to garbage collection
+ * pauses. Used by a single matching thread.
+ */
+public final class OffHeapOrderSetStore implements IOrderSetStore {
+    private final StockMap<BuyOrderSet> buyMap;
+    private final StockMap<SellOrderSet> sellMap;
+    private final OffHeapOrders records;
+
+    public OffHeapOrderSetStore() {
+        buyMap = new StockMap<>();
+        sellMap = new StockMap<>();
+        records = new OffHeapOrders();
+    }
+
+    @Override
+    public StockMap<BuyOrderSet> getBuyOrderStore() {
+        return buyMap;
+    }
+
+    @Override
+    public StockMap<SellOrderSet> getSellOrderStore() {
+        return sellMap;
+    }
+
+    @Override
+    public BuyOrderSet newBuyOrderSet() {
+        return new BuyOrderSet(records);
+    }
+
+    @Override
+    public SellOrderSet newSellOrderSet() {
+        return new SellOrderSet(records);
+    }
+
+    /**
+     * @return false, records are shared by the sets of every stock
+     */
+    @Override
+    public boolean supportsDetach() {
+        return false;
+    }
+
+    @Override
+    public Order findOrder(String id) {
+        int handle = records.find(id);
+        return handle < 0 ? null : records.read(handle);
+    }
+
+    @Override
+    public boolean containsOrder(String id) {
+        return records.find(id) >= 0;
+    }
+
+    /**
+     * @return records of resting orders, e.g. to check how many there are
+     */
+    public OffHeapOrders getRecords() {
+        return records;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,359 @@
+package com.sample.stockexchange.adapter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderType;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+
+/**
+ * OrderJournal is an append-only {@link IOrderJournal} of fixed-size binary
+ * records of placed orders, cancels and amends in memory-mapped segment files, named orders-NNNNNNNNNN.journal in
+ * its directory. A new segment is started when the current one is full.
+ * Appending is a few memory writes, the OS writes pages out to disk unless the
+ * {@link SyncPolicy} forces it. Not thread-safe, meant to have a single writer.
+ * 
+ * Record layout, in bytes:
+ * 
+ * <pre>
+ * 0  int   marker, written last so a torn record is ignored
+ * 4  byte  type, 0 for buy and 1 for sell
+ * 5  byte  stock scale
+ * 6  byte  id length
+ * 7  byte  stock name length
+ * 8  long  journal sequence
+ * 16 long  time, nano of day
+ * 24 long  fixed-point price
+ * 32 long  stock tick size
+ * 40 int   quantity
+ * 44 byte  kind, 0 for a placed order, 1 for a cancel and 2 for an amend
+ * 48 id, UTF-8
+ * 104 stock name, UTF-8
+ * </pre>
+ * 
+ * Cancels and amends only fill in the id and, for amends, the new quantity.
+ */
+public final class OrderJournal implements IOrderJournal, Closeable {
+    public static final int RECORD_SIZE = 128;
+    public static final int MAX_ID_LENGTH = 56;
+    public static final int MAX_STOCK_LENGTH = 24;
+    public static final int DEFAULT_SEGMENT_RECORDS = 1 << 19;
+    private static final int MARKER = 0x4f524431;
+    private static final byte PLACED = 0;
+    private static final byte CANCELLED = 1;
+    private static final byte AMENDED = 2;
+    private static final int ID_OFFSET = 48;
+    private static final int STOCK_OFFSET = ID_OFFSET + MAX_ID_LENGTH;
+    private static final String SEGMENT_PREFIX = "orders-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    /**
+     * When appended records are forced to disk
+     */
+    public enum SyncPolicy {
+        /**
+         * Never, the OS writes pages out. Survives a process crash, not a power
+         * loss
+         */
+        NONE,
+        /**
+         * When a segment is full and on close
+         */
+        ROLLOVER,
+        /**
+         * After every append, slowest
+         */
+        ALWAYS
+    }
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final SyncPolicy syncPolicy;
+    private final List<Path> segments;
+    private MappedByteBuffer current;
+    private int position;
+    private long size;
+
+    public OrderJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_RECORDS, SyncPolicy.NONE);
+    }
+
+    /**
+     * Opens the journal in directory, creating it if needed. Appending continues
+     * after the last journaled order.
+     *
+     * @param segmentRecords records per new segment file
+     */
+    public OrderJournal(Path directory, int segmentRecords, SyncPolicy syncPolicy) throws IOException {
+        if (segmentRecords < 1 || segmentRecords > Integer.MAX_VALUE / RECORD_SIZE) {
+            throw new IllegalArgumentException("Invalid journal segment size: " + segmentRecords);
+        }
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.syncPolicy = syncPolicy;
+        this.segments = new ArrayList<>();
+
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            files.forEach(segments::add);
+        }
+        // zero padded names sort by segment index
+        Collections.sort(segments);
+
+        if (segments.isEmpty()) {
+            segments.add(segmentPath(0));
+        }
+        for (int i = 0; i < segments.size() - 1; i++) {
+            size += segmentSize(segments.get(i));
+        }
+        current = map(segments.get(segments.size() - 1), FileChannel.MapMode.READ_WRITE);
+        position = records(current);
+        size += position;
+    }
+
+    /**
+     * @return number of journaled records, also the sequence of the last one
+     */
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public long append(Order order) {
+        Stock stock = order.getStock();
+        int offset = start(order.getId(), stock.getName());
+        current.put(offset + 4, (byte) order.getType().ordinal());
+        current.put(offset + 5, (byte) stock.getScale());
+        current.putLong(offset + 16, order.getTime().toNanoOfDay());
+        current.putLong(offset + 24, order.getPrice());
+        current.putLong(offset + 32, stock.getTickSize());
+        current.putInt(offset + 40, order.getQuantity());
+        return commit(offset, PLACED);
+    }
+
+    @Override
+    public long appendCancel(String id) {
+        return commit(start(id, ""), CANCELLED);
+    }
+
+    @Override
+    public long appendAmend(String id, int quantity) {
+        int offset = start(id, "");
+        current.putInt(offset + 40, quantity);
+        return commit(offset, AMENDED);
+    }
+
+    /**
+     * Orders are rebuilt with the same id, time, side, quantity, stock and price
+     * they were appended with. Stocks are registered with their journaled scale
+     * and tick size.
+     */
+    @Override
+    public void replay(long after, JournalListener listener) {
+        // sequence of the first record in segment i
+        long first = 1;
+        for (int i = 0; i < segments.size(); i++) {
+            boolean last = i == segments.size() - 1;
+            long capacity = last ? current.capacity() / RECORD_SIZE : segmentSize(segments.get(i));
+            if (!last && first + capacity - 1 <= after) {
+                // segments before the sequence aren't even mapped
+                first += capacity;
+                continue;
+            }
+
+            ByteBuffer segment = last ? current.duplicate() : map(segments.get(i), FileChannel.MapMode.READ_ONLY);
+            int records = records(segment);
+            for (int r = (int) Math.max(0, after - first + 1); r < records; r++) {
+                read(segment, r * RECORD_SIZE, listener);
+            }
+            first += capacity;
+        }
+    }
+
+    /**
+     * Forces appended records to disk
+     */
+    public void sync() {
+        current.force();
+    }
+
+    /**
+     * Syncs unless the policy is NONE. Segments stay mapped until they're garbage
+     * collected.
+     */
+    @Override
+    public void close() {
+        if (syncPolicy != SyncPolicy.NONE) {
+            sync();
+        }
+    }
+
+    /**
+     * Writes the id and stock name of the next record, after the segment rolls
+     * over if it's full
+     *
+     * @return offset of the record in the current segment
+     * @throws IllegalArgumentException if the id or stock name is too long
+     */
+    private int start(String id, String stockName) {
+        if (id.length() > MAX_ID_LENGTH || stockName.length() > MAX_STOCK_LENGTH) {
+            throw new IllegalArgumentException("Order id or stock name too long to journal: " + id);
+        }
+
+        if (position == current.capacity() / RECORD_SIZE) {
+            rollover();
+        }
+
+        int offset = position * RECORD_SIZE;
+        int idLength = putString(current, offset + ID_OFFSET, id, MAX_ID_LENGTH);
+        int stockLength = putString(current, offset + STOCK_OFFSET, stockName, MAX_STOCK_LENGTH);
+        if (idLength < 0 || stockLength < 0) {
+            throw new IllegalArgumentException("Order id or stock name too long to journal: " + id);
+        }
+        current.put(offset + 6, (byte) idLength);
+        current.put(offset + 7, (byte) stockLength);
+        return offset;
+    }
+
+    /**
+     * Completes the record at offset, marker last
+     *
+     * @return its sequence
+     */
+    private long commit(int offset, byte kind) {
+        long sequence = size + 1;
+        current.put(offset + 44, kind);
+        current.putLong(offset + 8, sequence);
+        current.putInt(offset, MARKER);
+
+        position++;
+        size = sequence;
+        if (syncPolicy == SyncPolicy.ALWAYS) {
+            current.force();
+        }
+        return sequence;
+    }
+
+    private void rollover() {
+        if (syncPolicy != SyncPolicy.NONE) {
+            sync();
+        }
+        Path next = segmentPath(segments.size());
+        current = map(next, FileChannel.MapMode.READ_WRITE);
+        segments.add(next);
+        position = 0;
+    }
+
+    /**
+     * @return number of records a full segment file holds
+     */
+    private static long segmentSize(Path path) {
+        try {
+            return Files.size(path) / RECORD_SIZE;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read journal segment: " + path, e);
+        }
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Maps an existing segment with its own size, a new one with segmentRecords
+     */
+    private MappedByteBuffer map(Path path, FileChannel.MapMode mode) {
+        try (FileChannel channel = mode == FileChannel.MapMode.READ_ONLY ? FileChannel.open(path)
+                : FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE)) {
+            long length = channel.size() >= RECORD_SIZE ? channel.size() / RECORD_SIZE * RECORD_SIZE
+                    : (long) segmentRecords * RECORD_SIZE;
+            return channel.map(mode, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map journal segment: " + path, e);
+        }
+    }
+
+    /**
+     * @return number of complete records at the start of a segment
+     */
+    private static int records(ByteBuffer segment) {
+        int records = 0;
+        int capacity = segment.capacity() / RECORD_SIZE;
+        while (records < capacity && segment.getInt(records * RECORD_SIZE) == MARKER) {
+            records++;
+        }
+        return records;
+    }
+
+    private static void read(ByteBuffer segment, int offset, JournalListener listener) {
+        String id = getString(segment, offset + ID_OFFSET, segment.get(offset + 6));
+        byte kind = segment.get(offset + 44);
+        if (kind == CANCELLED) {
+            listener.onCancelled(id);
+            return;
+        }
+        if (kind == AMENDED) {
+            listener.onAmended(id, segment.getInt(offset + 40));
+            return;
+        }
+
+        OrderType type = OrderType.values()[segment.get(offset + 4)];
+        int scale = segment.get(offset + 5);
+        String name = getString(segment, offset + STOCK_OFFSET, segment.get(offset + 7));
+        LocalTime time = LocalTime.ofNanoOfDay(segment.getLong(offset + 16));
+        long price = segment.getLong(offset + 24);
+        long tickSize = segment.getLong(offset + 32);
+        int quantity = segment.getInt(offset + 40);
+
+        Stock stock = StockRegistry.getInstance().register(name, scale, tickSize);
+        listener.onPlaced(new Order(id, time, type, quantity, stock, price));
+    }
+
+    /**
+     * Writes str as UTF-8, ASCII without allocating
+     *
+     * @return encoded length, -1 if it's longer than max
+     */
+    private static int putString(ByteBuffer buf, int offset, String str, int max) {
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c >= 0x80) {
+                byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > max) {
+                    return -1;
+                }
+                for (int j = 0; j < bytes.length; j++) {
+                    buf.put(offset + j, bytes[j]);
+                }
+                return bytes.length;
+            }
+            buf.put(offset + i, (byte) c);
+        }
+        return str.length();
+    }
+
+    private static String getString(ByteBuffer buf, int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buf.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
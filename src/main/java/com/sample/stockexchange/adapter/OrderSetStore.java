@@ -1,24 +1,30 @@
 package com.sample.stockexchange.adapter;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import com.sample.stockexchange.entity.BuyOrderSet;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderIndex;
 import com.sample.stockexchange.entity.SellOrderSet;
-import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockMap;
 
 /**
  * Contains an in-memory store for
  * {@link com.sample.stockexchange.entity.BuyOrderSet} mapped per
- * {@link com.sample.stockexchange.entity.Stock}
+ * {@link com.sample.stockexchange.entity.Stock}. Resting orders of every set are
+ * indexed by id in one {@link OrderIndex}
  */
 public final class OrderSetStore implements IOrderSetStore {
-    private final HashMap<Stock, BuyOrderSet> buyMap;
-    private final HashMap<Stock, SellOrderSet> sellMap;
+    private final StockMap<BuyOrderSet> buyMap;
+    private final StockMap<SellOrderSet> sellMap;
+    private final OrderIndex orders;
 
-    private OrderSetStore() {
-        buyMap = new HashMap<>();
-        sellMap = new HashMap<>();
+    /**
+     * Creates a store of its own, e.g. for an engine shard. Most code shares
+     * {@link #getInstance()}
+     */
+    public OrderSetStore() {
+        buyMap = new StockMap<>();
+        sellMap = new StockMap<>();
+        orders = new OrderIndex();
     }
 
     private static class LazyHolder {
@@ -30,12 +36,32 @@ public final class OrderSetStore implements IOrderSetStore {
     }
 
     @Override
-    public Map<Stock, BuyOrderSet> getBuyOrderStore() {
-        return getInstance().buyMap;
+    public StockMap<BuyOrderSet> getBuyOrderStore() {
+        return buyMap;
+    }
+
+    @Override
+    public StockMap<SellOrderSet> getSellOrderStore() {
+        return sellMap;
+    }
+
+    @Override
+    public BuyOrderSet newBuyOrderSet() {
+        return new BuyOrderSet(orders);
+    }
+
+    @Override
+    public SellOrderSet newSellOrderSet() {
+        return new SellOrderSet(orders);
+    }
+
+    @Override
+    public Order findOrder(String id) {
+        return orders.get(id);
     }
 
     @Override
-    public Map<Stock, SellOrderSet> getSellOrderStore() {
-        return getInstance().sellMap;
+    public boolean containsOrder(String id) {
+        return orders.contains(id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,211 @@
+package com.sample.stockexchange.adapter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import com.sample.stockexchange.entity.BookSnapshot;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderType;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+
+/**
+ * SnapshotStore writes {@link BookSnapshot} as compact binary files named
+ * snapshot-NNNNNNNNNNNNNNNNNNNN.snap by sequence, on a background thread. Files
+ * are written aside and renamed once complete, and end with a CRC32, so a
+ * crash mid-write leaves the previous snapshot in use. Only the latest few
+ * snapshots are kept.
+ * 
+ * File layout: magic, sequence, execution id, a table of stocks (name, scale,
+ * tick size), then resting orders (stock index, id, time as nano of day,
+ * arrival sequence, type, quantity, price) and the checksum. Snapshots of the
+ * layout without arrival sequences have another magic, and are skipped.
+ */
+public final class SnapshotStore implements ISnapshotStore, Closeable {
+    private static final int MAGIC = 0x534e4151;
+    private static final int KEPT_SNAPSHOTS = 2;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+
+    private final Path directory;
+    private final ExecutorService writer;
+    private volatile IOException failure;
+
+    public SnapshotStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues snapshot to be written by the background thread
+     */
+    @Override
+    public void save(BookSnapshot snapshot) {
+        writer.execute(() -> {
+            try {
+                write(snapshot);
+            } catch (IOException e) {
+                failure = e;
+            }
+        });
+    }
+
+    /**
+     * Snapshots that can't be read, e.g. with a wrong checksum, are skipped for
+     * the one before
+     */
+    @Override
+    public BookSnapshot loadLatest() {
+        List<Path> files = list();
+        for (int i = files.size() - 1; i >= 0; i--) {
+            try {
+                return read(files.get(i));
+            } catch (IOException | RuntimeException e) {
+                // fall back to an older snapshot
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Waits for queued snapshots to be written
+     *
+     * @throws UncheckedIOException if a snapshot failed to be written
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Failed to write snapshot", failure);
+        }
+    }
+
+    private void write(BookSnapshot snapshot) throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", PREFIX, snapshot.getSequence(), SUFFIX));
+        Path tmp = directory.resolve(file.getFileName() + ".tmp");
+
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(
+                new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)), crc))) {
+            out.writeInt(MAGIC);
+            out.writeLong(snapshot.getSequence());
+            out.writeLong(snapshot.getExecutionId());
+
+            Map<Stock, Integer> stocks = new HashMap<>();
+            List<Stock> table = new ArrayList<>();
+            for (Order order : snapshot.getOrders()) {
+                if (stocks.putIfAbsent(order.getStock(), table.size()) == null) {
+                    table.add(order.getStock());
+                }
+            }
+            out.writeInt(table.size());
+            for (Stock stock : table) {
+                out.writeUTF(stock.getName());
+                out.writeByte(stock.getScale());
+                out.writeLong(stock.getTickSize());
+            }
+
+            out.writeInt(snapshot.getOrders().size());
+            for (Order order : snapshot.getOrders()) {
+                out.writeInt(stocks.get(order.getStock()));
+                out.writeUTF(order.getId());
+                out.writeLong(order.getTime().toNanoOfDay());
+                out.writeLong(order.getSequence());
+                out.writeByte(order.getType().ordinal());
+                out.writeInt(order.getQuantity());
+                out.writeLong(order.getPrice());
+            }
+
+            out.flush();
+            // the checksum itself isn't checksummed
+            out.writeLong(crc.getValue());
+        }
+
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        List<Path> files = list();
+        for (int i = 0; i < files.size() - KEPT_SNAPSHOTS; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    private static BookSnapshot read(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(
+                new CheckedInputStream(new BufferedInputStream(Files.newInputStream(file)), crc))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a snapshot: " + file);
+            }
+            BookSnapshot snapshot = new BookSnapshot(in.readLong(), in.readLong());
+
+            Stock[] stocks = new Stock[in.readInt()];
+            for (int i = 0; i < stocks.length; i++) {
+                stocks[i] = StockRegistry.getInstance().register(in.readUTF(), in.readByte(), in.readLong());
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Stock stock = stocks[in.readInt()];
+                String id = in.readUTF();
+                LocalTime time = LocalTime.ofNanoOfDay(in.readLong());
+                long sequence = in.readLong();
+                OrderType type = OrderType.values()[in.readByte()];
+                Order order = new Order(id, time, type, in.readInt(), stock, in.readLong());
+                order.setSequence(sequence);
+                snapshot.add(order);
+            }
+
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Corrupt snapshot: " + file);
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * @return snapshot files, oldest first
+     */
+    private List<Path> list() {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list snapshots in: " + directory, e);
+        }
+        // zero padded names sort by sequence
+        Collections.sort(files);
+        return files;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,340 @@
+package com.sample.stockexchange.adapter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderEntry;
+import com.sample.stockexchange.entity.OrderType;
+import com.sample.stockexchange.entity.Stock;
+
+/**
+ * TradeTape records executed trades as columns of primitives, in chunks of a
+ * fixed number of trades: execution id, stock id, quantity, price, and the ids
+ * of the sell and buy orders as UTF-8 bytes. Trades don't refer to their
+ * orders, so filled orders can be collected. Only the chunk being filled is
+ * kept on heap, sealed chunks are spilled to a file, so heap use doesn't grow
+ * with the number of trades, apart from a long per sealed chunk.
+ *
+ * As a list, trades are read back as new {@link OrderEntry} whose orders only
+ * have an id, a side and a stock. Reading them in order streams the spilled
+ * chunks from the file, each one once, then the chunk in memory. Only add and
+ * clear change it. Not thread safe.
+ *
+ * Chunk layout: trade count, bytes of ids, then the execution ids, stock ids,
+ * quantities, prices, end offsets of the sell then buy order id of each trade,
+ * and the ids.
+ */
+public final class TradeTape extends AbstractList<OrderEntry> implements Closeable {
+    public static final int DEFAULT_CHUNK_TRADES = 4096;
+
+    private static final int HEADER = 8;
+    private static final int TRADE_BYTES = 8 + 4 + 4 + 8 + 2 * 4;
+
+    private final Path file;
+    private final int chunkTrades;
+    private final Chunk active;
+    private final Chunk cached;
+    private FileChannel channel;
+    // offset of each sealed chunk in the file, then where the next one goes
+    private long[] offsets;
+    private int sealed;
+    private int cachedChunk;
+    private ByteBuffer buffer;
+    private Stock[] stocks;
+    private int size;
+
+    /**
+     * Spills to a temporary file, created once the first chunk is sealed and
+     * deleted on close
+     */
+    public TradeTape() {
+        this(null, DEFAULT_CHUNK_TRADES);
+    }
+
+    /**
+     * @param file        where sealed chunks are spilled, overwritten. Null for a
+     *                    temporary file
+     * @param chunkTrades number of trades per chunk
+     */
+    public TradeTape(Path file, int chunkTrades) {
+        if (chunkTrades < 1) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkTrades);
+        }
+        this.file = file;
+        this.chunkTrades = chunkTrades;
+        this.active = new Chunk(chunkTrades);
+        this.cached = new Chunk(chunkTrades);
+        this.offsets = new long[16];
+        this.cachedChunk = -1;
+        this.buffer = ByteBuffer.allocate(HEADER + chunkTrades * (TRADE_BYTES + 16));
+        this.stocks = new Stock[16];
+    }
+
+    /**
+     * Appends a copy of entry
+     *
+     * @throws UncheckedIOException if a sealed chunk failed to be spilled
+     */
+    @Override
+    public boolean add(OrderEntry entry) {
+        Stock stock = entry.getParty().getStock();
+        if (stock.getId() >= stocks.length) {
+            stocks = Arrays.copyOf(stocks, Math.max(stocks.length * 2, stock.getId() + 1));
+        }
+        stocks[stock.getId()] = stock;
+
+        active.add(entry.getId(), stock.getId(), entry.getQuantity(), entry.getPrice(), entry.getParty().getId(),
+                entry.getCounterParty().getId());
+        size++;
+        modCount++;
+        if (active.count == chunkTrades) {
+            spill();
+        }
+        return true;
+    }
+
+    /**
+     * @return a new entry read from the tape, see {@link TradeTape}
+     * @throws UncheckedIOException if its chunk failed to be read back
+     */
+    @Override
+    public OrderEntry get(int index) {
+        Objects.checkIndex(index, size);
+        int chunk = index / chunkTrades;
+        return (chunk == sealed ? active : load(chunk)).get(index % chunkTrades);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of chunks spilled to the file
+     */
+    public int getSpilledChunks() {
+        return sealed;
+    }
+
+    /**
+     * Forgets every trade, truncating the file
+     */
+    @Override
+    public void clear() {
+        if (channel != null) {
+            try {
+                channel.truncate(0);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to truncate trade tape", e);
+            }
+        }
+        active.clear();
+        sealed = 0;
+        cachedChunk = -1;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Closes the file, deleted if it's temporary. The tape must not be used
+     * anymore
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void spill() {
+        int bytes = HEADER + active.count * TRADE_BYTES + active.idLength;
+        if (buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocate(bytes);
+        }
+        buffer.clear();
+        buffer.putInt(active.count).putInt(active.idLength);
+        for (int i = 0; i < active.count; i++) {
+            buffer.putLong(active.executionIds[i]);
+        }
+        for (int i = 0; i < active.count; i++) {
+            buffer.putInt(active.stocks[i]);
+        }
+        for (int i = 0; i < active.count; i++) {
+            buffer.putInt(active.quantities[i]);
+        }
+        for (int i = 0; i < active.count; i++) {
+            buffer.putLong(active.prices[i]);
+        }
+        for (int i = 0; i < 2 * active.count; i++) {
+            buffer.putInt(active.idEnds[i]);
+        }
+        buffer.put(active.ids, 0, active.idLength).flip();
+
+        long offset = offsets[sealed];
+        try {
+            FileChannel channel = channel();
+            while (buffer.hasRemaining()) {
+                offset += channel.write(buffer, offset);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill trade tape", e);
+        }
+        if (sealed + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[++sealed] = offset;
+        active.clear();
+    }
+
+    private Chunk load(int chunk) {
+        if (chunk == cachedChunk) {
+            return cached;
+        }
+
+        int bytes = (int) (offsets[chunk + 1] - offsets[chunk]);
+        if (buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocate(bytes);
+        }
+        buffer.clear().limit(bytes);
+        try {
+            long offset = offsets[chunk];
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, offset);
+                if (read < 0) {
+                    throw new IOException("Trade tape ends in chunk " + chunk);
+                }
+                offset += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read trade tape", e);
+        }
+        buffer.flip();
+
+        cached.clear();
+        int count = buffer.getInt();
+        cached.idLength = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            cached.executionIds[i] = buffer.getLong();
+        }
+        for (int i = 0; i < count; i++) {
+            cached.stocks[i] = buffer.getInt();
+        }
+        for (int i = 0; i < count; i++) {
+            cached.quantities[i] = buffer.getInt();
+        }
+        for (int i = 0; i < count; i++) {
+            cached.prices[i] = buffer.getLong();
+        }
+        for (int i = 0; i < 2 * count; i++) {
+            cached.idEnds[i] = buffer.getInt();
+        }
+        cached.ensureIds(cached.idLength);
+        buffer.get(cached.ids, 0, cached.idLength);
+        cached.count = count;
+        cachedChunk = chunk;
+        return cached;
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            if (file == null) {
+                Path tmp = Files.createTempFile("trades-", ".tape");
+                tmp.toFile().deleteOnExit();
+                channel = FileChannel.open(tmp, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+            } else {
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            }
+        }
+        return channel;
+    }
+
+    /**
+     * Columns of up to a chunk of trades
+     */
+    private final class Chunk {
+        final long[] executionIds;
+        final int[] stocks;
+        final int[] quantities;
+        final long[] prices;
+        // end offsets in ids of the sell then buy order id of each trade
+        final int[] idEnds;
+        byte[] ids;
+        int idLength;
+        int count;
+
+        Chunk(int trades) {
+            this.executionIds = new long[trades];
+            this.stocks = new int[trades];
+            this.quantities = new int[trades];
+            this.prices = new long[trades];
+            this.idEnds = new int[2 * trades];
+            this.ids = new byte[trades * 16];
+        }
+
+        void add(long executionId, int stock, int quantity, long price, String sellId, String buyId) {
+            executionIds[count] = executionId;
+            stocks[count] = stock;
+            quantities[count] = quantity;
+            prices[count] = price;
+            idEnds[2 * count] = addId(sellId);
+            idEnds[2 * count + 1] = addId(buyId);
+            count++;
+        }
+
+        OrderEntry get(int i) {
+            Stock stock = TradeTape.this.stocks[this.stocks[i]];
+            int start = i == 0 ? 0 : idEnds[2 * i - 1];
+            Order sell = new Order(id(start, idEnds[2 * i]), null, OrderType.SELL, 0, stock, prices[i]);
+            Order buy = new Order(id(idEnds[2 * i], idEnds[2 * i + 1]), null, OrderType.BUY, 0, stock, prices[i]);
+            return new OrderEntry(executionIds[i], sell, buy, quantities[i], prices[i]);
+        }
+
+        void clear() {
+            count = 0;
+            idLength = 0;
+        }
+
+        void ensureIds(int length) {
+            if (length > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(ids.length * 2, length));
+            }
+        }
+
+        /**
+         * @return end offset of id
+         */
+        private int addId(String id) {
+            // ids are mostly ASCII, copied a char at a time
+            ensureIds(idLength + 3 * id.length());
+            int start = idLength;
+            for (int i = 0; i < id.length(); i++) {
+                char c = id.charAt(i);
+                if (c >= 0x80) {
+                    byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+                    System.arraycopy(bytes, 0, ids, start, bytes.length);
+                    idLength = start + bytes.length;
+                    return idLength;
+                }
+                ids[idLength++] = (byte) c;
+            }
+            return idLength;
+        }
+
+        private String id(int start, int end) {
+            return new String(ids, start, end - start, StandardCharsets.UTF_8);
+        }
+    }
+}
\ No newline at end of file
@@ -1,19 +1,31 @@
 package com.sample.stockexchange.adapter;
 
-import java.util.ArrayList;
+import java.nio.file.Path;
 import java.util.List;
 
 import com.sample.stockexchange.entity.OrderEntry;
 
 /**
- * Contains an in-memory store for
- * {@link com.sample.stockexchange.entity.OrderEntry}
+ * Contains a store for {@link com.sample.stockexchange.entity.OrderEntry},
+ * recorded on a {@link TradeTape} spilling to a temporary file
  */
 public final class TransactionStore implements ITransactionStore {
-    private final List<OrderEntry> orderEntries;
+    private final TradeTape orderEntries;
 
-    private TransactionStore() {
-        orderEntries = new ArrayList<>();
+    /**
+     * Creates a store of its own, e.g. for an engine shard. Most code shares
+     * {@link #getInstance()}
+     */
+    public TransactionStore() {
+        orderEntries = new TradeTape();
+    }
+
+    /**
+     * @param file        where trades are spilled, overwritten
+     * @param chunkTrades number of trades kept in memory
+     */
+    public TransactionStore(Path file, int chunkTrades) {
+        orderEntries = new TradeTape(file, chunkTrades);
     }
 
     private static class LazyHolder {
@@ -26,6 +38,6 @@ public final class TransactionStore implements ITransactionStore {
 
     @Override
     public List<OrderEntry> getOrderEntries() {
-        return getInstance().orderEntries;
+        return orderEntries;
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.sample.stockexchange.controller;
+
+/**
+ * AsciiSequence is a reusable {@link CharSequence} view over a range of an
+ * ASCII byte buffer, so tokens can be handed to CharSequence based parsers
+ * without copying them into a String.
+ */
+final class AsciiSequence implements CharSequence {
+    private byte[] buf;
+    private int off;
+    private int len;
+
+    AsciiSequence wrap(byte[] buf, int off, int len) {
+        this.buf = buf;
+        this.off = off;
+        this.len = len;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return len;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= len) {
+            throw new IndexOutOfBoundsException("index: " + index);
+        }
+        return (char) (buf[off + index] & 0xff);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        char[] chars = new char[len];
+        for (int i = 0; i < len; i++) {
+            chars[i] = (char) (buf[off + i] & 0xff);
+        }
+        return new String(chars);
+    }
+}
\ No newline at end of file
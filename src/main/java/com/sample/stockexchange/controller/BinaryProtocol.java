@@ -0,0 +1,170 @@
+package com.sample.stockexchange.controller;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import com.sample.stockexchange.adapter.OrderJournal;
+import com.sample.stockexchange.entity.OrderType;
+
+/**
+ * BinaryProtocol defines the fixed-length, little-endian messages of the
+ * {@link OrderGateway}. Strings are UTF-8, padded with zeros. Prices are
+ * fixed-point, in the scale of their stock, see
+ * {@link com.sample.stockexchange.entity.Stock}.
+ * 
+ * New order, client to gateway, {@value #ORDER_SIZE} bytes:
+ * 
+ * <pre>
+ * 0  byte  message type, {@value #NEW_ORDER}
+ * 1  byte  side, 0 for buy and 1 for sell
+ * 2  byte  order id length
+ * 3  byte  stock length
+ * 4  int   quantity
+ * 8  long  price
+ * 16 long  time, nano of day
+ * 24 order id, up to {@value #MAX_ID_LENGTH} bytes
+ * 48 stock, up to {@value #MAX_STOCK_LENGTH} bytes
+ * </pre>
+ * 
+ * Report, gateway to client, {@value #REPORT_SIZE} bytes. An order is either
+ * rejected or accepted, after the execution reports of its trades. Executions
+ * are reported to the clients of both orders, with the fields of an
+ * {@link com.sample.stockexchange.entity.OrderEntry}:
+ * 
+ * <pre>
+ * 0  byte  report type, {@value #ACCEPTED}, {@value #EXECUTED} or {@value #REJECTED}
+ * 1  byte  price scale
+ * 2  byte  order id length, the sell order for executions
+ * 3  byte  counter order id length, the buy order for executions
+ * 4  int   executed quantity, or the quantity left resting once accepted
+ * 8  long  execution id, 0 unless executed
+ * 16 long  execution price
+ * 24 order id, up to {@value #MAX_REPORT_ID_LENGTH} bytes
+ * 80 counter order id, up to {@value #MAX_REPORT_ID_LENGTH} bytes
+ * </pre>
+ *
+ * Ids in reports can be longer than in new orders: resting orders may have
+ * been recovered from an {@link OrderJournal}, which keeps longer ids, so
+ * every order the gateway can match against can be reported.
+ */
+public final class BinaryProtocol {
+    public static final int ORDER_SIZE = 64;
+    public static final int REPORT_SIZE = 136;
+    public static final int MAX_ID_LENGTH = 24;
+    public static final int MAX_REPORT_ID_LENGTH = OrderJournal.MAX_ID_LENGTH;
+    public static final int MAX_STOCK_LENGTH = 16;
+
+    public static final byte NEW_ORDER = 1;
+    public static final byte ACCEPTED = 1;
+    public static final byte EXECUTED = 2;
+    public static final byte REJECTED = 3;
+
+    static final int TYPE = 0;
+    static final int SIDE = 1;
+    static final int ID_LENGTH = 2;
+    static final int STOCK_LENGTH = 3;
+    static final int QUANTITY = 4;
+    static final int PRICE = 8;
+    static final int TIME = 16;
+    static final int ID = 24;
+    static final int STOCK = 48;
+
+    static final int SCALE = 1;
+    static final int COUNTER_ID_LENGTH = 3;
+    static final int EXECUTION_ID = 8;
+    static final int EXECUTION_PRICE = 16;
+    static final int COUNTER_ID = 80;
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * @return a direct buffer in the byte order of the protocol
+     */
+    public static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Writes a new order at the position of buf, and moves past it
+     *
+     * @throws IllegalArgumentException if id or stock is too long
+     */
+    public static void putOrder(ByteBuffer buf, String id, long timeNanos, OrderType side, int quantity, String stock,
+            long price) {
+        int at = buf.position();
+        clear(buf, at, ORDER_SIZE);
+        buf.put(at + TYPE, NEW_ORDER);
+        buf.put(at + SIDE, (byte) side.ordinal());
+        buf.put(at + ID_LENGTH, (byte) putString(buf, at + ID, id, MAX_ID_LENGTH));
+        buf.put(at + STOCK_LENGTH, (byte) putString(buf, at + STOCK, stock, MAX_STOCK_LENGTH));
+        buf.putInt(at + QUANTITY, quantity);
+        buf.putLong(at + PRICE, price);
+        buf.putLong(at + TIME, timeNanos);
+        buf.position(at + ORDER_SIZE);
+    }
+
+    /**
+     * Writes a report at the position of buf, and moves past it
+     *
+     * @throws IllegalArgumentException if an id is too long
+     */
+    public static void putReport(ByteBuffer buf, byte type, long executionId, String id, String counterId,
+            int quantity, long price, int scale) {
+        int at = buf.position();
+        clear(buf, at, REPORT_SIZE);
+        buf.put(at + TYPE, type);
+        buf.put(at + SCALE, (byte) scale);
+        buf.put(at + ID_LENGTH, (byte) putString(buf, at + ID, id, MAX_REPORT_ID_LENGTH));
+        buf.put(at + COUNTER_ID_LENGTH,
+                (byte) (counterId == null ? 0 : putString(buf, at + COUNTER_ID, counterId, MAX_REPORT_ID_LENGTH)));
+        buf.putInt(at + QUANTITY, quantity);
+        buf.putLong(at + EXECUTION_ID, executionId);
+        buf.putLong(at + EXECUTION_PRICE, price);
+        buf.position(at + REPORT_SIZE);
+    }
+
+    /**
+     * @return the string of length bytes at offset of buf
+     */
+    public static String getString(ByteBuffer buf, int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buf.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void clear(ByteBuffer buf, int at, int size) {
+        for (int i = 0; i < size; i += 8) {
+            buf.putLong(at + i, 0);
+        }
+    }
+
+    /**
+     * Writes str as UTF-8, ASCII without allocating
+     *
+     * @return encoded length
+     */
+    private static int putString(ByteBuffer buf, int offset, String str, int max) {
+        if (str.length() > max) {
+            throw new IllegalArgumentException("Too long for the binary protocol: " + str);
+        }
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c >= 0x80) {
+                byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > max) {
+                    throw new IllegalArgumentException("Too long for the binary protocol: " + str);
+                }
+                for (int j = 0; j < bytes.length; j++) {
+                    buf.put(offset + j, bytes[j]);
+                }
+                return bytes.length;
+            }
+            buf.put(offset + i, (byte) c);
+        }
+        return str.length();
+    }
+}
\ No newline at end of file
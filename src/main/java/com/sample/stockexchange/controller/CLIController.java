@@ -1,31 +1,42 @@
 package com.sample.stockexchange.controller;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.math.BigDecimal;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Locale;
 import java.util.NoSuchElementException;
+import java.util.function.Supplier;
 
-import com.google.common.base.Splitter;
+import com.sample.stockexchange.adapter.IOrderSetStore;
+import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.TransactionStore;
 import com.sample.stockexchange.entity.Order;
 import com.sample.stockexchange.entity.OrderEntry;
-import com.sample.stockexchange.entity.OrderType;
-import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.OrderPool;
+import com.sample.stockexchange.pipeline.WaitStrategy;
 import com.sample.stockexchange.usecase.AddOrderException;
+import com.sample.stockexchange.usecase.EngineListener;
+import com.sample.stockexchange.usecase.EngineMetrics;
 import com.sample.stockexchange.usecase.OrderUsecasesRepo;
+import com.sample.stockexchange.usecase.Sequence;
+import com.sample.stockexchange.usecase.ShardedOrderEngine;
+import com.sample.stockexchange.usecase.TradeListener;
 
 public class CLIController {
+    private static final String PROMPT = "Enter orders below in this format: <order-id> <time> <stock> <buy/sell> <qty> <price>,  type EOF to finish input";
+
+    // trades of journaled orders were written out by an earlier run
+    private static final TradeListener REPLAYED_TRADES = entry -> {
+    };
+
     private final OrderUsecasesRepo repo;
+    private final OrderLineParser parser;
 
     public CLIController(OrderUsecasesRepo repo) {
         this.repo = repo;
+        this.parser = new OrderLineParser();
     }
 
     /**
@@ -33,33 +44,16 @@ public class CLIController {
      * <buy/sell> <qty> <price>
      */
     public Order parse(String orderLine) {
-        Splitter spaceSplitter = Splitter.on(' ').omitEmptyStrings().trimResults();
-        Iterator<String> tokenItr = spaceSplitter.split(orderLine).iterator();
-
-        String orderId = tokenItr.next();
-
-        String timeStr = tokenItr.next();
-        LocalTime orderTime = LocalTime.parse(timeStr, DateTimeFormatter.ofPattern("HH:mm", Locale.getDefault()));
-
-        String stockName = tokenItr.next();
-        Stock stock = new Stock(stockName);
-
-        String typeStr = tokenItr.next();
-        OrderType type = OrderType.valueOf(typeStr.toUpperCase());
-
-        int quantity = Integer.parseInt(tokenItr.next());
-        BigDecimal price = new BigDecimal(tokenItr.next());
-
-        return new Order(orderId, orderTime, type, quantity, stock, price);
+        byte[] bytes = orderLine.getBytes(Charset.defaultCharset());
+        return parser.parse(bytes, 0, bytes.length);
     }
 
     public List<Order> readFromCLI() {
-        BufferedReader input = new BufferedReader(new InputStreamReader(System.in));
+        LineReader input = new LineReader(System.in);
         List<Order> orders = new ArrayList<>();
         try {
-            String line = null;
-            while (!(line = input.readLine()).equals("EOF")) {
-                orders.add(parse(line));
+            while (input.next() && !input.lineEquals("EOF")) {
+                orders.add(parser.parse(input.buffer(), input.lineStart(), input.lineLength()));
             }
         } catch (DateTimeParseException | NoSuchElementException | NumberFormatException e) {
             System.out.println("Invalid input format! Exception: " + e.getMessage());
@@ -71,24 +65,193 @@ public class CLIController {
     }
 
     public void writeToCLI(List<OrderEntry> entries) {
-        entries.forEach((entry) -> {
-            String output = String.format("%s %d %.2f %s", entry.getParty().getId(), entry.getQuantity(),
-                    entry.getExecutionPrice(), entry.getCounterParty().getId());
-            System.out.println(output);
-        });
+        TradeWriter writer = new TradeWriter(System.out);
+        entries.forEach(writer::onTrade);
+        writer.flush();
     }
 
+    /**
+     * Streams orders from stdin to trades on stdout: each line is parsed,
+     * matched and its trades written before the next line is read. Input ends
+     * with an "EOF" line or at end of stream. Trades are buffered, and written
+     * out whenever reading the next line would wait for input. Order books start
+     * empty, or as left by the orders in the repo's journal.
+     */
     public void run() {
-        repo.cleanup();
-        System.out.println(
-                "Enter orders below in this format: <order-id> <time> <stock> <buy/sell> <qty> <price>,  type EOF to finish input");
+        run((OrderPool) null);
+    }
+
+    /**
+     * Same as {@link #run()}, with orders acquired from pool. The repo releases
+     * them once they're filled, and their entries once they're written, so
+     * matching doesn't allocate them per line.
+     */
+    public void run(OrderPool pool) {
+        repo.recover(REPLAYED_TRADES);
+        System.out.println(PROMPT);
 
+        LineReader input = new LineReader(System.in);
+        TradeWriter writer = new TradeWriter(System.out);
+        EngineMetrics metrics = repo.getMetrics();
+        String error = null;
         try {
-            repo.addOrders(readFromCLI());
+            while (true) {
+                if (!input.hasBufferedLine()) {
+                    writer.flush();
+                }
+                if (!input.next() || input.lineEquals("EOF")) {
+                    break;
+                }
+                if (metrics == null) {
+                    repo.placeOrder(parser.parse(input.buffer(), input.lineStart(), input.lineLength(), pool),
+                            writer);
+                    continue;
+                }
 
-            writeToCLI(repo.processOrders());
+                // parsed on the thread placing orders, which writes metrics
+                long start = System.nanoTime();
+                Order order = parser.parse(input.buffer(), input.lineStart(), input.lineLength(), pool);
+                metrics.onParsed(System.nanoTime() - start);
+                repo.placeOrder(order, writer);
+            }
+        } catch (DateTimeParseException | NoSuchElementException | NumberFormatException e) {
+            error = "Invalid input format! Exception: " + e.getMessage();
+        } catch (IOException e) {
+            error = "Failed to get input! Exception: " + e.getMessage();
         } catch (AddOrderException e) {
-            System.out.println("Invalid input orders! Exception: " + e.getMessage());
+            error = "Invalid input orders! Exception: " + e.getMessage();
+        }
+
+        writer.flush();
+        if (error != null) {
+            System.out.println(error);
+        }
+    }
+
+    /**
+     * Same as {@link #run()}, except orders are read from file by a
+     * {@link MappedOrderReader}: memory-mapped and parsed on parseThreads
+     * threads, while this one matches them in input order. Trades are the same
+     * as with file on stdin, and there's no prompt.
+     */
+    public void run(Path file, int parseThreads) {
+        repo.recover(REPLAYED_TRADES);
+
+        TradeWriter writer = new TradeWriter(System.out);
+        String error = null;
+        try (MappedOrderReader input = new MappedOrderReader(file, parseThreads,
+                MappedOrderReader.DEFAULT_CHUNK_SIZE)) {
+            List<Order> orders;
+            while ((orders = input.next()) != null) {
+                for (Order order : orders) {
+                    repo.placeOrder(order, writer);
+                }
+            }
+        } catch (DateTimeParseException | NoSuchElementException | NumberFormatException e) {
+            error = "Invalid input format! Exception: " + e.getMessage();
+        } catch (IOException e) {
+            error = "Failed to get input! Exception: " + e.getMessage();
+        } catch (AddOrderException e) {
+            error = "Invalid input orders! Exception: " + e.getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "Interrupted while reading orders";
+        }
+
+        writer.flush();
+        if (error != null) {
+            System.out.println(error);
+        }
+    }
+
+    /**
+     * Same as {@link #run()}, except orders are matched by a
+     * {@link ShardedOrderEngine} over shardCount threads. Trades of a stock keep
+     * their order, trades of different stocks may interleave differently.
+     * Rejected orders are reported and skipped.
+     */
+    public void run(int shardCount) {
+        run(shardCount, OrderSetStore::new);
+    }
+
+    /**
+     * Same as {@link #run(int)}, with each shard keeping its orders in a store
+     * from stores
+     */
+    public void run(int shardCount, Supplier<IOrderSetStore> stores) {
+        run(shardCount, stores, () -> null);
+    }
+
+    /**
+     * Same as {@link #run(int, Supplier)}, with each shard counting its orders in
+     * metrics from metrics, null for none
+     */
+    public void run(int shardCount, Supplier<IOrderSetStore> stores, Supplier<EngineMetrics> metrics) {
+        System.out.println(PROMPT);
+
+        LineReader input = new LineReader(System.in);
+        TradeWriter writer = new TradeWriter(System.out);
+        EngineListener listener = new EngineListener() {
+            @Override
+            public void onTrade(OrderEntry entry) {
+                writer.onTrade(entry);
+            }
+
+            @Override
+            public void onRejected(AddOrderException e) {
+                writer.flush();
+                System.out.println("Invalid input orders! Exception: " + e.getMessage());
+            }
+
+            @Override
+            public void onIdle() {
+                writer.flush();
+            }
+        };
+
+        String error = null;
+        ShardedOrderEngine engine = new ShardedOrderEngine(shardCount,
+                shard -> new OrderUsecasesRepo(stores.get(), new TransactionStore(), new Sequence(shard, shardCount),
+                        null, null, 0, metrics.get()),
+                listener);
+        try {
+            while (input.next() && !input.lineEquals("EOF")) {
+                engine.submit(parser.parse(input.buffer(), input.lineStart(), input.lineLength()));
+            }
+        } catch (DateTimeParseException | NoSuchElementException | NumberFormatException e) {
+            error = "Invalid input format! Exception: " + e.getMessage();
+        } catch (IOException e) {
+            error = "Failed to get input! Exception: " + e.getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "Interrupted while matching orders";
+        } finally {
+            try {
+                engine.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (error != null) {
+            System.out.println(error);
+        }
+    }
+
+    /**
+     * Same as {@link #run()}, except parsing, matching and writing trades run on
+     * separate threads of an {@link OrderPipeline}, waiting on each other with
+     * waitStrategy.
+     */
+    public void run(WaitStrategy waitStrategy) {
+        repo.recover(REPLAYED_TRADES);
+        System.out.println(PROMPT);
+
+        try {
+            new OrderPipeline(repo, System.out, waitStrategy).run(new LineReader(System.in));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Interrupted while matching orders");
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.sample.stockexchange.controller;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+import com.sample.stockexchange.usecase.EngineMetrics;
+import com.sample.stockexchange.usecase.LatencyHistogram;
+
+/**
+ * EngineMetricsBean serves {@link EngineMetrics} over JMX. Every thread
+ * recording metrics gets its own EngineMetrics from {@link #newMetrics()}, and
+ * reads add them all up, so recording threads never write to the same
+ * counters. Reads are only as consistent as a sum of counters moving
+ * independently.
+ */
+public final class EngineMetricsBean implements EngineMetricsMXBean, AutoCloseable {
+    public static final String OBJECT_NAME = "com.sample.stockexchange:type=EngineMetrics";
+
+    private final List<EngineMetrics> metrics;
+    private final MBeanServer server;
+    private final ObjectName name;
+
+    /**
+     * Registers the bean in the platform MBean server
+     *
+     * @throws IllegalStateException if it can't be registered, e.g. when another
+     *                               one already is
+     */
+    public EngineMetricsBean() {
+        this.metrics = new CopyOnWriteArrayList<>();
+        this.server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            this.name = new ObjectName(OBJECT_NAME);
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register engine metrics", e);
+        }
+    }
+
+    /**
+     * @return new metrics to be written by a single thread, included in every
+     *         read from then on
+     */
+    public EngineMetrics newMetrics() {
+        EngineMetrics added = new EngineMetrics();
+        metrics.add(added);
+        return added;
+    }
+
+    @Override
+    public long getOrdersAccepted() {
+        return sum(EngineMetrics::getAccepted);
+    }
+
+    @Override
+    public long getOrdersRejected() {
+        return sum(EngineMetrics::getRejected);
+    }
+
+    @Override
+    public long getTrades() {
+        return sum(EngineMetrics::getTrades);
+    }
+
+    @Override
+    public Map<String, Long> getVolumeByStock() {
+        return byStock(EngineMetrics::getVolume);
+    }
+
+    @Override
+    public Map<String, Long> getBuyDepthByStock() {
+        return byStock(EngineMetrics::getBuyDepth);
+    }
+
+    @Override
+    public Map<String, Long> getSellDepthByStock() {
+        return byStock(EngineMetrics::getSellDepth);
+    }
+
+    @Override
+    public Map<String, Double> getParsingLatency() {
+        return summarize(EngineMetrics::getParsingLatency);
+    }
+
+    @Override
+    public Map<String, Double> getMatchingLatency() {
+        return summarize(EngineMetrics::getMatchingLatency);
+    }
+
+    /**
+     * Unregisters the bean
+     */
+    @Override
+    public void close() {
+        try {
+            server.unregisterMBean(name);
+        } catch (JMException e) {
+            // already gone
+        }
+    }
+
+    private long sum(ToLongFunction<EngineMetrics> counter) {
+        long sum = 0;
+        for (EngineMetrics m : metrics) {
+            sum += counter.applyAsLong(m);
+        }
+        return sum;
+    }
+
+    /**
+     * @return sums of counter by stock name, for stocks where it isn't 0
+     */
+    private Map<String, Long> byStock(StockCounter counter) {
+        Map<String, Long> values = new TreeMap<>();
+        StockRegistry registry = StockRegistry.getInstance();
+        for (int id = 0; id < registry.size(); id++) {
+            Stock stock = registry.get(id);
+            if (stock == null) {
+                continue;
+            }
+            long sum = 0;
+            for (EngineMetrics m : metrics) {
+                sum += counter.get(m, stock);
+            }
+            if (sum != 0) {
+                values.put(stock.getName(), sum);
+            }
+        }
+        return values;
+    }
+
+    private Map<String, Double> summarize(Function<EngineMetrics, LatencyHistogram> latencies) {
+        LatencyHistogram sum = new LatencyHistogram();
+        for (EngineMetrics m : metrics) {
+            sum.add(latencies.apply(m));
+        }
+
+        Map<String, Double> summary = new TreeMap<>();
+        summary.put("count", (double) sum.getCount());
+        summary.put("p50", sum.getValueAtPercentile(50) / 1e3);
+        summary.put("p99", sum.getValueAtPercentile(99) / 1e3);
+        summary.put("p99.9", sum.getValueAtPercentile(99.9) / 1e3);
+        summary.put("max", sum.getMax() / 1e3);
+        return summary;
+    }
+
+    private interface StockCounter {
+        long get(EngineMetrics metrics, Stock stock);
+    }
+}
\ No newline at end of file
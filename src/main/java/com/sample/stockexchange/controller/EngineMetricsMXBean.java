@@ -0,0 +1,35 @@
+package com.sample.stockexchange.controller;
+
+import java.util.Map;
+
+/**
+ * Matching engine metrics served over JMX, under
+ * com.sample.stockexchange:type=EngineMetrics. Latencies are in microseconds,
+ * by percentile: p50, p99, p99.9 and max, plus their count.
+ */
+public interface EngineMetricsMXBean {
+    public long getOrdersAccepted();
+
+    public long getOrdersRejected();
+
+    public long getTrades();
+
+    /**
+     * @return traded quantity by stock name
+     */
+    public Map<String, Long> getVolumeByStock();
+
+    /**
+     * @return resting buy orders by stock name
+     */
+    public Map<String, Long> getBuyDepthByStock();
+
+    /**
+     * @return resting sell orders by stock name
+     */
+    public Map<String, Long> getSellDepthByStock();
+
+    public Map<String, Double> getParsingLatency();
+
+    public Map<String, Double> getMatchingLatency();
+}
\ No newline at end of file
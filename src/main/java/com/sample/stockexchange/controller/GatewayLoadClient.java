@@ -0,0 +1,157 @@
+package com.sample.stockexchange.controller;
+
+import static com.sample.stockexchange.controller.BinaryProtocol.ACCEPTED;
+import static com.sample.stockexchange.controller.BinaryProtocol.EXECUTED;
+import static com.sample.stockexchange.controller.BinaryProtocol.ID;
+import static com.sample.stockexchange.controller.BinaryProtocol.ID_LENGTH;
+import static com.sample.stockexchange.controller.BinaryProtocol.ORDER_SIZE;
+import static com.sample.stockexchange.controller.BinaryProtocol.REJECTED;
+import static com.sample.stockexchange.controller.BinaryProtocol.REPORT_SIZE;
+import static com.sample.stockexchange.controller.BinaryProtocol.TYPE;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.sample.stockexchange.entity.OrderType;
+
+/**
+ * GatewayLoadClient sends random orders to an {@link OrderGateway} over one
+ * connection, keeping up to window orders in flight, and measures throughput
+ * and the round-trip latency of each order, from sending it to its accepted or
+ * rejected report. Orders are sent in batches of whatever the window allows.
+ * 
+ * Usage: GatewayLoadClient [host] [port] [orders] [window]
+ */
+public final class GatewayLoadClient {
+    private static final String[] STOCKS = { "LOAD0", "LOAD1", "LOAD2", "LOAD3", "LOAD4", "LOAD5", "LOAD6",
+            "LOAD7" };
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InetSocketAddress address;
+    private final int orders;
+    private final int window;
+
+    public GatewayLoadClient(InetSocketAddress address, int orders, int window) {
+        if (orders < 1 || window < 1) {
+            throw new IllegalArgumentException("Orders and window must be positive");
+        }
+        this.address = address;
+        this.orders = orders;
+        this.window = window;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 9000;
+        int orders = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+        int window = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+
+        System.out.println(new GatewayLoadClient(new InetSocketAddress(host, port), orders, window).run());
+    }
+
+    public LoadResult run() throws IOException, InterruptedException {
+        long[] sentAt = new long[orders];
+        long[] latencies = new long[orders];
+        AtomicLong responses = new AtomicLong();
+        long[] counts = new long[3];
+
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+            Thread reader = new Thread(() -> {
+                try {
+                    receive(channel, sentAt, latencies, responses, counts);
+                } catch (IOException e) {
+                    // reported as missing responses
+                }
+            }, "load-client-reader");
+            reader.start();
+
+            long start = System.nanoTime();
+            send(channel, sentAt, responses);
+            reader.join();
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies, 0, (int) responses.get());
+            return new LoadResult(responses.get(), counts[0], counts[1], counts[2], elapsed,
+                    Arrays.copyOf(latencies, (int) responses.get()));
+        }
+    }
+
+    private void send(SocketChannel channel, long[] sentAt, AtomicLong responses) throws IOException {
+        Random random = new Random(42);
+        ByteBuffer out = BinaryProtocol.allocate(BUFFER_SIZE);
+        int batchLimit = BUFFER_SIZE / ORDER_SIZE;
+
+        int sent = 0;
+        while (sent < orders) {
+            long inFlight;
+            while ((inFlight = sent - responses.get()) >= window) {
+                LockSupport.parkNanos(1000);
+            }
+
+            int batch = (int) Math.min(Math.min(window - inFlight, batchLimit), orders - sent);
+            out.clear();
+            for (int i = sent; i < sent + batch; i++) {
+                BinaryProtocol.putOrder(out, "L" + i, (i * 1_000_000L) % 86_400_000_000_000L,
+                        random.nextBoolean() ? OrderType.BUY : OrderType.SELL, 1 + random.nextInt(100),
+                        STOCKS[random.nextInt(STOCKS.length)], 9950 + random.nextInt(100));
+            }
+            out.flip();
+
+            long now = System.nanoTime();
+            Arrays.fill(sentAt, sent, sent + batch, now);
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            sent += batch;
+        }
+    }
+
+    private void receive(SocketChannel channel, long[] sentAt, long[] latencies, AtomicLong responses,
+            long[] counts) throws IOException {
+        ByteBuffer in = BinaryProtocol.allocate(BUFFER_SIZE);
+        int received = 0;
+        while (received < orders) {
+            if (channel.read(in) < 0) {
+                return;
+            }
+            long now = System.nanoTime();
+
+            in.flip();
+            while (in.remaining() >= REPORT_SIZE) {
+                int at = in.position();
+                byte type = in.get(at + TYPE);
+                if (type == EXECUTED) {
+                    counts[2]++;
+                } else if (type == ACCEPTED || type == REJECTED) {
+                    counts[type == ACCEPTED ? 0 : 1]++;
+                    int index = indexOf(in, at);
+                    latencies[received++] = now - sentAt[index];
+                }
+                in.position(at + REPORT_SIZE);
+            }
+            in.compact();
+            responses.lazySet(received);
+        }
+    }
+
+    /**
+     * @return number of the order, from its "L<number>" id
+     */
+    private static int indexOf(ByteBuffer in, int at) {
+        int length = in.get(at + ID_LENGTH);
+        int index = 0;
+        for (int i = 1; i < length; i++) {
+            index = index * 10 + in.get(at + ID + i) - '0';
+        }
+        return index;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,539 @@
+package com.sample.stockexchange.controller;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderEntry;
+import com.sample.stockexchange.entity.OrderSet;
+import com.sample.stockexchange.entity.OrderType;
+import com.sample.stockexchange.entity.PriceLevel;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+import com.sample.stockexchange.usecase.AddOrderException;
+import com.sample.stockexchange.usecase.Depth;
+import com.sample.stockexchange.usecase.DepthListener;
+import com.sample.stockexchange.usecase.DepthSubscription;
+import com.sample.stockexchange.usecase.MarketDataFeed;
+import com.sample.stockexchange.usecase.OrderUsecasesRepo;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * HttpGateway serves a JSON API on the JDK's built-in HTTP server:
+ * 
+ * <pre>
+ * POST /orders        {"id":"#1","time":"09:45","stock":"BAC","side":"sell","quantity":100,"price":"240.10"}
+ *                     places an order, answered with its trades
+ * GET  /books/{stock} resting orders of a stock by price level
+ * GET  /trades        streams every trade from then on, one JSON object per line
+ * GET  /depth/{stock} best price levels of a stock, if the repo has a market data feed
+ * GET  /depth         streams levels as they change, conflated per feed interval
+ * </pre>
+ * 
+ * Requests run on one virtual thread each by default, so thousands of slow
+ * clients or open trade streams don't need as many platform threads. Orders
+ * are placed in the {@link OrderUsecasesRepo} under a lock, a ReentrantLock
+ * as synchronized would pin virtual threads to their carrier. Depth is read
+ * from the repo's {@link MarketDataFeed} without taking that lock.
+ */
+public final class HttpGateway implements Closeable {
+    private static final int BACKLOG = 1024;
+    private static final int STREAM_CAPACITY = 64 * 1024;
+    // compared by identity
+    private static final String END_OF_STREAM = new String();
+    private static final long MIN_DEPTH_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final OrderUsecasesRepo repo;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ReentrantLock lock;
+    private final List<BlockingQueue<String>> streams;
+    private final MarketDataFeed marketData;
+    // publishes depth left waiting for its interval once orders stop coming
+    private final ScheduledExecutorService publisher;
+    private volatile boolean closed;
+
+    /**
+     * Serves requests on virtual threads, port 0 picks a free port
+     */
+    public HttpGateway(OrderUsecasesRepo repo, InetSocketAddress address) throws IOException {
+        this(repo, address, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * @param executor runs requests, shut down on close()
+     */
+    public HttpGateway(OrderUsecasesRepo repo, InetSocketAddress address, ExecutorService executor)
+            throws IOException {
+        this.repo = repo;
+        this.executor = executor;
+        this.lock = new ReentrantLock();
+        this.streams = new CopyOnWriteArrayList<>();
+        this.marketData = repo.getMarketData();
+        this.publisher = marketData == null || marketData.getInterval() == 0 ? null
+                : Executors.newSingleThreadScheduledExecutor(task -> {
+                    Thread thread = new Thread(task, "market-data-publisher");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/orders", this::placeOrder);
+        server.createContext("/books/", this::getBook);
+        server.createContext("/trades", this::streamTrades);
+        if (marketData != null) {
+            server.createContext("/depth/", this::getDepth);
+            server.createContext("/depth", this::streamDepth);
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Starts serving requests. Order books start empty, or as left by the orders
+     * in the repo's journal.
+     */
+    public void start() {
+        lock.lock();
+        try {
+            repo.recover(entry -> {
+            });
+        } finally {
+            lock.unlock();
+        }
+        if (publisher != null) {
+            publisher.scheduleAtFixedRate(this::publishMarketData, marketData.getInterval(),
+                    marketData.getInterval(), TimeUnit.NANOSECONDS);
+        }
+        server.start();
+    }
+
+    /**
+     * Ends trade streams and stops serving requests
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (publisher != null) {
+            publisher.shutdown();
+        }
+        for (BlockingQueue<String> stream : streams) {
+            stream.offer(END_OF_STREAM);
+        }
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private void placeOrder(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, error("invalid", "Use POST"));
+            return;
+        }
+
+        Order order;
+        try {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            order = toOrder(parseObject(body));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            send(exchange, 400, error("invalid", "Invalid input format! Exception: " + e.getMessage()));
+            return;
+        }
+
+        List<OrderEntry> entries = new ArrayList<>();
+        List<String> trades = new ArrayList<>();
+        String rejection = null;
+        int remaining = 0;
+        lock.lock();
+        try {
+            repo.placeOrder(order, entries::add);
+            // once the lock is released, other requests may be filling it
+            remaining = order.getQuantity();
+            // published under the lock, so every stream sees trades in execution order
+            for (OrderEntry entry : entries) {
+                String trade = toJson(entry);
+                trades.add(trade);
+                publish(trade);
+            }
+        } catch (AddOrderException e) {
+            rejection = "Invalid input orders! Exception: " + e.getMessage();
+        } finally {
+            lock.unlock();
+        }
+        if (rejection != null) {
+            send(exchange, 409, error("rejected", rejection));
+            return;
+        }
+
+        StringBuilder json = new StringBuilder("{\"status\":\"accepted\",\"remaining\":").append(remaining)
+                .append(",\"trades\":[");
+        for (int i = 0; i < trades.size(); i++) {
+            json.append(i > 0 ? "," : "").append(trades.get(i));
+        }
+        send(exchange, 200, json.append("]}").toString());
+    }
+
+    private void getBook(HttpExchange exchange) throws IOException {
+        String name = exchange.getRequestURI().getPath().substring("/books/".length());
+        Stock stock = StockRegistry.getInstance().find(name);
+        if (stock == null) {
+            send(exchange, 404, error("invalid", "No such stock: " + name));
+            return;
+        }
+
+        StringBuilder json = new StringBuilder("{\"stock\":").append(quote(stock.getName()));
+        lock.lock();
+        try {
+            appendLevels(json.append(",\"bids\":"), repo.getBuyOrders(stock), stock);
+            appendLevels(json.append(",\"asks\":"), repo.getSellOrders(stock), stock);
+        } finally {
+            lock.unlock();
+        }
+        send(exchange, 200, json.append('}').toString());
+    }
+
+    private static void appendLevels(StringBuilder json, OrderSet orders, Stock stock) {
+        json.append('[');
+        if (orders != null) {
+            boolean first = true;
+            for (PriceLevel level : orders.getLevels()) {
+                json.append(first ? "" : ",").append("{\"price\":")
+                        .append(stock.toBigDecimal(level.getPrice()).toPlainString()).append(",\"quantity\":")
+                        .append(level.getQuantity()).append(",\"orders\":").append(level.size()).append('}');
+                first = false;
+            }
+        }
+        json.append(']');
+    }
+
+    private void getDepth(HttpExchange exchange) throws IOException {
+        String name = exchange.getRequestURI().getPath().substring("/depth/".length());
+        Stock stock = StockRegistry.getInstance().find(name);
+        Depth depth = new Depth(marketData.getDepth());
+        if (stock == null || !marketData.read(stock, depth)) {
+            send(exchange, 404, error("invalid", "No depth for stock: " + name));
+            return;
+        }
+
+        StringBuilder json = new StringBuilder("{\"stock\":").append(quote(stock.getName()))
+                .append(",\"sequence\":").append(depth.getSequence());
+        appendLevels(json.append(",\"bids\":"), depth, OrderType.BUY);
+        appendLevels(json.append(",\"asks\":"), depth, OrderType.SELL);
+        send(exchange, 200, json.append('}').toString());
+    }
+
+    private static void appendLevels(StringBuilder json, Depth depth, OrderType side) {
+        json.append('[');
+        for (int i = 0; i < depth.getLevels(side); i++) {
+            json.append(i > 0 ? "," : "").append("{\"price\":")
+                    .append(depth.getStock().toBigDecimal(depth.getPrice(side, i)).toPlainString())
+                    .append(",\"quantity\":").append(depth.getQuantity(side, i)).append(",\"orders\":")
+                    .append(depth.getOrders(side, i)).append('}');
+        }
+        json.append(']');
+    }
+
+    /**
+     * Holds the request's thread, polling a subscription to the feed once per
+     * feed interval, until the client or the gateway goes away. A slow client
+     * gets the latest levels rather than every change
+     */
+    private void streamDepth(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestURI().getPath().equals("/depth")) {
+            send(exchange, 404, error("invalid", "No such path"));
+            return;
+        }
+
+        DepthSubscription subscription = marketData.subscribe();
+        StringBuilder lines = new StringBuilder();
+        DepthListener listener = (stock, side, price, quantity, orders) -> appendLevel(lines, stock, side, price,
+                quantity, orders);
+        long pause = Math.max(marketData.getInterval(), MIN_DEPTH_POLL_NANOS);
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            out.flush();
+            while (!closed) {
+                if (subscription.poll(listener) > 0) {
+                    out.write(lines.toString().getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    lines.setLength(0);
+                }
+                TimeUnit.NANOSECONDS.sleep(pause);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void appendLevel(StringBuilder lines, Stock stock, OrderType side, long price, long quantity,
+            int orders) {
+        lines.append("{\"stock\":").append(quote(stock.getName())).append(",\"side\":")
+                .append(side == OrderType.BUY ? "\"buy\"" : "\"sell\"").append(",\"price\":")
+                .append(stock.toBigDecimal(price).toPlainString()).append(",\"quantity\":").append(quantity)
+                .append(",\"orders\":").append(orders).append("}\n");
+    }
+
+    private void publishMarketData() {
+        lock.lock();
+        try {
+            repo.publishMarketData();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Holds the request's thread, parked while there are no trades, until the
+     * client or the gateway goes away
+     */
+    private void streamTrades(HttpExchange exchange) throws IOException {
+        BlockingQueue<String> stream = new ArrayBlockingQueue<>(STREAM_CAPACITY);
+        streams.add(stream);
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            // let the client know it's subscribed
+            out.flush();
+            while (true) {
+                String trade = stream.take();
+                if (trade == END_OF_STREAM) {
+                    break;
+                }
+                out.write(trade.getBytes(StandardCharsets.UTF_8));
+                out.write('\n');
+                if (stream.isEmpty()) {
+                    out.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            streams.remove(stream);
+            exchange.close();
+        }
+    }
+
+    /**
+     * Streams that fall too far behind are ended rather than slowing down
+     * matching
+     */
+    private void publish(String trade) {
+        for (BlockingQueue<String> stream : streams) {
+            if (!stream.offer(trade)) {
+                streams.remove(stream);
+                stream.clear();
+                stream.offer(END_OF_STREAM);
+            }
+        }
+    }
+
+    /**
+     * Every field is checked before the stock is interned, so invalid requests
+     * don't register stocks. The price of a new stock is checked with the
+     * default scale and tick size it will be registered with
+     */
+    private static Order toOrder(Map<String, String> fields) {
+        String id = field(fields, "id");
+        LocalTime time = LocalTime.parse(field(fields, "time"));
+        String side = field(fields, "side").toLowerCase(Locale.ROOT);
+        if (!side.equals("buy") && !side.equals("sell")) {
+            throw new IllegalArgumentException("No order type " + side);
+        }
+        int quantity = Integer.parseInt(field(fields, "quantity"));
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Invalid quantity " + quantity);
+        }
+        String name = field(fields, "stock");
+        String price = field(fields, "price");
+        if (StockRegistry.getInstance().find(name) == null) {
+            Stock.parsePrice(price, name, Stock.DEFAULT_SCALE, Stock.DEFAULT_TICK_SIZE);
+        }
+
+        Stock stock = StockRegistry.getInstance().intern(name);
+        return new Order(id, time, side.equals("buy") ? OrderType.BUY : OrderType.SELL, quantity, stock,
+                stock.parsePrice(price));
+    }
+
+    private static String field(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing field " + name);
+        }
+        return value;
+    }
+
+    private static String toJson(OrderEntry trade) {
+        return "{\"executionId\":" + trade.getId() + ",\"stock\":" + quote(trade.getParty().getStock().getName())
+                + ",\"sellOrderId\":" + quote(trade.getParty().getId()) + ",\"buyOrderId\":"
+                + quote(trade.getCounterParty().getId()) + ",\"quantity\":" + trade.getQuantity() + ",\"price\":"
+                + trade.getExecutionPrice().toPlainString() + "}";
+    }
+
+    private static String error(String status, String reason) {
+        return "{\"status\":" + quote(status) + ",\"reason\":" + quote(reason) + "}";
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Parses a flat JSON object, values are kept as text whatever their type
+     *
+     * @throws IllegalArgumentException if it's not a flat JSON object
+     */
+    static Map<String, String> parseObject(String json) {
+        Map<String, String> fields = new HashMap<>();
+        int[] pos = { skipSpaces(json, 0) };
+        expect(json, pos, '{');
+        if (peek(json, pos) == '}') {
+            pos[0]++;
+        } else {
+            do {
+                String name = parseString(json, pos);
+                expect(json, pos, ':');
+                fields.put(name, peek(json, pos) == '"' ? parseString(json, pos) : parseLiteral(json, pos));
+            } while (tryExpect(json, pos, ','));
+            expect(json, pos, '}');
+        }
+        if (skipSpaces(json, pos[0]) != json.length()) {
+            throw new IllegalArgumentException("Trailing characters in JSON");
+        }
+        return fields;
+    }
+
+    private static String parseString(String json, int[] pos) {
+        expect(json, pos, '"');
+        StringBuilder str = new StringBuilder();
+        int i = pos[0];
+        while (i < json.length() && json.charAt(i) != '"') {
+            char c = json.charAt(i++);
+            if (c == '\\' && i < json.length()) {
+                char escaped = json.charAt(i++);
+                switch (escaped) {
+                case 'n':
+                    c = '\n';
+                    break;
+                case 't':
+                    c = '\t';
+                    break;
+                case 'r':
+                    c = '\r';
+                    break;
+                case 'b':
+                    c = '\b';
+                    break;
+                case 'f':
+                    c = '\f';
+                    break;
+                case 'u':
+                    if (i + 4 > json.length()) {
+                        throw new IllegalArgumentException("Invalid JSON escape");
+                    }
+                    c = (char) Integer.parseInt(json.substring(i, i + 4), 16);
+                    i += 4;
+                    break;
+                default:
+                    c = escaped;
+                }
+            }
+            str.append(c);
+        }
+        if (i == json.length()) {
+            throw new IllegalArgumentException("Unterminated JSON string");
+        }
+        pos[0] = i + 1;
+        return str.toString();
+    }
+
+    /**
+     * Numbers, true, false and null
+     */
+    private static String parseLiteral(String json, int[] pos) {
+        int start = skipSpaces(json, pos[0]);
+        int end = start;
+        while (end < json.length() && ",}] \t\r\n".indexOf(json.charAt(end)) < 0) {
+            end++;
+        }
+        if (end == start || json.charAt(start) == '{' || json.charAt(start) == '[') {
+            throw new IllegalArgumentException("Only flat JSON objects are supported");
+        }
+        pos[0] = end;
+        return json.substring(start, end);
+    }
+
+    private static char peek(String json, int[] pos) {
+        pos[0] = skipSpaces(json, pos[0]);
+        if (pos[0] == json.length()) {
+            throw new IllegalArgumentException("Unexpected end of JSON");
+        }
+        return json.charAt(pos[0]);
+    }
+
+    private static void expect(String json, int[] pos, char c) {
+        if (!tryExpect(json, pos, c)) {
+            throw new IllegalArgumentException("Expected '" + c + "' in JSON at " + pos[0]);
+        }
+    }
+
+    private static boolean tryExpect(String json, int[] pos, char c) {
+        pos[0] = skipSpaces(json, pos[0]);
+        if (pos[0] < json.length() && json.charAt(pos[0]) == c) {
+            pos[0]++;
+            return true;
+        }
+        return false;
+    }
+
+    private static int skipSpaces(String json, int i) {
+        while (i < json.length() && Character.isWhitespace(json.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    static String quote(String str) {
+        StringBuilder quoted = new StringBuilder(str.length() + 2).append('"');
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
\ No newline at end of file
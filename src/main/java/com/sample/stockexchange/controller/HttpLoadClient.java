@@ -0,0 +1,108 @@
+package com.sample.stockexchange.controller;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HttpLoadClient sends random orders to an {@link HttpGateway} from many
+ * concurrent clients, each one placing its orders one after the other on a
+ * virtual thread of its own, and measures throughput and round-trip latencies.
+ * 
+ * Usage: HttpLoadClient [url] [clients] [orders per client]
+ */
+public final class HttpLoadClient {
+    private static final String[] STOCKS = { "HTTP0", "HTTP1", "HTTP2", "HTTP3" };
+
+    private final URI orders;
+    private final int clients;
+    private final int ordersPerClient;
+
+    /**
+     * @param base e.g. http://localhost:8080
+     */
+    public HttpLoadClient(URI base, int clients, int ordersPerClient) {
+        if (clients < 1 || ordersPerClient < 1) {
+            throw new IllegalArgumentException("Clients and orders must be positive");
+        }
+        this.orders = base.resolve("/orders");
+        this.clients = clients;
+        this.ordersPerClient = ordersPerClient;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        URI base = URI.create(args.length > 0 ? args[0] : "http://localhost:8080");
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int ordersPerClient = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+
+        System.out.println(new HttpLoadClient(base, clients, ordersPerClient).run());
+    }
+
+    public LoadResult run() throws InterruptedException {
+        long[] latencies = new long[clients * ordersPerClient];
+        AtomicLong responses = new AtomicLong();
+        AtomicLong accepted = new AtomicLong();
+        AtomicLong executions = new AtomicLong();
+
+        long start = System.nanoTime();
+        // clients finish before the HttpClient is closed
+        try (HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+                ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                threads.execute(() -> {
+                    Random random = new Random(client);
+                    for (int i = 0; i < ordersPerClient; i++) {
+                        HttpRequest request = HttpRequest.newBuilder(orders)
+                                .POST(HttpRequest.BodyPublishers.ofString(order(client, i, random))).build();
+                        long sent = System.nanoTime();
+                        HttpResponse<String> response;
+                        try {
+                            response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                        } catch (IOException e) {
+                            continue;
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+
+                        latencies[(int) responses.getAndIncrement()] = System.nanoTime() - sent;
+                        if (response.statusCode() == 200) {
+                            accepted.incrementAndGet();
+                            executions.addAndGet(count(response.body(), "\"executionId\""));
+                        }
+                    }
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        int count = (int) responses.get();
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new LoadResult(count, accepted.get(), count - accepted.get(), executions.get(), elapsed, sorted);
+    }
+
+    private static String order(int client, int i, Random random) {
+        int minute = i % (24 * 60);
+        return String.format("{\"id\":\"H%d-%d\",\"time\":\"%02d:%02d\",\"stock\":\"%s\",\"side\":\"%s\","
+                + "\"quantity\":%d,\"price\":\"%d.%02d\"}", client, i, minute / 60, minute % 60,
+                STOCKS[random.nextInt(STOCKS.length)], random.nextBoolean() ? "buy" : "sell", 1 + random.nextInt(100),
+                99 + random.nextInt(2), random.nextInt(100));
+    }
+
+    private static int count(String str, String part) {
+        int count = 0;
+        for (int i = str.indexOf(part); i >= 0; i = str.indexOf(part, i + part.length())) {
+            count++;
+        }
+        return count;
+    }
+}
\ No newline at end of file
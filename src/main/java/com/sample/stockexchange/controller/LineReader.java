@@ -0,0 +1,125 @@
+package com.sample.stockexchange.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * LineReader reads lines of bytes from an {@link InputStream} into a single
+ * reusable buffer, unlike BufferedReader.readLine() which decodes and
+ * allocates a String per line. A line ends with "\n", "\r\n" or end of
+ * stream; the line terminator isn't part of the line.
+ */
+public final class LineReader {
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private byte[] buf;
+    private int pos;
+    private int limit;
+    private int lineStart;
+    private int lineLength;
+    private boolean eof;
+
+    public LineReader(InputStream in) {
+        this(in, DEFAULT_BUFFER_SIZE);
+    }
+
+    public LineReader(InputStream in, int bufferSize) {
+        this.in = in;
+        this.buf = new byte[bufferSize];
+    }
+
+    /**
+     * Advances to the next line. The previous line's bytes may be overwritten.
+     *
+     * @return false at end of stream
+     */
+    public boolean next() throws IOException {
+        int scan = pos;
+        while (true) {
+            for (; scan < limit; scan++) {
+                if (buf[scan] == '\n') {
+                    setLine(pos, scan);
+                    pos = scan + 1;
+                    return true;
+                }
+            }
+
+            if (eof) {
+                if (pos == limit) {
+                    return false;
+                }
+                setLine(pos, limit);
+                pos = limit;
+                return true;
+            }
+
+            // no complete line left in the buffer, compact it and read more
+            int pending = limit - pos;
+            if (pos > 0) {
+                System.arraycopy(buf, pos, buf, 0, pending);
+            } else if (pending == buf.length) {
+                byte[] grown = new byte[buf.length * 2];
+                System.arraycopy(buf, 0, grown, 0, pending);
+                buf = grown;
+            }
+            scan -= pos;
+            pos = 0;
+            limit = pending;
+
+            int read = in.read(buf, limit, buf.length - limit);
+            if (read < 0) {
+                eof = true;
+            } else {
+                limit += read;
+            }
+        }
+    }
+
+    /**
+     * @return true if the next line can be returned without blocking on input
+     */
+    public boolean hasBufferedLine() {
+        for (int i = pos; i < limit; i++) {
+            if (buf[i] == '\n') {
+                return true;
+            }
+        }
+        return eof && pos < limit;
+    }
+
+    public byte[] buffer() {
+        return buf;
+    }
+
+    public int lineStart() {
+        return lineStart;
+    }
+
+    public int lineLength() {
+        return lineLength;
+    }
+
+    /**
+     * @return true if the current line is exactly str, str being ASCII
+     */
+    public boolean lineEquals(String str) {
+        if (lineLength != str.length()) {
+            return false;
+        }
+        for (int i = 0; i < lineLength; i++) {
+            if (buf[lineStart + i] != str.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setLine(int start, int end) {
+        if (end > start && buf[end - 1] == '\r') {
+            end--;
+        }
+        lineStart = start;
+        lineLength = end - start;
+    }
+}
\ No newline at end of file
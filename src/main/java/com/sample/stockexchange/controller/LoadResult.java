@@ -0,0 +1,64 @@
+package com.sample.stockexchange.controller;
+
+/**
+ * LoadResult is the outcome of a load client run: how many orders got a
+ * response, throughput and round-trip latencies in nanoseconds, sorted.
+ */
+public final class LoadResult {
+    private final long responses;
+    private final long accepted;
+    private final long rejected;
+    private final long executions;
+    private final long elapsedNanos;
+    private final long[] latencies;
+
+    LoadResult(long responses, long accepted, long rejected, long executions, long elapsedNanos, long[] latencies) {
+        this.responses = responses;
+        this.accepted = accepted;
+        this.rejected = rejected;
+        this.executions = executions;
+        this.elapsedNanos = elapsedNanos;
+        this.latencies = latencies;
+    }
+
+    public long getResponses() {
+        return responses;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    public double getOrdersPerSecond() {
+        return responses * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return round-trip latency at percentile, in nanoseconds
+     */
+    public long getLatency(double percentile) {
+        if (latencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+        return latencies[Math.max(0, Math.min(latencies.length - 1, index))];
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%d orders (%d accepted, %d rejected), %d executions, %.0f orders/s%n"
+                        + "round-trip latency us: p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f",
+                responses, accepted, rejected, executions, getOrdersPerSecond(), getLatency(50) / 1e3,
+                getLatency(90) / 1e3, getLatency(99) / 1e3, getLatency(99.9) / 1e3, getLatency(100) / 1e3);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,200 @@
+package com.sample.stockexchange.controller;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sample.stockexchange.entity.Order;
+
+/**
+ * MappedOrderReader reads orders from a file in chunks ending on a line
+ * boundary, memory-mapped and parsed on parallelism threads, each with an
+ * {@link OrderLineParser} of its own, and handed over chunk by chunk in input
+ * order. Parsing runs ahead of the caller by at most two chunks per thread, so
+ * memory use doesn't grow with the size of the file.
+ *
+ * Lines are the same as {@link LineReader}'s, and reading stops at an "EOF"
+ * line like on stdin. A line failing to parse ends its chunk: the orders
+ * before it are handed over, then its exception is thrown. Not thread-safe.
+ */
+public final class MappedOrderReader implements Closeable {
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    private static final byte[] EOF = { 'E', 'O', 'F' };
+
+    private final FileChannel channel;
+    private final long size;
+    private final int chunkSize;
+    private final int lookahead;
+    private final ExecutorService parsers;
+    private final ArrayDeque<Future<Chunk>> chunks;
+    private final ByteBuffer probe;
+    // start of the next chunk to be parsed
+    private long position;
+    private boolean done;
+    private RuntimeException error;
+
+    /**
+     * Parses on a thread per available processor
+     */
+    public MappedOrderReader(Path file) throws IOException {
+        this(file, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param parallelism number of threads parsing chunks
+     * @param chunkSize   bytes per chunk, extended to the end of its last line
+     */
+    public MappedOrderReader(Path file, int parallelism, int chunkSize) throws IOException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.chunkSize = chunkSize;
+        this.lookahead = 2 * parallelism;
+        AtomicInteger threads = new AtomicInteger();
+        this.parsers = Executors.newFixedThreadPool(parallelism, task -> {
+            Thread thread = new Thread(task, "order-parser-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.chunks = new ArrayDeque<>();
+        this.probe = ByteBuffer.allocate(4096);
+    }
+
+    /**
+     * @return orders of the next chunk in input order, null once every order
+     *         has been read
+     * @throws IOException if the file failed to be read
+     * @throws RuntimeException thrown by {@link OrderLineParser} for the line
+     *                          which failed to parse, once the orders before it
+     *                          have been handed over
+     */
+    public List<Order> next() throws IOException, InterruptedException {
+        if (error != null) {
+            RuntimeException e = error;
+            error = null;
+            throw e;
+        }
+        if (done) {
+            return null;
+        }
+
+        while (chunks.size() < lookahead && position < size) {
+            long start = position;
+            long end = start + chunkSize >= size ? size : lineEnd(start + chunkSize - 1);
+            chunks.add(parsers.submit(() -> parse(start, end)));
+            position = end;
+        }
+        Future<Chunk> future = chunks.poll();
+        if (future == null) {
+            done = true;
+            return null;
+        }
+
+        Chunk chunk;
+        try {
+            chunk = future.get();
+        } catch (ExecutionException e) {
+            done = true;
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to parse orders", e.getCause());
+        }
+        if (chunk.error != null || chunk.end) {
+            // nothing after it is handed over
+            done = true;
+            error = chunk.error;
+        }
+        return chunk.orders;
+    }
+
+    /**
+     * Stops parsing and closes the file
+     */
+    @Override
+    public void close() throws IOException {
+        parsers.shutdownNow();
+        channel.close();
+    }
+
+    /**
+     * @return offset after the line ending at or after from, the end of the file
+     *         if there is none
+     */
+    private long lineEnd(long from) throws IOException {
+        long offset = from;
+        while (offset < size) {
+            probe.clear();
+            int read = channel.read(probe, offset);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    /**
+     * Maps bytes from start to end, copied in bulk to be parsed in place
+     */
+    private Chunk parse(long start, long end) throws IOException {
+        byte[] bytes = new byte[(int) (end - start)];
+        channel.map(FileChannel.MapMode.READ_ONLY, start, bytes.length).get(bytes);
+
+        Chunk chunk = new Chunk();
+        OrderLineParser parser = new OrderLineParser();
+        int lineStart = 0;
+        while (lineStart < bytes.length) {
+            int next = lineStart;
+            while (next < bytes.length && bytes[next] != '\n') {
+                next++;
+            }
+            int lineEnd = next > lineStart && bytes[next - 1] == '\r' ? next - 1 : next;
+            if (Arrays.equals(bytes, lineStart, lineEnd, EOF, 0, EOF.length)) {
+                chunk.end = true;
+                break;
+            }
+            try {
+                chunk.orders.add(parser.parse(bytes, lineStart, lineEnd - lineStart));
+            } catch (RuntimeException e) {
+                chunk.error = e;
+                break;
+            }
+            lineStart = next + 1;
+        }
+        return chunk;
+    }
+
+    /**
+     * Orders parsed from a chunk, up to an "EOF" line or the line failing to
+     * parse
+     */
+    private static final class Chunk {
+        final List<Order> orders = new ArrayList<>();
+        RuntimeException error;
+        boolean end;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.sample.stockexchange.controller;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * OrderFlowGenerator writes synthetic orders in the input format, format:
+ * <order-id> <time> <stock> <buy/sell> <qty> <price>, to size hardware with
+ * realistic load rather than uniform random orders:
+ * <ul>
+ * <li>symbols SYM0, SYM1... are picked with Zipf-distributed popularity, SYM0
+ * being the most traded</li>
+ * <li>each symbol has a mid price doing a random walk of volatility ticks per
+ * order on average</li>
+ * <li>orders cross the mid with crossProbability, so they trade against
+ * resting orders, otherwise they rest a few ticks away from it</li>
+ * </ul>
+ * Times are spread over the day. The same seed writes the same orders.
+ * 
+ * Usage: OrderFlowGenerator file [orders] [symbols] [zipf exponent] [buy ratio]
+ * [cross probability] [volatility] [seed]
+ */
+public final class OrderFlowGenerator {
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final int symbols;
+    private final double buyRatio;
+    private final double crossProbability;
+    private final double volatility;
+    private final long seed;
+    // cumulative popularity of symbols, by rank
+    private final double[] popularity;
+
+    /**
+     * @param symbols          number of stocks
+     * @param zipfExponent     skew of symbol popularity, 0 for uniform, about 1
+     *                         for a real market
+     * @param buyRatio         share of buy orders, between 0 and 1
+     * @param crossProbability share of orders priced through the mid, between 0
+     *                         and 1
+     * @param volatility       standard deviation of mid moves per order, in ticks
+     * @param seed             of the random generator
+     */
+    public OrderFlowGenerator(int symbols, double zipfExponent, double buyRatio, double crossProbability,
+            double volatility, long seed) {
+        if (symbols < 1 || zipfExponent < 0 || volatility < 0) {
+            throw new IllegalArgumentException("Symbols must be positive, zipf exponent and volatility not negative");
+        }
+        if (buyRatio < 0 || buyRatio > 1 || crossProbability < 0 || crossProbability > 1) {
+            throw new IllegalArgumentException("Buy ratio and cross probability must be between 0 and 1");
+        }
+        this.symbols = symbols;
+        this.buyRatio = buyRatio;
+        this.crossProbability = crossProbability;
+        this.volatility = volatility;
+        this.seed = seed;
+
+        this.popularity = new double[symbols];
+        double total = 0;
+        for (int rank = 0; rank < symbols; rank++) {
+            total += 1 / Math.pow(rank + 1, zipfExponent);
+            popularity[rank] = total;
+        }
+        for (int rank = 0; rank < symbols; rank++) {
+            popularity[rank] /= total;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: OrderFlowGenerator file [orders] [symbols] [zipf exponent] [buy ratio]"
+                    + " [cross probability] [volatility] [seed]");
+            return;
+        }
+        Path file = Paths.get(args[0]);
+        int orders = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int symbols = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        double zipfExponent = args.length > 3 ? Double.parseDouble(args[3]) : 1;
+        double buyRatio = args.length > 4 ? Double.parseDouble(args[4]) : 0.5;
+        double crossProbability = args.length > 5 ? Double.parseDouble(args[5]) : 0.3;
+        double volatility = args.length > 6 ? Double.parseDouble(args[6]) : 1;
+        long seed = args.length > 7 ? Long.parseLong(args[7]) : 42;
+
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+            new OrderFlowGenerator(symbols, zipfExponent, buyRatio, crossProbability, volatility, seed).write(out,
+                    orders);
+        }
+    }
+
+    /**
+     * Writes orders lines, ids going from #1 up
+     */
+    public void write(Writer out, int orders) throws IOException {
+        Writer writer = out instanceof BufferedWriter ? out : new BufferedWriter(out);
+        Random random = new Random(seed);
+        // mid prices in ticks of 0.01, between 10.00 and 1000.00 to start with
+        long[] mids = new long[symbols];
+        for (int i = 0; i < symbols; i++) {
+            mids[i] = 1_000 + random.nextInt(99_000);
+        }
+
+        StringBuilder line = new StringBuilder(64);
+        for (int i = 0; i < orders; i++) {
+            int symbol = nextSymbol(random);
+            long mid = Math.max(2, mids[symbol] + Math.round(random.nextGaussian() * volatility));
+            mids[symbol] = mid;
+
+            boolean buy = random.nextDouble() < buyRatio;
+            boolean cross = random.nextDouble() < crossProbability;
+            // a few ticks from the mid, more rarely further
+            long offset = 1 + (long) (-Math.log(1 - random.nextDouble()) * 5);
+            long price = Math.max(1, buy == cross ? mid + offset : mid - offset);
+            int quantity = 10 * (1 + random.nextInt(50));
+            int minute = (int) ((long) i * MINUTES_PER_DAY / orders);
+
+            line.setLength(0);
+            line.append('#').append(i + 1).append(' ');
+            appendTwoDigits(line, minute / 60).append(':');
+            appendTwoDigits(line, minute % 60).append(" SYM").append(symbol).append(buy ? " buy " : " sell ")
+                    .append(quantity).append(' ').append(price / 100).append('.');
+            appendTwoDigits(line, (int) (price % 100)).append('\n');
+            writer.append(line);
+        }
+        writer.flush();
+    }
+
+    private int nextSymbol(Random random) {
+        int rank = Arrays.binarySearch(popularity, random.nextDouble());
+        return Math.min(symbols - 1, rank >= 0 ? rank : -rank - 1);
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder line, int value) {
+        return line.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
\ No newline at end of file
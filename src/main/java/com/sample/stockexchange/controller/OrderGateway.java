@@ -0,0 +1,366 @@
+package com.sample.stockexchange.controller;
+
+import static com.sample.stockexchange.controller.BinaryProtocol.ACCEPTED;
+import static com.sample.stockexchange.controller.BinaryProtocol.EXECUTED;
+import static com.sample.stockexchange.controller.BinaryProtocol.ID;
+import static com.sample.stockexchange.controller.BinaryProtocol.ID_LENGTH;
+import static com.sample.stockexchange.controller.BinaryProtocol.MAX_ID_LENGTH;
+import static com.sample.stockexchange.controller.BinaryProtocol.MAX_STOCK_LENGTH;
+import static com.sample.stockexchange.controller.BinaryProtocol.NEW_ORDER;
+import static com.sample.stockexchange.controller.BinaryProtocol.ORDER_SIZE;
+import static com.sample.stockexchange.controller.BinaryProtocol.PRICE;
+import static com.sample.stockexchange.controller.BinaryProtocol.QUANTITY;
+import static com.sample.stockexchange.controller.BinaryProtocol.REJECTED;
+import static com.sample.stockexchange.controller.BinaryProtocol.REPORT_SIZE;
+import static com.sample.stockexchange.controller.BinaryProtocol.SIDE;
+import static com.sample.stockexchange.controller.BinaryProtocol.STOCK;
+import static com.sample.stockexchange.controller.BinaryProtocol.STOCK_LENGTH;
+import static com.sample.stockexchange.controller.BinaryProtocol.TIME;
+import static com.sample.stockexchange.controller.BinaryProtocol.TYPE;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderEntry;
+import com.sample.stockexchange.entity.OrderType;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.usecase.AddOrderException;
+import com.sample.stockexchange.usecase.OrderUsecasesRepo;
+import com.sample.stockexchange.usecase.TradeListener;
+
+/**
+ * OrderGateway accepts orders over TCP in the {@link BinaryProtocol}, on
+ * non-blocking channels served by a single selector thread. Orders are decoded
+ * straight from each connection's direct read buffer and placed in the
+ * {@link OrderUsecasesRepo} on that same thread. Reports are queued in each
+ * connection's direct write buffer, and written once per selector round, so
+ * every report of a round goes out in as few writes as possible.
+ * 
+ * Orders stay in the books when their client disconnects, their executions are
+ * no longer reported. Orders are checked like parsed lines, prices being
+ * multiples of their stock's tick size, and a stock is only registered by an
+ * order passing those checks.
+ */
+public final class OrderGateway implements Runnable, Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long NANOS_PER_DAY = 86_400_000_000_000L;
+
+    private final OrderUsecasesRepo repo;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final int port;
+    private final SymbolTable symbols;
+    private final byte[] scratch;
+    // resting orders by id, unique across both sides, as an order store may
+    // hand back copies of them, e.g. OffHeapOrderSetStore
+    private final Map<Order, Session> owners;
+    private final List<Session> pending;
+    private final TradeListener reporter;
+    private Session current;
+    private volatile boolean running;
+
+    /**
+     * Binds to address, port 0 picks a free port
+     */
+    public OrderGateway(OrderUsecasesRepo repo, InetSocketAddress address) throws IOException {
+        this.repo = repo;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(address);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        this.port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+        this.symbols = new SymbolTable(StandardCharsets.UTF_8);
+        this.scratch = new byte[Math.max(MAX_ID_LENGTH, MAX_STOCK_LENGTH)];
+        this.owners = new HashMap<>();
+        this.pending = new ArrayList<>();
+        this.reporter = this::report;
+        this.running = true;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Serves clients until close() is called. Order books start empty, or as
+     * left by the orders in the repo's journal, whose clients are unknown.
+     *
+     * @throws UncheckedIOException if the selector or server socket fails
+     */
+    @Override
+    public void run() {
+        repo.recover(entry -> {
+        });
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+
+                    Session session = (Session) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            read(session);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            session.flush();
+                        }
+                    } catch (IOException e) {
+                        // the client went away, others carry on
+                        session.close();
+                    }
+                }
+                flushPending();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Order gateway failed", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key.channel());
+            }
+            closeQuietly(selector);
+        }
+    }
+
+    /**
+     * Stops run(), closing the server and every client connection
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Session session = new Session(channel);
+        session.key = channel.register(selector, SelectionKey.OP_READ, session);
+    }
+
+    private void read(Session session) throws IOException {
+        ByteBuffer in = session.in;
+        if (session.channel.read(in) < 0) {
+            session.close();
+            return;
+        }
+
+        in.flip();
+        while (in.remaining() >= ORDER_SIZE && !session.closed) {
+            int at = in.position();
+            handle(session, in, at);
+            in.position(at + ORDER_SIZE);
+        }
+        in.compact();
+    }
+
+    private void handle(Session session, ByteBuffer in, int at) {
+        if (in.get(at + TYPE) != NEW_ORDER) {
+            // out of step with the protocol, nothing else can be trusted
+            session.close();
+            return;
+        }
+
+        Order order;
+        try {
+            order = decode(in, at);
+        } catch (IllegalArgumentException e) {
+            session.report(REJECTED, 0, idOf(in, at), null, 0, 0, 0);
+            return;
+        }
+
+        current = session;
+        try {
+            repo.placeOrder(order, reporter);
+        } catch (AddOrderException e) {
+            session.report(REJECTED, 0, order.getId(), null, 0, 0, 0);
+            return;
+        } finally {
+            current = null;
+        }
+
+        if (order.getQuantity() > 0) {
+            owners.put(order, session);
+        }
+        session.report(ACCEPTED, 0, order.getId(), null, order.getQuantity(), order.getPrice(),
+                order.getStock().getScale());
+    }
+
+    private Order decode(ByteBuffer in, int at) {
+        int side = in.get(at + SIDE);
+        int idLength = in.get(at + ID_LENGTH);
+        int stockLength = in.get(at + STOCK_LENGTH);
+        int quantity = in.getInt(at + QUANTITY);
+        long price = in.getLong(at + PRICE);
+        long time = in.getLong(at + TIME);
+        if (side < 0 || side > 1 || idLength <= 0 || idLength > MAX_ID_LENGTH || stockLength <= 0
+                || stockLength > MAX_STOCK_LENGTH || quantity <= 0 || price <= 0 || time < 0
+                || time >= NANOS_PER_DAY) {
+            throw new IllegalArgumentException("Invalid order message");
+        }
+
+        for (int i = 0; i < stockLength; i++) {
+            scratch[i] = in.get(at + STOCK + i);
+        }
+        // a new symbol is registered with the default tick size, and only once
+        // the order is known to be valid
+        Stock stock = symbols.find(scratch, 0, stockLength);
+        if (price % (stock == null ? Stock.DEFAULT_TICK_SIZE : stock.getTickSize()) != 0) {
+            throw new IllegalArgumentException("Price is not a multiple of tick size");
+        }
+        if (stock == null) {
+            stock = symbols.intern(scratch, 0, stockLength);
+        }
+        for (int i = 0; i < idLength; i++) {
+            scratch[i] = in.get(at + ID + i);
+        }
+        String id = new String(scratch, 0, idLength, StandardCharsets.UTF_8);
+
+        return new Order(id, LocalTime.ofNanoOfDay(time), side == 0 ? OrderType.BUY : OrderType.SELL, quantity,
+                stock, price);
+    }
+
+    private static String idOf(ByteBuffer in, int at) {
+        int length = Math.max(0, Math.min(MAX_ID_LENGTH, in.get(at + ID_LENGTH)));
+        return BinaryProtocol.getString(in, at + ID, length);
+    }
+
+    /**
+     * Reports an execution to the clients of both orders
+     */
+    private void report(OrderEntry entry) {
+        Session sellOwner = ownerOf(entry.getParty());
+        Session buyOwner = ownerOf(entry.getCounterParty());
+        int scale = entry.getParty().getStock().getScale();
+
+        sellOwner.report(EXECUTED, entry.getId(), entry.getParty().getId(), entry.getCounterParty().getId(),
+                entry.getQuantity(), entry.getPrice(), scale);
+        if (buyOwner != sellOwner) {
+            buyOwner.report(EXECUTED, entry.getId(), entry.getParty().getId(), entry.getCounterParty().getId(),
+                    entry.getQuantity(), entry.getPrice(), scale);
+        }
+    }
+
+    /**
+     * @return session of a resting order, forgotten once it's filled, or of the
+     *         order being placed
+     */
+    private Session ownerOf(Order order) {
+        Session owner = order.getQuantity() == 0 ? owners.remove(order) : owners.get(order);
+        return owner != null ? owner : current;
+    }
+
+    private void flushPending() {
+        for (Session session : pending) {
+            session.queued = false;
+            try {
+                session.flush();
+            } catch (IOException e) {
+                session.close();
+            }
+        }
+        pending.clear();
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // closing anyway
+        }
+    }
+
+    /**
+     * A client connection, with its buffers
+     */
+    private final class Session {
+        private final SocketChannel channel;
+        private final ByteBuffer in;
+        private ByteBuffer out;
+        private SelectionKey key;
+        private boolean queued;
+        private boolean closed;
+
+        Session(SocketChannel channel) {
+            this.channel = channel;
+            this.in = BinaryProtocol.allocate(BUFFER_SIZE);
+            this.out = BinaryProtocol.allocate(BUFFER_SIZE);
+        }
+
+        void report(byte type, long executionId, String id, String counterId, int quantity, long price, int scale) {
+            if (closed) {
+                return;
+            }
+            if (out.remaining() < REPORT_SIZE) {
+                // a slow reader, keep its reports rather than stall other clients
+                ByteBuffer bigger = BinaryProtocol.allocate(out.capacity() * 2);
+                out.flip();
+                bigger.put(out);
+                out = bigger;
+            }
+            try {
+                BinaryProtocol.putReport(out, type, executionId, id, counterId, quantity, price, scale);
+            } catch (IllegalArgumentException e) {
+                // reports carry any id the gateway or the journal takes, so this
+                // is only an order placed in the repo some other way. Matching
+                // carries on, the client just can't follow its orders anymore
+                close();
+                return;
+            }
+            if (!queued) {
+                queued = true;
+                pending.add(this);
+            }
+        }
+
+        /**
+         * Writes out queued reports, waiting for the channel to be writable if
+         * they don't all fit
+         */
+        void flush() throws IOException {
+            if (closed) {
+                return;
+            }
+            out.flip();
+            channel.write(out);
+            out.compact();
+            key.interestOps(out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+
+        void close() {
+            closed = true;
+            key.cancel();
+            closeQuietly(channel);
+        }
+    }
+}
\ No newline at end of file
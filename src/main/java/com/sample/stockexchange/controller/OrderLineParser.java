@@ -0,0 +1,171 @@
+package com.sample.stockexchange.controller;
+
+import java.nio.charset.Charset;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.NoSuchElementException;
+
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderPool;
+import com.sample.stockexchange.entity.OrderType;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+
+/**
+ * OrderLineParser parses orders straight from a byte buffer. format:<order-id>
+ * <time> <stock> <buy/sell> <qty> <price>
+ * 
+ * Tokens are decoded in place: times come from a table of every minute of the
+ * day, prices are parsed to fixed-point longs and stocks are interned in
+ * {@link StockRegistry}, with a local {@link SymbolTable}. Apart from the
+ * returned {@link Order} and its id, nothing is allocated per line once every
+ * stock has been seen, and orders can come from an {@link OrderPool}. Not
+ * thread-safe.
+ */
+public final class OrderLineParser {
+    private static final LocalTime[] MINUTES = new LocalTime[24 * 60];
+    static {
+        for (int i = 0; i < MINUTES.length; i++) {
+            MINUTES[i] = LocalTime.of(i / 60, i % 60);
+        }
+    }
+
+    private final Charset charset;
+    private final AsciiSequence token;
+    private final SymbolTable symbols;
+
+    // bounds of the token found by nextToken()
+    private int tokenStart;
+    private int tokenEnd;
+
+    public OrderLineParser() {
+        this(Charset.defaultCharset());
+    }
+
+    /**
+     * @param charset used to decode ids and stock names
+     */
+    public OrderLineParser(Charset charset) {
+        this.charset = charset;
+        this.token = new AsciiSequence();
+        this.symbols = new SymbolTable(charset);
+    }
+
+    public Order parse(byte[] buf, int off, int len) {
+        return parse(buf, off, len, null);
+    }
+
+    /**
+     * @param pool to acquire the order from, null for a new one
+     */
+    public Order parse(byte[] buf, int off, int len, OrderPool pool) {
+        int end = off + len;
+
+        nextToken(buf, off, end);
+        String orderId = new String(buf, tokenStart, tokenEnd - tokenStart, charset);
+
+        nextToken(buf, tokenEnd, end);
+        LocalTime orderTime = parseTime(buf, tokenStart, tokenEnd);
+
+        nextToken(buf, tokenEnd, end);
+        Stock stock = symbols.intern(buf, tokenStart, tokenEnd);
+
+        nextToken(buf, tokenEnd, end);
+        OrderType type = parseType(buf, tokenStart, tokenEnd);
+
+        nextToken(buf, tokenEnd, end);
+        int quantity = parseQuantity(buf, tokenStart, tokenEnd);
+
+        nextToken(buf, tokenEnd, end);
+        long price = stock.parsePrice(token.wrap(buf, tokenStart, tokenEnd - tokenStart));
+
+        return pool == null ? new Order(orderId, orderTime, type, quantity, stock, price)
+                : pool.acquire(orderId, orderTime, type, quantity, stock, price);
+    }
+
+    private void nextToken(byte[] buf, int from, int end) {
+        int start = from;
+        while (start < end && isWhitespace(buf[start])) {
+            start++;
+        }
+        if (start == end) {
+            throw new NoSuchElementException();
+        }
+
+        int stop = start;
+        while (stop < end && !isWhitespace(buf[stop])) {
+            stop++;
+        }
+        tokenStart = start;
+        tokenEnd = stop;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n' || b == '\f';
+    }
+
+    /**
+     * Parses HH:mm
+     */
+    private LocalTime parseTime(byte[] buf, int start, int end) {
+        if (end - start == 5 && buf[start + 2] == ':') {
+            int hour = digit(buf[start]) * 10 + digit(buf[start + 1]);
+            int minute = digit(buf[start + 3]) * 10 + digit(buf[start + 4]);
+            if (hour >= 0 && hour < 24 && minute >= 0 && minute < 60) {
+                return MINUTES[hour * 60 + minute];
+            }
+        }
+
+        String text = token.wrap(buf, start, end - start).toString();
+        throw new DateTimeParseException("Text '" + text + "' could not be parsed as HH:mm", text, 0);
+    }
+
+    private static int digit(byte b) {
+        return (b >= '0' && b <= '9') ? b - '0' : -100;
+    }
+
+    private OrderType parseType(byte[] buf, int start, int end) {
+        if (equalsIgnoreCase(buf, start, end, "buy")) {
+            return OrderType.BUY;
+        } else if (equalsIgnoreCase(buf, start, end, "sell")) {
+            return OrderType.SELL;
+        }
+        throw new IllegalArgumentException("No order type " + token.wrap(buf, start, end - start));
+    }
+
+    private static boolean equalsIgnoreCase(byte[] buf, int start, int end, String str) {
+        if (end - start != str.length()) {
+            return false;
+        }
+        for (int i = 0; i < str.length(); i++) {
+            if ((buf[start + i] | 0x20) != str.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int parseQuantity(byte[] buf, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (buf[i] == '-' || buf[i] == '+') {
+            negative = buf[i] == '-';
+            i++;
+        }
+        if (i == end) {
+            throw new NumberFormatException("For input string: \"" + token.wrap(buf, start, end - start) + "\"");
+        }
+
+        // accumulate negatively, as Integer.parseInt does, to reach Integer.MIN_VALUE
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int value = 0;
+        for (; i < end; i++) {
+            int d = digit(buf[i]);
+            if (d < 0 || value < limit / 10 || value * 10 < limit + d) {
+                throw new NumberFormatException("For input string: \"" + token.wrap(buf, start, end - start) + "\"");
+            }
+            value = value * 10 - d;
+        }
+        return negative ? value : -value;
+    }
+}
\ No newline at end of file
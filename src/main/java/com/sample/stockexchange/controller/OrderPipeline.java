@@ -0,0 +1,247 @@
+package com.sample.stockexchange.controller;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.time.format.DateTimeParseException;
+import java.util.NoSuchElementException;
+
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderEntry;
+import com.sample.stockexchange.pipeline.RingBuffer;
+import com.sample.stockexchange.pipeline.WaitStrategy;
+import com.sample.stockexchange.usecase.AddOrderException;
+import com.sample.stockexchange.usecase.OrderUsecasesRepo;
+import com.sample.stockexchange.usecase.TradeListener;
+
+/**
+ * OrderPipeline streams order lines to trades through three stages, each on
+ * its own thread and connected by {@link RingBuffer}:
+ * 
+ * <pre>
+ * parse -> match -> publish
+ * </pre>
+ * 
+ * parse reads and parses lines on the calling thread, match places orders in
+ * the {@link OrderUsecasesRepo}, which gives accepted orders their arrival
+ * sequence, and publish writes trades out with a {@link TradeWriter}. Output
+ * is the same as {@link CLIController#run()}: the first invalid line or
+ * rejected order is reported after every trade before it, and ends the output.
+ */
+public final class OrderPipeline {
+    private static final int DEFAULT_CAPACITY = 4096;
+
+    private final OrderUsecasesRepo repo;
+    private final OrderLineParser parser;
+    private final PrintStream out;
+    private final RingBuffer<OrderEvent> parsed;
+    private final RingBuffer<TradeEvent> trades;
+    private volatile Throwable failure;
+
+    public OrderPipeline(OrderUsecasesRepo repo, PrintStream out, WaitStrategy waitStrategy) {
+        this(repo, out, waitStrategy, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity slots of each ring buffer
+     */
+    public OrderPipeline(OrderUsecasesRepo repo, PrintStream out, WaitStrategy waitStrategy, int capacity) {
+        this.repo = repo;
+        this.parser = new OrderLineParser();
+        this.out = out;
+        this.parsed = new RingBuffer<>(capacity, OrderEvent::new, waitStrategy);
+        this.trades = new RingBuffer<>(capacity, TradeEvent::new, waitStrategy);
+    }
+
+    /**
+     * Runs the pipeline until input ends, with an "EOF" line or at end of stream.
+     * A pipeline can only be run once.
+     * 
+     * @throws IllegalStateException if a stage failed unexpectedly
+     */
+    public void run(LineReader input) throws InterruptedException {
+        Thread caller = Thread.currentThread();
+        Thread[] stages = { new Thread(this::match, "pipeline-match"), new Thread(this::publish, "pipeline-publish") };
+        for (Thread stage : stages) {
+            stage.setUncaughtExceptionHandler((thread, e) -> {
+                failure = e;
+                caller.interrupt();
+                for (Thread other : stages) {
+                    other.interrupt();
+                }
+            });
+            stage.setDaemon(true);
+            stage.start();
+        }
+
+        try {
+            parse(input);
+            for (Thread stage : stages) {
+                stage.join();
+            }
+        } catch (InterruptedException e) {
+            if (failure == null) {
+                throw e;
+            }
+        }
+
+        if (failure != null) {
+            // clear a pending interrupt from the failed stage
+            Thread.interrupted();
+            throw new IllegalStateException("Order pipeline failed", failure);
+        }
+    }
+
+    private void parse(LineReader input) throws InterruptedException {
+        boolean end = false;
+        while (!end) {
+            long seq = parsed.claim();
+            OrderEvent event = parsed.get(seq);
+            event.clear();
+            try {
+                if (!input.next() || input.lineEquals("EOF")) {
+                    event.end = true;
+                } else {
+                    event.order = parser.parse(input.buffer(), input.lineStart(), input.lineLength());
+                }
+            } catch (DateTimeParseException | NoSuchElementException | NumberFormatException e) {
+                event.error = "Invalid input format! Exception: " + e.getMessage();
+                event.end = true;
+            } catch (IOException e) {
+                event.error = "Failed to get input! Exception: " + e.getMessage();
+                event.end = true;
+            }
+            end = event.end;
+            parsed.publish(seq);
+        }
+    }
+
+    private void match() {
+        TradeListener listener = this::publishTrade;
+        boolean rejected = false;
+        long next = 0;
+        try {
+            while (true) {
+                long available = parsed.waitFor(next);
+                for (; next <= available; next++) {
+                    OrderEvent in = parsed.get(next);
+                    if (in.end) {
+                        publishMessage(rejected ? null : in.error, true);
+                        return;
+                    }
+
+                    // like run(), nothing is matched past a rejected order
+                    if (rejected) {
+                        continue;
+                    }
+                    try {
+                        repo.placeOrder(in.order, listener);
+                    } catch (AddOrderException e) {
+                        rejected = true;
+                        publishMessage("Invalid input orders! Exception: " + e.getMessage(), false);
+                    }
+                }
+                parsed.release(available);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void publishTrade(OrderEntry entry) {
+        long seq;
+        try {
+            seq = trades.claim();
+        } catch (InterruptedException e) {
+            // placeOrder() can't be interrupted, surface it as a stage failure
+            throw new IllegalStateException("Interrupted while publishing trades", e);
+        }
+        TradeEvent event = trades.get(seq);
+        event.clear();
+        event.partyId = entry.getParty().getId();
+        event.quantity = entry.getQuantity();
+        event.price = entry.getPrice();
+        event.scale = entry.getParty().getStock().getScale();
+        event.counterPartyId = entry.getCounterParty().getId();
+        trades.publish(seq);
+    }
+
+    /**
+     * Publishes an error message to write after the trades before it, end marks
+     * the end of the output
+     */
+    private void publishMessage(String error, boolean end) throws InterruptedException {
+        long seq = trades.claim();
+        TradeEvent event = trades.get(seq);
+        event.clear();
+        event.error = error;
+        event.end = end;
+        trades.publish(seq);
+    }
+
+    private void publish() {
+        TradeWriter writer = new TradeWriter(out);
+        long next = 0;
+        try {
+            while (true) {
+                if (!trades.isAvailable(next)) {
+                    writer.flush();
+                }
+                long available = trades.waitFor(next);
+                for (; next <= available; next++) {
+                    TradeEvent event = trades.get(next);
+                    if (event.error != null) {
+                        writer.flush();
+                        out.println(event.error);
+                    } else if (!event.end) {
+                        writer.write(event.partyId, event.quantity, event.price, event.scale, event.counterPartyId);
+                    }
+                    if (event.end) {
+                        writer.flush();
+                        return;
+                    }
+                }
+                trades.release(available);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Parsed order, reused for every line
+     */
+    private static final class OrderEvent {
+        private Order order;
+        private String error;
+        private boolean end;
+
+        void clear() {
+            order = null;
+            error = null;
+            end = false;
+        }
+    }
+
+    /**
+     * Trade output fields, reused for every trade
+     */
+    private static final class TradeEvent {
+        private String partyId;
+        private int quantity;
+        private long price;
+        private int scale;
+        private String counterPartyId;
+        private String error;
+        private boolean end;
+
+        void clear() {
+            partyId = null;
+            quantity = 0;
+            price = 0;
+            scale = 0;
+            counterPartyId = null;
+            error = null;
+            end = false;
+        }
+    }
+}
\ No newline at end of file
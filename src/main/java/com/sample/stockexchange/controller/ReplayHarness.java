@@ -0,0 +1,156 @@
+package com.sample.stockexchange.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.TransactionStore;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.usecase.AddOrderException;
+import com.sample.stockexchange.usecase.LatencyHistogram;
+import com.sample.stockexchange.usecase.OrderUsecasesRepo;
+import com.sample.stockexchange.usecase.TradeListener;
+
+/**
+ * ReplayHarness places orders from a file into an {@link OrderUsecasesRepo}
+ * at a fixed target rate, and records the latency of each one in
+ * {@link LatencyHistogram}s, offline and on the calling thread.
+ * 
+ * The schedule is open-loop: order i is due at start + i / rate whether or not
+ * earlier orders are done, and its response time is measured from when it was
+ * due. A stall then shows up in the latency of every order queued behind it,
+ * as it would for clients sending at that rate, instead of being hidden by the
+ * harness waiting for it (coordinated omission). Service times, measured from
+ * when each order was actually placed, are recorded too. Orders are parsed
+ * before the clock starts.
+ * 
+ * Usage: ReplayHarness file [orders/s] [warmup orders]
+ */
+public final class ReplayHarness {
+    private final OrderUsecasesRepo repo;
+    private final double ordersPerSecond;
+    private final int warmup;
+    private final LatencyHistogram responseTimes;
+    private final LatencyHistogram serviceTimes;
+    private long trades;
+    private long rejected;
+    private long placedOrders;
+    private long elapsedNanos;
+
+    /**
+     * @param ordersPerSecond target rate
+     * @param warmup          number of first orders placed on schedule but not
+     *                        recorded, while the JIT compiles the engine
+     */
+    public ReplayHarness(OrderUsecasesRepo repo, double ordersPerSecond, int warmup) {
+        if (ordersPerSecond <= 0 || warmup < 0) {
+            throw new IllegalArgumentException("Rate must be positive and warmup not negative");
+        }
+        this.repo = repo;
+        this.ordersPerSecond = ordersPerSecond;
+        this.warmup = warmup;
+        this.responseTimes = new LatencyHistogram();
+        this.serviceTimes = new LatencyHistogram();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: ReplayHarness file [orders/s] [warmup orders]");
+            return;
+        }
+        List<Order> orders = load(Paths.get(args[0]));
+        double rate = args.length > 1 ? Double.parseDouble(args[1]) : 100_000;
+        int warmup = args.length > 2 ? Integer.parseInt(args[2]) : Math.min(orders.size() / 10, 100_000);
+
+        ReplayHarness harness = new ReplayHarness(new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore()),
+                rate, warmup);
+        harness.run(orders);
+        System.out.println(harness);
+    }
+
+    /**
+     * @return orders of file, in the input format
+     */
+    public static List<Order> load(Path file) throws IOException {
+        List<Order> orders = new ArrayList<>();
+        OrderLineParser parser = new OrderLineParser();
+        try (InputStream in = Files.newInputStream(file)) {
+            LineReader lines = new LineReader(in);
+            while (lines.next() && !lines.lineEquals("EOF")) {
+                if (lines.lineLength() > 0) {
+                    orders.add(parser.parse(lines.buffer(), lines.lineStart(), lines.lineLength()));
+                }
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * Places orders on schedule, rejected ones are counted and skipped
+     */
+    public void run(List<Order> orders) {
+        TradeListener listener = entry -> trades++;
+        double nanosPerOrder = 1e9 / ordersPerSecond;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < orders.size(); i++) {
+            long due = start + (long) (i * nanosPerOrder);
+            long placed;
+            while ((placed = System.nanoTime()) < due) {
+                Thread.onSpinWait();
+            }
+
+            try {
+                repo.placeOrder(orders.get(i), listener);
+            } catch (AddOrderException e) {
+                rejected++;
+            }
+
+            long done = System.nanoTime();
+            if (i >= warmup) {
+                responseTimes.record(done - due);
+                serviceTimes.record(done - placed);
+            }
+        }
+        elapsedNanos = System.nanoTime() - start;
+        placedOrders = orders.size();
+    }
+
+    /**
+     * @return latencies from when orders were due to when they were matched
+     */
+    public LatencyHistogram getResponseTimes() {
+        return responseTimes;
+    }
+
+    /**
+     * @return latencies from when orders were placed to when they were matched
+     */
+    public LatencyHistogram getServiceTimes() {
+        return serviceTimes;
+    }
+
+    public long getTrades() {
+        return trades;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public double getOrdersPerSecond() {
+        return elapsedNanos == 0 ? 0 : placedOrders * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("target %.0f orders/s, achieved %.0f orders/s, %d trades, %d rejected%n"
+                + "response time: %s%nservice time:  %s", ordersPerSecond, getOrdersPerSecond(), trades, rejected,
+                responseTimes, serviceTimes);
+    }
+}
\ No newline at end of file
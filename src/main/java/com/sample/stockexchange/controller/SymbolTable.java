@@ -0,0 +1,115 @@
+package com.sample.stockexchange.controller;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+
+/**
+ * SymbolTable is a local cache of {@link Stock} keyed by symbol bytes, so
+ * decoders can find the stock of a symbol without allocating. Misses are
+ * looked up in {@link StockRegistry}, and registered by intern() only. Not
+ * thread-safe.
+ */
+final class SymbolTable {
+    private final Charset charset;
+    private byte[][] symbols;
+    private Stock[] stocks;
+    private int stockCount;
+
+    SymbolTable(Charset charset) {
+        this.charset = charset;
+        this.symbols = new byte[64][];
+        this.stocks = new Stock[64];
+    }
+
+    /**
+     * @return the Stock for a symbol, looked up in the registry on first sight
+     */
+    Stock intern(byte[] buf, int start, int end) {
+        int slot = slot(buf, start, end);
+        if (stocks[slot] != null) {
+            return stocks[slot];
+        }
+        String name = new String(buf, start, end - start, charset);
+        return add(slot, buf, start, end, StockRegistry.getInstance().intern(name));
+    }
+
+    /**
+     * @return the Stock for a symbol, null if it's not registered yet. Unlike
+     *         intern(), never registers a stock
+     */
+    Stock find(byte[] buf, int start, int end) {
+        int slot = slot(buf, start, end);
+        if (stocks[slot] != null) {
+            return stocks[slot];
+        }
+        Stock stock = StockRegistry.getInstance().find(new String(buf, start, end - start, charset));
+        return stock == null ? null : add(slot, buf, start, end, stock);
+    }
+
+    /**
+     * @return slot of a symbol, the empty slot it would go in if it's not cached
+     */
+    private int slot(byte[] buf, int start, int end) {
+        int hash = 1;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + buf[i];
+        }
+
+        int mask = stocks.length - 1;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (stocks[slot] != null) {
+            byte[] symbol = symbols[slot];
+            if (symbol.length == end - start && equals(symbol, buf, start)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private Stock add(int slot, byte[] buf, int start, int end, Stock stock) {
+        byte[] symbol = Arrays.copyOfRange(buf, start, end);
+        symbols[slot] = symbol;
+        stocks[slot] = stock;
+        if (++stockCount * 2 > stocks.length) {
+            rehash();
+        }
+        return stock;
+    }
+
+    private static boolean equals(byte[] symbol, byte[] buf, int start) {
+        for (int i = 0; i < symbol.length; i++) {
+            if (symbol[i] != buf[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        byte[][] oldSymbols = symbols;
+        Stock[] oldStocks = stocks;
+        symbols = new byte[oldSymbols.length * 2][];
+        stocks = new Stock[oldStocks.length * 2];
+
+        int mask = stocks.length - 1;
+        for (int i = 0; i < oldStocks.length; i++) {
+            if (oldStocks[i] == null) {
+                continue;
+            }
+            int hash = 1;
+            for (byte b : oldSymbols[i]) {
+                hash = 31 * hash + b;
+            }
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (stocks[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            symbols[slot] = oldSymbols[i];
+            stocks[slot] = oldStocks[i];
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.sample.stockexchange.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+import com.sample.stockexchange.entity.OrderEntry;
+import com.sample.stockexchange.usecase.TradeListener;
+
+/**
+ * TradeWriter writes executed {@link OrderEntry} in the CLI output format
+ * (<sell-order-id> <qty> <sell-price> <buy-order-id>), byte for byte the same
+ * as String.format("%s %d %.2f %s"). Each trade is encoded straight into a
+ * reusable buffer, which is written out when full or on flush(). Not
+ * thread-safe.
+ */
+public final class TradeWriter implements TradeListener {
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int PRICE_DECIMALS = 2;
+    private static final long[] POWERS_OF_TEN = new long[19];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final OutputStream out;
+    private final Charset charset;
+    private final byte decimalSeparator;
+    private final byte[] lineSeparator;
+    private final byte[] buf;
+    private final byte[] digits;
+    private int pos;
+
+    public TradeWriter(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    public TradeWriter(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.charset = Charset.defaultCharset();
+        // %.2f is localized
+        char separator = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT))
+                .getDecimalSeparator();
+        this.decimalSeparator = separator < 0x80 ? (byte) separator : (byte) '.';
+        this.lineSeparator = System.lineSeparator().getBytes(charset);
+        this.buf = new byte[Math.max(bufferSize, 256)];
+        this.digits = new byte[20];
+    }
+
+    @Override
+    public void onTrade(OrderEntry entry) {
+        write(entry.getParty().getId(), entry.getQuantity(), entry.getPrice(),
+                entry.getParty().getStock().getScale(), entry.getCounterParty().getId());
+    }
+
+    /**
+     * Encodes a trade line
+     *
+     * @param price fixed-point price
+     * @param scale of price
+     */
+    public void write(String partyId, int quantity, long price, int scale, String counterPartyId) {
+        writeString(partyId);
+        writeByte((byte) ' ');
+        writeLong(quantity);
+        writeByte((byte) ' ');
+        writePrice(price, scale);
+        writeByte((byte) ' ');
+        writeString(counterPartyId);
+        for (byte b : lineSeparator) {
+            writeByte(b);
+        }
+    }
+
+    /**
+     * Writes buffered trades out and flushes the underlying stream
+     */
+    public void flush() {
+        drain();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void drain() {
+        if (pos == 0) {
+            return;
+        }
+        try {
+            out.write(buf, 0, pos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        pos = 0;
+    }
+
+    private void writeByte(byte b) {
+        if (pos == buf.length) {
+            drain();
+        }
+        buf[pos++] = b;
+    }
+
+    private void writeString(String str) {
+        int len = str.length();
+        for (int i = 0; i < len; i++) {
+            if (str.charAt(i) >= 0x80) {
+                // not ASCII, let the charset encode it
+                for (byte b : str.getBytes(charset)) {
+                    writeByte(b);
+                }
+                return;
+            }
+        }
+        for (int i = 0; i < len; i++) {
+            writeByte((byte) str.charAt(i));
+        }
+    }
+
+    private void writeLong(long value) {
+        if (value < 0) {
+            writeByte((byte) '-');
+        }
+        writeDigits(value);
+    }
+
+    /**
+     * Writes the magnitude of value, Long.MIN_VALUE included
+     */
+    private void writeDigits(long value) {
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + Math.abs(value % 10));
+            value /= 10;
+        } while (value != 0);
+        while (n > 0) {
+            writeByte(digits[--n]);
+        }
+    }
+
+    /**
+     * Writes a fixed-point price with 2 decimals, rounding half up like %.2f
+     */
+    private void writePrice(long price, int scale) {
+        if (price < 0) {
+            writeByte((byte) '-');
+        }
+
+        long units;
+        long fraction;
+        if (scale <= PRICE_DECIMALS) {
+            long factor = POWERS_OF_TEN[scale];
+            units = Math.abs(price / factor);
+            fraction = Math.abs(price % factor) * POWERS_OF_TEN[PRICE_DECIMALS - scale];
+        } else {
+            long factor = POWERS_OF_TEN[scale];
+            long divisor = POWERS_OF_TEN[scale - PRICE_DECIMALS];
+            units = Math.abs(price / factor);
+            long rest = Math.abs(price % factor);
+            fraction = rest / divisor;
+            if (rest % divisor >= divisor - rest % divisor) {
+                fraction++;
+                if (fraction == POWERS_OF_TEN[PRICE_DECIMALS]) {
+                    fraction = 0;
+                    units++;
+                }
+            }
+        }
+
+        writeDigits(units);
+        writeByte(decimalSeparator);
+        for (int i = PRICE_DECIMALS - 1; i >= 0; i--) {
+            writeByte((byte) ('0' + (fraction / POWERS_OF_TEN[i]) % 10));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.sample.stockexchange.entity;
+
+import java.util.Comparator;
+
+/**
+ * Time priority of orders within a price level, by {@link Order#getSequence()}.
+ * Orders without one yet tie, so they keep the order they were added in.
+ */
+final class ArrivalComparator implements Comparator<Order> {
+    @Override
+    public int compare(Order a, Order b) {
+        return Long.compare(a.getSequence(), b.getSequence());
+    }
+}
\ No newline at end of file
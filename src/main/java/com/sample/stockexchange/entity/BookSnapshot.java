@@ -0,0 +1,49 @@
+package com.sample.stockexchange.entity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * BookSnapshot is a point in time copy of every resting {@link Order}, taken
+ * after the order with journal sequence getSequence() was placed. Orders are
+ * grouped by stock and side, in price then time priority, and keep their
+ * arrival sequence, so adding them back in order rebuilds the same books.
+ */
+public final class BookSnapshot {
+    private final long sequence;
+    private final long executionId;
+    private final List<Order> orders;
+
+    /**
+     * @param sequence    journal sequence of the last placed order
+     * @param executionId last {@link OrderEntry} id handed out
+     */
+    public BookSnapshot(long sequence, long executionId) {
+        this.sequence = sequence;
+        this.executionId = executionId;
+        this.orders = new ArrayList<>();
+    }
+
+    /**
+     * Adds a copy of order, so later fills don't change the snapshot
+     */
+    public void add(Order order) {
+        Order copy = new Order(order.getId(), order.getTime(), order.getType(), order.getQuantity(),
+                order.getStock(), order.getPrice());
+        copy.setSequence(order.getSequence());
+        orders.add(copy);
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getExecutionId() {
+        return executionId;
+    }
+
+    public List<Order> getOrders() {
+        return Collections.unmodifiableList(orders);
+    }
+}
\ No newline at end of file
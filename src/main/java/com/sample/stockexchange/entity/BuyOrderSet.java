@@ -1,39 +1,52 @@
 package com.sample.stockexchange.entity;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.List;
 
 /**
- * BuyOrderSet is a set of {@link Order} of type BUY, sorted by time of order
- * placement.
+ * BuyOrderSet is a set of {@link Order} of type BUY, sorted by price(highest
+ * first) then arrival sequence.
  */
-public class BuyOrderSet {
-    private SortedSet<Order> orderSet;
+public class BuyOrderSet extends OrderSet {
+    private final Comparator<Order> timePriority;
 
     public BuyOrderSet() {
-        Comparator<Order> comparator = new BuyOrderComparator();
-        this.orderSet = new TreeSet<>(comparator);
+        this(new OrderIndex());
     }
 
-    public Set<Order> getOrderSet() {
-        return orderSet;
+    /**
+     * @param orders index of resting orders by id, shared with the other sets of
+     *               a store
+     */
+    public BuyOrderSet(OrderIndex orders) {
+        this(new ArrivalComparator(), orders);
     }
-}
-
-final class BuyOrderComparator implements Comparator<Order> {
-    @Override
-    public int compare(Order a, Order b) {
-        if (a.getId().equals(b.getId())) {
-            return 0; // invalid orders
-        }
-
-        int timeCompare = a.getTime().compareTo(b.getTime());
-        if (timeCompare == 0) {
-            // A tie on time, check Id
-            return a.getId().compareTo(b.getId());
-        }
-        return timeCompare;
+
+    /**
+     * @param records where resting orders are kept, null to keep them on heap
+     */
+    public BuyOrderSet(OffHeapOrders records) {
+        this(new ArrivalComparator(), records);
+    }
+
+    private BuyOrderSet(Comparator<Order> timePriority, OrderIndex orders) {
+        super(Collections.reverseOrder(), timePriority, orders);
+        this.timePriority = timePriority;
+    }
+
+    private BuyOrderSet(Comparator<Order> timePriority, OffHeapOrders records) {
+        super(Collections.reverseOrder(), timePriority, records);
+        this.timePriority = timePriority;
+    }
+
+    /**
+     * @return a copy of resting orders sorted by arrival sequence only
+     */
+    public List<Order> getOrdersByTime() {
+        List<Order> orders = new ArrayList<>(getOrderSet());
+        orders.sort(timePriority);
+        return orders;
     }
 }
\ No newline at end of file
@@ -0,0 +1,171 @@
+package com.sample.stockexchange.entity;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Level keeping its orders on heap, linked to each other in time priority, so
+ * any of them is removed in O(1) once found through an {@link OrderIndex}.
+ * Orders are told apart by identity, the one given must be the resting
+ * instance.
+ */
+final class HeapPriceLevel extends PriceLevel {
+    private Order head;
+    private Order tail;
+    private int size;
+    // quantity of every order but head, which is filled in place
+    private long rest;
+
+    HeapPriceLevel(Long price) {
+        super(price);
+    }
+
+    @Override
+    public Order peek() {
+        return head;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long getQuantity() {
+        return head == null ? rest : rest + head.getQuantity();
+    }
+
+    @Override
+    void add(Order order, Comparator<Order> timePriority) {
+        // inserted behind the last order placed before it
+        Order before = tail;
+        while (before != null && timePriority.compare(before, order) > 0) {
+            before = before.previous;
+        }
+
+        Order after = before == null ? head : before.next;
+        rest += before == null ? (head == null ? 0 : head.getQuantity()) : order.getQuantity();
+        order.level = this;
+        order.previous = before;
+        order.next = after;
+        if (before == null) {
+            head = order;
+        } else {
+            before.next = order;
+        }
+        if (after == null) {
+            tail = order;
+        } else {
+            after.previous = order;
+        }
+        size++;
+    }
+
+    @Override
+    Order poll() {
+        Order order = head;
+        if (order != null) {
+            unlink(order);
+        }
+        return order;
+    }
+
+    @Override
+    boolean contains(Order order) {
+        return order.level == this;
+    }
+
+    @Override
+    Order get(Order order) {
+        return order.level == this ? order : null;
+    }
+
+    @Override
+    Order remove(Order order) {
+        if (order.level != this) {
+            return null;
+        }
+        unlink(order);
+        return order;
+    }
+
+    @Override
+    boolean setQuantity(Order order, int quantity) {
+        if (order.level != this) {
+            return false;
+        }
+        if (order != head) {
+            rest += quantity - order.getQuantity();
+        }
+        order.setQuantity(quantity);
+        return true;
+    }
+
+    @Override
+    void clear() {
+        while (head != null) {
+            unlink(head);
+        }
+        rest = 0;
+    }
+
+    @Override
+    Iterator<Order> iterator() {
+        return new Iterator<Order>() {
+            private Order next = head;
+            private Order last;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Order next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = next.next;
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                unlink(last);
+                last = null;
+            }
+        };
+    }
+
+    private void unlink(Order order) {
+        if (order != head) {
+            rest -= order.getQuantity();
+        } else if (order.next != null) {
+            rest -= order.next.getQuantity();
+        }
+        if (order.previous == null) {
+            head = order.next;
+        } else {
+            order.previous.next = order.next;
+        }
+        if (order.next == null) {
+            tail = order.previous;
+        } else {
+            order.next.previous = order.previous;
+        }
+        order.level = null;
+        order.previous = null;
+        order.next = null;
+        size--;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,296 @@
+package com.sample.stockexchange.entity;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * OffHeapOrders keeps resting {@link Order} as fixed-width records in direct
+ * memory, addressed by an int handle, so millions of them cost the garbage
+ * collector nothing to trace. Freed records are linked in a free list and
+ * reused before new memory is allocated.
+ *
+ * Ids of up to ID_CHARS characters are stored in the record, longer ones are
+ * kept on heap. Records are also indexed by id, in an int table of handles
+ * with open addressing, so {@link #find(String)} is O(1) without an object per
+ * order. Not thread safe, a store is used by a single matching thread.
+ */
+public final class OffHeapOrders {
+    public static final int RECORD_SIZE = 64;
+    public static final int ID_CHARS = 10;
+
+    // handle of no record, i.e. the end of the free list
+    private static final int NIL = -1;
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_RECORDS = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_RECORDS - 1;
+
+    // next free record, once freed
+    private static final int NEXT = 0;
+    private static final int QUANTITY = 4;
+    private static final int PRICE = 8;
+    private static final int TIME = 16;
+    private static final int STOCK = 24;
+    private static final int ID_HASH = 28;
+    private static final int TYPE = 32;
+    private static final int ID_LENGTH = 34;
+    private static final int ID = 36;
+    private static final int SEQUENCE = 56;
+
+    // ids longer than ID_CHARS, by handle
+    private final Map<Integer, String> longIds;
+    // handles by hash code of their id, NIL for empty slots
+    private int[] ids;
+    private ByteBuffer[] chunks;
+    private Stock[] stocks;
+    private int limit;
+    private int free;
+    private int size;
+
+    public OffHeapOrders() {
+        this.longIds = new HashMap<>();
+        this.ids = new int[16];
+        Arrays.fill(ids, NIL);
+        this.chunks = new ByteBuffer[16];
+        this.stocks = new Stock[16];
+        this.free = NIL;
+    }
+
+    /**
+     * Copies order into a record
+     *
+     * @return handle of the record
+     */
+    public int allocate(Order order) {
+        int handle = free;
+        if (handle != NIL) {
+            free = next(handle);
+        } else {
+            handle = limit++;
+            if (handle < 0) {
+                limit--;
+                throw new IllegalStateException("Too many off-heap orders");
+            }
+            int chunk = handle >>> CHUNK_BITS;
+            if (chunk == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunks.length * 2);
+            }
+            if (chunks[chunk] == null) {
+                chunks[chunk] = ByteBuffer.allocateDirect(CHUNK_RECORDS * RECORD_SIZE).order(ByteOrder.nativeOrder());
+            }
+        }
+
+        ByteBuffer chunk = chunk(handle);
+        int at = offset(handle);
+        Stock stock = order.getStock();
+        if (stock.getId() >= stocks.length) {
+            stocks = Arrays.copyOf(stocks, Math.max(stocks.length * 2, stock.getId() + 1));
+        }
+        stocks[stock.getId()] = stock;
+
+        chunk.putInt(at + QUANTITY, order.getQuantity());
+        chunk.putLong(at + PRICE, order.getPrice());
+        chunk.putLong(at + TIME, order.getTime().toNanoOfDay());
+        chunk.putLong(at + SEQUENCE, order.getSequence());
+        chunk.putInt(at + STOCK, stock.getId());
+        chunk.put(at + TYPE, (byte) order.getType().ordinal());
+
+        String id = order.getId();
+        chunk.putInt(at + ID_HASH, id.hashCode());
+        chunk.putShort(at + ID_LENGTH, (short) Math.min(id.length(), Short.MAX_VALUE));
+        if (id.length() > ID_CHARS) {
+            longIds.put(handle, id);
+        } else {
+            for (int i = 0; i < id.length(); i++) {
+                chunk.putChar(at + ID + 2 * i, id.charAt(i));
+            }
+        }
+        if (4 * (size + 1) > 3 * ids.length) {
+            resizeIds(ids.length * 2);
+        }
+        insertId(ids, handle);
+        size++;
+        return handle;
+    }
+
+    /**
+     * Returns a record to the free list, the handle must not be used anymore
+     */
+    public void free(int handle) {
+        removeId(handle);
+        if (chunk(handle).getShort(offset(handle) + ID_LENGTH) > ID_CHARS) {
+            longIds.remove(handle);
+        }
+        setNext(handle, free);
+        free = handle;
+        size--;
+    }
+
+    /**
+     * @return handle of the record of an order with id, -1 if there is none
+     */
+    public int find(String id) {
+        int mask = ids.length - 1;
+        for (int i = OrderIndex.index(id.hashCode(), mask); ids[i] != NIL; i = (i + 1) & mask) {
+            if (hasId(ids[i], id)) {
+                return ids[i];
+            }
+        }
+        return NIL;
+    }
+
+    /**
+     * @return a new Order with the values of a record
+     */
+    public Order read(int handle) {
+        ByteBuffer chunk = chunk(handle);
+        int at = offset(handle);
+        Order order = new Order(getId(handle), LocalTime.ofNanoOfDay(chunk.getLong(at + TIME)),
+                OrderType.values()[chunk.get(at + TYPE)], chunk.getInt(at + QUANTITY),
+                stocks[chunk.getInt(at + STOCK)], chunk.getLong(at + PRICE));
+        order.setSequence(chunk.getLong(at + SEQUENCE));
+        return order;
+    }
+
+    public String getId(int handle) {
+        ByteBuffer chunk = chunk(handle);
+        int at = offset(handle);
+        int length = chunk.getShort(at + ID_LENGTH);
+        if (length > ID_CHARS) {
+            return longIds.get(handle);
+        }
+
+        char[] id = new char[length];
+        for (int i = 0; i < length; i++) {
+            id[i] = chunk.getChar(at + ID + 2 * i);
+        }
+        return new String(id);
+    }
+
+    /**
+     * @return true if the record is for an order with this id, without reading
+     *         the id out of the record. Ids are told apart by hash code first
+     */
+    public boolean hasId(int handle, String id) {
+        ByteBuffer chunk = chunk(handle);
+        int at = offset(handle);
+        if (chunk.getInt(at + ID_HASH) != id.hashCode()) {
+            return false;
+        }
+        int length = chunk.getShort(at + ID_LENGTH);
+        if (length != Math.min(id.length(), Short.MAX_VALUE)) {
+            return false;
+        }
+        if (length > ID_CHARS) {
+            return id.equals(longIds.get(handle));
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (chunk.getChar(at + ID + 2 * i) != id.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getQuantity(int handle) {
+        return chunk(handle).getInt(offset(handle) + QUANTITY);
+    }
+
+    public void setQuantity(int handle, int quantity) {
+        chunk(handle).putInt(offset(handle) + QUANTITY, quantity);
+    }
+
+    /**
+     * @return arrival sequence of the order, see {@link Order#getSequence()}
+     */
+    public long getSequence(int handle) {
+        return chunk(handle).getLong(offset(handle) + SEQUENCE);
+    }
+
+    /**
+     * @return number of allocated records
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return bytes of direct memory reserved for records, freed or not
+     */
+    public long getReservedBytes() {
+        long reserved = 0;
+        for (ByteBuffer chunk : chunks) {
+            if (chunk != null) {
+                reserved += chunk.capacity();
+            }
+        }
+        return reserved;
+    }
+
+    private int idHash(int handle) {
+        return chunk(handle).getInt(offset(handle) + ID_HASH);
+    }
+
+    private void insertId(int[] table, int handle) {
+        int mask = table.length - 1;
+        int i = OrderIndex.index(idHash(handle), mask);
+        while (table[i] != NIL) {
+            i = (i + 1) & mask;
+        }
+        table[i] = handle;
+    }
+
+    private void removeId(int handle) {
+        int mask = ids.length - 1;
+        int i = OrderIndex.index(idHash(handle), mask);
+        while (ids[i] != handle) {
+            if (ids[i] == NIL) {
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        // shifts later handles of the probe sequence back into the hole
+        int hole = i;
+        for (i = (i + 1) & mask; ids[i] != NIL; i = (i + 1) & mask) {
+            int home = OrderIndex.index(idHash(ids[i]), mask);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                ids[hole] = ids[i];
+                hole = i;
+            }
+        }
+        ids[hole] = NIL;
+    }
+
+    private void resizeIds(int capacity) {
+        int[] resized = new int[capacity];
+        Arrays.fill(resized, NIL);
+        for (int handle : ids) {
+            if (handle != NIL) {
+                insertId(resized, handle);
+            }
+        }
+        ids = resized;
+    }
+
+    private int next(int handle) {
+        return chunk(handle).getInt(offset(handle) + NEXT);
+    }
+
+    private void setNext(int handle, int next) {
+        chunk(handle).putInt(offset(handle) + NEXT, next);
+    }
+
+    private ByteBuffer chunk(int handle) {
+        return chunks[handle >>> CHUNK_BITS];
+    }
+
+    private static int offset(int handle) {
+        return (handle & CHUNK_MASK) * RECORD_SIZE;
+    }
+}
\ No newline at end of file
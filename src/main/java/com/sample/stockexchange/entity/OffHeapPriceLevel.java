@@ -0,0 +1,244 @@
+package com.sample.stockexchange.entity;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Level keeping its orders as {@link OffHeapOrders} records. The heap only
+ * holds their handles in time priority, next to the hash codes of their ids so
+ * an order is looked for by id without reading records. Only the first order is
+ * read back on heap, so it can be filled in place while it's matched. Its
+ * quantity is written back to its record if it stops being first without being
+ * removed.
+ */
+final class OffHeapPriceLevel extends PriceLevel {
+    private final OffHeapOrders records;
+    // handles and id hash codes of orders, in [start, end)
+    private int[] handles;
+    private int[] hashes;
+    private int start;
+    private int end;
+    // the order at start once peeked, its quantity is the live one
+    private Order first;
+    // recorded quantities of every order, the first one's is stale once peeked
+    private long quantity;
+
+    OffHeapPriceLevel(Long price, OffHeapOrders records) {
+        super(price);
+        this.records = records;
+        this.handles = new int[4];
+        this.hashes = new int[4];
+    }
+
+    @Override
+    public Order peek() {
+        if (first == null && start < end) {
+            first = records.read(handles[start]);
+        }
+        return first;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return start == end;
+    }
+
+    @Override
+    public int size() {
+        return end - start;
+    }
+
+    @Override
+    public long getQuantity() {
+        return first == null ? quantity : quantity - records.getQuantity(handles[start]) + first.getQuantity();
+    }
+
+    /**
+     * Orders are queued by the arrival sequence of their records, which is the
+     * time priority of every set, see {@link ArrivalComparator}, so no order is
+     * read back to find its place
+     */
+    @Override
+    void add(Order order, Comparator<Order> timePriority) {
+        int handle = records.allocate(order);
+        quantity += order.getQuantity();
+        long sequence = order.getSequence();
+        if (start == end || records.getSequence(handles[end - 1]) <= sequence) {
+            insert(end, handle, order.getId().hashCode());
+            return;
+        }
+
+        // inserted before the first order placed after it
+        int at = start;
+        while (records.getSequence(handles[at]) <= sequence) {
+            at++;
+        }
+        if (at == start) {
+            demoteFirst();
+        }
+        insert(at, handle, order.getId().hashCode());
+    }
+
+    @Override
+    Order poll() {
+        if (start == end) {
+            return null;
+        }
+
+        Order order = peek();
+        delete(start);
+        return order;
+    }
+
+    @Override
+    boolean contains(Order order) {
+        return indexOf(order.getId()) >= 0;
+    }
+
+    @Override
+    Order get(Order order) {
+        int at = indexOf(order.getId());
+        if (at < 0) {
+            return null;
+        }
+        return at == start ? peek() : records.read(handles[at]);
+    }
+
+    @Override
+    Order remove(Order order) {
+        int at = indexOf(order.getId());
+        if (at < 0) {
+            return null;
+        }
+        Order removed = at == start ? peek() : records.read(handles[at]);
+        delete(at);
+        return removed;
+    }
+
+    @Override
+    boolean setQuantity(Order order, int quantity) {
+        int at = indexOf(order.getId());
+        if (at < 0) {
+            return false;
+        }
+        if (at == start && first != null) {
+            first.setQuantity(quantity);
+        } else {
+            this.quantity += quantity - records.getQuantity(handles[at]);
+            records.setQuantity(handles[at], quantity);
+        }
+        return true;
+    }
+
+    @Override
+    void clear() {
+        for (int i = start; i < end; i++) {
+            records.free(handles[i]);
+        }
+        start = 0;
+        end = 0;
+        first = null;
+        quantity = 0;
+    }
+
+    /**
+     * @return orders read back from their records, except the first one which is
+     *         the live instance
+     */
+    @Override
+    Iterator<Order> iterator() {
+        return new Iterator<Order>() {
+            // offset from start, so it holds while orders before it are removed
+            private int next;
+            private boolean removable;
+
+            @Override
+            public boolean hasNext() {
+                return start + next < end;
+            }
+
+            @Override
+            public Order next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int at = start + next++;
+                removable = true;
+                return at == start ? peek() : records.read(handles[at]);
+            }
+
+            @Override
+            public void remove() {
+                if (!removable) {
+                    throw new IllegalStateException();
+                }
+                delete(start + --next);
+                removable = false;
+            }
+        };
+    }
+
+    private int indexOf(String id) {
+        int hash = id.hashCode();
+        for (int i = start; i < end; i++) {
+            if (hashes[i] == hash && records.hasId(handles[i], id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes the quantity of the first order back, before another one goes ahead
+     * of it
+     */
+    private void demoteFirst() {
+        if (first != null) {
+            quantity += first.getQuantity() - records.getQuantity(handles[start]);
+            records.setQuantity(handles[start], first.getQuantity());
+            first = null;
+        }
+    }
+
+    private void insert(int at, int handle, int hash) {
+        if (end == handles.length) {
+            // reuses the room left by polled orders before growing
+            int size = end - start;
+            int capacity = size < handles.length / 2 ? handles.length : handles.length * 2;
+            int[] newHandles = capacity == handles.length ? handles : Arrays.copyOf(handles, capacity);
+            int[] newHashes = capacity == hashes.length ? hashes : Arrays.copyOf(hashes, capacity);
+            System.arraycopy(handles, start, newHandles, 0, size);
+            System.arraycopy(hashes, start, newHashes, 0, size);
+            handles = newHandles;
+            hashes = newHashes;
+            at -= start;
+            start = 0;
+            end = size;
+        }
+
+        System.arraycopy(handles, at, handles, at + 1, end - at);
+        System.arraycopy(hashes, at, hashes, at + 1, end - at);
+        handles[at] = handle;
+        hashes[at] = hash;
+        end++;
+    }
+
+    private void delete(int at) {
+        quantity -= records.getQuantity(handles[at]);
+        records.free(handles[at]);
+        if (at == start) {
+            first = null;
+            start++;
+        } else {
+            System.arraycopy(handles, at + 1, handles, at, end - at - 1);
+            System.arraycopy(hashes, at + 1, hashes, at, end - at - 1);
+            end--;
+        }
+        if (start == end) {
+            start = 0;
+            end = 0;
+        }
+    }
+}
\ No newline at end of file
@@ -3,25 +3,96 @@ package com.sample.stockexchange.entity;
 import java.math.BigDecimal;
 import java.time.LocalTime;
 
+/**
+ * Order placed on the exchange. Orders acquired from an {@link OrderPool} are
+ * recycled with release() once they're filled, and must not be used after
+ * that.
+ *
+ * Time priority is by arrival sequence, handed out when the order is accepted,
+ * so it's a single long compare and FIFO whatever the resolution of time,
+ * which is only reported.
+ */
 public class Order {
-    private final String id;
-    private final LocalTime time;
-    private final OrderType type;
+    private final OrderPool pool;
+    private String id;
+    private LocalTime time;
+    private OrderType type;
     private int quantity;
-    private final Stock stock;
-    private final BigDecimal askingPrice;
+    private Stock stock;
+    private long price;
+    private long sequence;
+    // links of the heap level this order rests in, see HeapPriceLevel
+    PriceLevel level;
+    Order previous;
+    Order next;
 
     public Order(String id, LocalTime time, OrderType type, int quantity, Stock stock, BigDecimal askingPrice) {
+        this(id, time, type, quantity, stock, toPrice(stock, askingPrice));
+    }
+
+    /**
+     * @param price fixed-point asking price, in the scale of the stock
+     */
+    public Order(String id, LocalTime time, OrderType type, int quantity, Stock stock, long price) {
+        this.pool = null;
+        reset(id, time, type, quantity, stock, price);
+    }
+
+    /**
+     * Creates a released order for pool
+     */
+    Order(OrderPool pool) {
+        this.pool = pool;
+    }
+
+    final void reset(String id, LocalTime time, OrderType type, int quantity, Stock stock, long price) {
         this.id = id;
         this.time = time;
         this.type = type;
         this.quantity = quantity;
         this.stock = stock;
-        this.askingPrice = askingPrice;
+        this.price = price;
+        this.sequence = 0;
+    }
+
+    /**
+     * @return true if this order was acquired from an {@link OrderPool}
+     */
+    public boolean isPooled() {
+        return pool != null;
+    }
+
+    /**
+     * Gives a pooled order back to its pool, does nothing for other orders
+     *
+     * @throws IllegalStateException if it's already been released
+     */
+    public void release() {
+        if (pool != null) {
+            pool.release(this);
+        }
+    }
+
+    OrderPool getPool() {
+        return pool;
+    }
+
+    /**
+     * @return true if this order is pooled and released
+     */
+    boolean isFree() {
+        return pool != null && id == null;
     }
 
     public BigDecimal getAskingPrice() {
-        return askingPrice;
+        return stock == null ? BigDecimal.valueOf(price, Stock.DEFAULT_SCALE) : stock.toBigDecimal(price);
+    }
+
+    /**
+     * @return fixed-point asking price, see {@link Stock}
+     */
+    public long getPrice() {
+        return price;
     }
 
     public Stock getStock() {
@@ -48,6 +119,23 @@ public class Order {
         return time;
     }
 
+    /**
+     * @return arrival sequence giving time priority, 0 until the order is
+     *         accepted
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    private static long toPrice(Stock stock, BigDecimal price) {
+        return stock == null ? price.setScale(Stock.DEFAULT_SCALE).unscaledValue().longValueExact()
+                : stock.toPrice(price);
+    }
+
     @Override
     public int hashCode() {
         return id.hashCode();
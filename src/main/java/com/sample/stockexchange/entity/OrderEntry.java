@@ -1,30 +1,83 @@
 package com.sample.stockexchange.entity;
 
 import java.math.BigDecimal;
-import java.util.UUID;
 
 /**
- * OrderEntry contains a executed list of valid pairs of {@link Order}
+ * OrderEntry contains a executed list of valid pairs of {@link Order}. Entries
+ * of pooled orders come from the same {@link OrderPool}, and are recycled once
+ * their trade has been published.
  */
 public class OrderEntry {
-    private final UUID id;
-    private final Order party;
-    private final Order counterParty;
-    private final int quantity;
-    private final BigDecimal executionPrice;
-
-    public OrderEntry(Order party, Order counterParty, int quantity, BigDecimal executionPrice) {
-        this.id = UUID.randomUUID();
+    private final OrderPool pool;
+    private long id;
+    private Order party;
+    private Order counterParty;
+    private int quantity;
+    private long price;
+
+    /**
+     * @param id    execution id, unique and increasing within a session
+     * @param price fixed-point execution price, in the scale of the stock
+     */
+    public OrderEntry(long id, Order party, Order counterParty, int quantity, long price) {
+        this.pool = null;
+        reset(id, party, counterParty, quantity, price);
+    }
+
+    /**
+     * Creates a released entry for pool
+     */
+    OrderEntry(OrderPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @return a new entry, or a pooled one if party or counterParty is pooled
+     */
+    public static OrderEntry of(long id, Order party, Order counterParty, int quantity, long price) {
+        OrderPool pool = party.getPool() != null ? party.getPool() : counterParty.getPool();
+        return pool != null ? pool.acquireEntry(id, party, counterParty, quantity, price)
+                : new OrderEntry(id, party, counterParty, quantity, price);
+    }
+
+    final void reset(long id, Order party, Order counterParty, int quantity, long price) {
+        this.id = id;
         this.party = party;
         this.counterParty = counterParty;
         this.quantity = quantity;
-        this.executionPrice = executionPrice;
+        this.price = price;
     }
 
-    public UUID getId() {
+    /**
+     * Gives a pooled entry back to its pool, does nothing for other entries
+     *
+     * @throws IllegalStateException if it's already been released
+     */
+    public void release() {
+        if (pool != null) {
+            pool.release(this);
+        }
+    }
+
+    /**
+     * @return true if this entry is pooled and released
+     */
+    boolean isFree() {
+        return pool != null && party == null;
+    }
+
+    public long getId() {
         return id;
     }
 
+    /**
+     * Renumbers an entry not handed out yet, e.g. a trade matched on another
+     * thread, in the order it's published
+     */
+    public void setId(long id) {
+        this.id = id;
+    }
+
     public Order getParty() {
         return this.party;
     }
@@ -38,6 +91,13 @@ public class OrderEntry {
     }
 
     public BigDecimal getExecutionPrice() {
-        return this.executionPrice;
+        return this.party.getStock().toBigDecimal(this.price);
+    }
+
+    /**
+     * @return fixed-point execution price, see {@link Stock}
+     */
+    public long getPrice() {
+        return this.price;
     }
 }
\ No newline at end of file
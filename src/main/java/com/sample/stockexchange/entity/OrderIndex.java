@@ -0,0 +1,99 @@
+package com.sample.stockexchange.entity;
+
+/**
+ * OrderIndex finds resting {@link Order} by id in O(1), with open addressing
+ * like {@link PriceLevelMap}. A store shares one index between both sides of
+ * all its books, so an id rests at most once among them and duplicates are
+ * told apart without looking at price levels. Orders are their own entries.
+ * Not thread safe.
+ */
+public final class OrderIndex {
+    private Order[] table;
+    private int size;
+
+    public OrderIndex() {
+        table = new Order[16];
+    }
+
+    /**
+     * @return resting order with id, null if there is none
+     */
+    public Order get(String id) {
+        int mask = table.length - 1;
+        for (int i = index(id.hashCode(), mask);; i = (i + 1) & mask) {
+            Order order = table[i];
+            if (order == null || order.getId().equals(id)) {
+                return order;
+            }
+        }
+    }
+
+    public boolean contains(String id) {
+        return get(id) != null;
+    }
+
+    /**
+     * @return number of indexed orders
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds an order, there must not be another one with its id
+     */
+    void put(Order order) {
+        if (4 * (size + 1) > 3 * table.length) {
+            resize(table.length * 2);
+        }
+        insert(table, order);
+        size++;
+    }
+
+    void remove(Order order) {
+        int mask = table.length - 1;
+        int i = index(order.getId().hashCode(), mask);
+        while (table[i] != order) {
+            if (table[i] == null) {
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        // shifts later orders of the probe sequence back into the hole
+        int hole = i;
+        for (i = (i + 1) & mask; table[i] != null; i = (i + 1) & mask) {
+            int home = index(table[i].getId().hashCode(), mask);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                table[hole] = table[i];
+                hole = i;
+            }
+        }
+        table[hole] = null;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        Order[] resized = new Order[capacity];
+        for (Order order : table) {
+            if (order != null) {
+                insert(resized, order);
+            }
+        }
+        table = resized;
+    }
+
+    private static void insert(Order[] table, Order order) {
+        int mask = table.length - 1;
+        int i = index(order.getId().hashCode(), mask);
+        while (table[i] != null) {
+            i = (i + 1) & mask;
+        }
+        table[i] = order;
+    }
+
+    static int index(int hash, int mask) {
+        int h = hash * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,141 @@
+package com.sample.stockexchange.entity;
+
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * OrderPool recycles {@link Order} and {@link OrderEntry} instances, so a
+ * steady stream of orders doesn't keep allocating them. Pooled instances are
+ * given back with their release() method once nothing refers to them anymore:
+ * orders once they're filled, entries once their trade has been published.
+ * Releasing an instance twice is an error.
+ *
+ * With leak tracking, the pool also remembers where every outstanding instance
+ * was acquired, so {@link #checkLeaks()} can tell which ones were never
+ * released. That's meant for tests. Not thread safe.
+ */
+public final class OrderPool {
+    private final Deque<Order> orders;
+    private final Deque<OrderEntry> entries;
+    private final Map<Object, Throwable> outstanding;
+    private int outstandingOrders;
+    private int outstandingEntries;
+    private int created;
+
+    public OrderPool() {
+        this(false);
+    }
+
+    /**
+     * @param trackLeaks true to remember where outstanding instances were
+     *                   acquired
+     */
+    public OrderPool(boolean trackLeaks) {
+        this.orders = new ArrayDeque<>();
+        this.entries = new ArrayDeque<>();
+        this.outstanding = trackLeaks ? new IdentityHashMap<>() : null;
+    }
+
+    /**
+     * @return a pooled order with these values
+     */
+    public Order acquire(String id, LocalTime time, OrderType type, int quantity, Stock stock, long price) {
+        Order order = orders.pollFirst();
+        if (order == null) {
+            order = new Order(this);
+            created++;
+        }
+        order.reset(id, time, type, quantity, stock, price);
+        outstandingOrders++;
+        track(order);
+        return order;
+    }
+
+    /**
+     * @return a pooled entry with these values
+     */
+    public OrderEntry acquireEntry(long id, Order party, Order counterParty, int quantity, long price) {
+        OrderEntry entry = entries.pollFirst();
+        if (entry == null) {
+            entry = new OrderEntry(this);
+            created++;
+        }
+        entry.reset(id, party, counterParty, quantity, price);
+        outstandingEntries++;
+        track(entry);
+        return entry;
+    }
+
+    /**
+     * @return orders acquired and not released yet
+     */
+    public int getOutstandingOrders() {
+        return outstandingOrders;
+    }
+
+    /**
+     * @return entries acquired and not released yet
+     */
+    public int getOutstandingEntries() {
+        return outstandingEntries;
+    }
+
+    /**
+     * @return number of orders and entries this pool has allocated
+     */
+    public int getCreated() {
+        return created;
+    }
+
+    /**
+     * @throws IllegalStateException if an order or entry hasn't been released,
+     *                               caused by where the first one was acquired
+     *                               when leaks are tracked
+     */
+    public void checkLeaks() {
+        if (outstandingOrders == 0 && outstandingEntries == 0) {
+            return;
+        }
+
+        String message = outstandingOrders + " order(s) and " + outstandingEntries + " entry(ies) not released";
+        if (outstanding == null || outstanding.isEmpty()) {
+            throw new IllegalStateException(message);
+        }
+        throw new IllegalStateException(message, outstanding.values().iterator().next());
+    }
+
+    void release(Order order) {
+        if (order.isFree()) {
+            throw new IllegalStateException("Order released twice");
+        }
+        untrack(order);
+        order.reset(null, null, null, 0, null, 0);
+        outstandingOrders--;
+        orders.addFirst(order);
+    }
+
+    void release(OrderEntry entry) {
+        if (entry.isFree()) {
+            throw new IllegalStateException("Entry released twice");
+        }
+        untrack(entry);
+        entry.reset(0, null, null, 0, 0);
+        outstandingEntries--;
+        entries.addFirst(entry);
+    }
+
+    private void track(Object instance) {
+        if (outstanding != null) {
+            outstanding.put(instance, new Throwable("Acquired here"));
+        }
+    }
+
+    private void untrack(Object instance) {
+        if (outstanding != null && outstanding.remove(instance) == null) {
+            throw new IllegalStateException("Not acquired from this pool");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,384 @@
+package com.sample.stockexchange.entity;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * OrderSet is one side of a stock's order book: resting {@link Order} grouped
+ * in {@link PriceLevel} sorted by price priority, each level being a FIFO
+ * queue. The best level is cached, so it's available in O(1), and levels are
+ * indexed by price, so they're found in O(1) without boxing it. Resting orders
+ * are kept on heap, or in {@link OffHeapOrders} if the set is given some.
+ *
+ * Orders are also indexed by id, in an {@link OrderIndex} on heap or by their
+ * records off heap, which the sets of a store share: an id rests at most once
+ * among them, and an order is found for cancels and amends in O(1). Sets on
+ * heap can be detached from their index while sets of different stocks are
+ * changed on different threads.
+ */
+public abstract class OrderSet {
+    private final NavigableMap<Long, PriceLevel> levels;
+    private final PriceLevelMap index;
+    private final Comparator<Order> timePriority;
+    private final Set<Order> orderSet;
+    private final OrderIndex orders;
+    private final OffHeapOrders records;
+    private PriceLevel best;
+    private int size;
+    // orders which left the set while it's detached, null while it's attached
+    private Order[] left;
+    private int leftCount;
+
+    protected OrderSet(Comparator<Long> pricePriority, Comparator<Order> timePriority) {
+        this(pricePriority, timePriority, new OrderIndex());
+    }
+
+    /**
+     * @param orders index of resting orders by id, shared with the other sets of
+     *               a store
+     */
+    protected OrderSet(Comparator<Long> pricePriority, Comparator<Order> timePriority, OrderIndex orders) {
+        this(pricePriority, timePriority, orders, null);
+    }
+
+    /**
+     * @param records where resting orders are kept, null to keep them on heap
+     */
+    protected OrderSet(Comparator<Long> pricePriority, Comparator<Order> timePriority, OffHeapOrders records) {
+        this(pricePriority, timePriority, records == null ? new OrderIndex() : null, records);
+    }
+
+    private OrderSet(Comparator<Long> pricePriority, Comparator<Order> timePriority, OrderIndex orders,
+            OffHeapOrders records) {
+        this.levels = new TreeMap<>(pricePriority);
+        this.index = new PriceLevelMap();
+        this.timePriority = timePriority;
+        this.orderSet = new OrderSetView();
+        this.orders = orders;
+        this.records = records;
+    }
+
+    /**
+     * @return level with the best price, null if there are no resting orders
+     */
+    public PriceLevel getBestLevel() {
+        return best;
+    }
+
+    /**
+     * Removes the first order of the best level, typically once it's filled.
+     *
+     * @return removed order, null if there are no resting orders
+     */
+    public Order pollBest() {
+        if (best == null) {
+            return null;
+        }
+
+        Order order = best.poll();
+        if (orders != null) {
+            unindex(order);
+        }
+        size--;
+        if (best.isEmpty()) {
+            removeLevel(best);
+        }
+        return order;
+    }
+
+    /**
+     * Off heap, order is copied into a record and released if it's pooled, see
+     * {@link OrderPool}, as the set only hands back copies of it
+     *
+     * @return false if an order with its id is already resting, in this set or
+     *         another one sharing its index
+     */
+    public boolean add(Order order) {
+        if (left == null && (records == null ? orders.contains(order.getId()) : records.find(order.getId()) >= 0)) {
+            return false;
+        }
+
+        long price = order.getPrice();
+        PriceLevel level = index.get(price);
+        if (level == null) {
+            Long key = price;
+            level = records == null ? new HeapPriceLevel(key) : new OffHeapPriceLevel(key, records);
+            levels.put(key, level);
+            index.put(level);
+            if (best == null || levels.comparator().compare(key, best.getKey()) < 0) {
+                best = level;
+            }
+        }
+
+        level.add(order, timePriority);
+        if (records != null) {
+            order.release();
+        } else if (left == null) {
+            orders.put(order);
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes the resting order with the id of order
+     *
+     * @return false if it isn't resting in this set
+     */
+    public boolean remove(Order order) {
+        return cancel(order.getId()) != null;
+    }
+
+    /**
+     * @return true if an order with the id of order rests in this set
+     */
+    public boolean contains(Order order) {
+        return get(order.getId()) != null;
+    }
+
+    /**
+     * @return resting order with id in this set, null if there is none. Off-heap
+     *         orders are read back as copies, except the first of each level
+     */
+    public Order get(String id) {
+        Order order = find(id);
+        PriceLevel level = order == null ? null : index.get(order.getPrice());
+        return level == null ? null : level.get(order);
+    }
+
+    /**
+     * Removes the resting order with id in O(1), O(level size) off heap where
+     * its handle is looked for among the level's
+     *
+     * @return removed order with its remaining quantity, null if it isn't
+     *         resting in this set
+     */
+    public Order cancel(String id) {
+        Order order = find(id);
+        PriceLevel level = order == null ? null : index.get(order.getPrice());
+        Order removed = level == null ? null : level.remove(order);
+        if (removed == null) {
+            return null;
+        }
+
+        if (orders != null) {
+            unindex(removed);
+        }
+        size--;
+        if (level.isEmpty()) {
+            removeLevel(level);
+        }
+        return removed;
+    }
+
+    /**
+     * Sets the quantity of the resting order with id in place, so it keeps its
+     * time priority
+     *
+     * @return false if it isn't resting in this set
+     */
+    public boolean amend(String id, int quantity) {
+        Order order = find(id);
+        PriceLevel level = order == null ? null : index.get(order.getPrice());
+        return level != null && level.setQuantity(order, quantity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Stops changing the index shared with the other sets of a store, so sets of
+     * different stocks can be changed on different threads while they're all
+     * detached: orders leaving the set stay indexed until it's attached again,
+     * and only those can be added back meanwhile, without being checked for
+     * duplicates. Off heap, where orders are kept in shared records, sets can't
+     * be detached.
+     *
+     * @return false if the set is off heap
+     */
+    public boolean detach() {
+        if (records != null) {
+            return false;
+        }
+        if (left == null) {
+            left = new Order[16];
+        }
+        return true;
+    }
+
+    /**
+     * Removes the orders which left the set since it was detached from its
+     * index. Must be called from a single thread for the sets sharing the index.
+     */
+    public void attach() {
+        Order[] left = this.left;
+        if (left == null) {
+            return;
+        }
+        this.left = null;
+        for (int i = 0; i < leftCount; i++) {
+            // unless it was added back
+            if (left[i].level == null) {
+                orders.remove(left[i]);
+            }
+        }
+        leftCount = 0;
+    }
+
+    /**
+     * Removes every resting order, giving their off-heap records back
+     */
+    public void clear() {
+        for (PriceLevel level : levels.values()) {
+            if (orders != null) {
+                for (Iterator<Order> itr = level.iterator(); itr.hasNext();) {
+                    orders.remove(itr.next());
+                }
+            }
+            level.clear();
+        }
+        levels.clear();
+        index.clear();
+        best = null;
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return price levels sorted by price priority
+     */
+    public Collection<PriceLevel> getLevels() {
+        return levels.values();
+    }
+
+    /**
+     * @return a live view of resting orders sorted by price then time. Off-heap
+     *         orders are read back as copies, except the first of each level
+     */
+    public Set<Order> getOrderSet() {
+        return orderSet;
+    }
+
+    /**
+     * @return resting order with id, in this set or another one sharing its
+     *         index, a copy off heap
+     */
+    private Order find(String id) {
+        if (records == null) {
+            return orders.get(id);
+        }
+        int handle = records.find(id);
+        return handle < 0 ? null : records.read(handle);
+    }
+
+    private void unindex(Order order) {
+        if (left == null) {
+            orders.remove(order);
+            return;
+        }
+        if (leftCount == left.length) {
+            left = Arrays.copyOf(left, leftCount * 2);
+        }
+        left[leftCount++] = order;
+    }
+
+    private void removeLevel(PriceLevel level) {
+        levels.remove(level.getKey());
+        index.remove(level);
+        if (level == best) {
+            resetBest();
+        }
+    }
+
+    private void resetBest() {
+        Map.Entry<Long, PriceLevel> first = levels.firstEntry();
+        best = first == null ? null : first.getValue();
+    }
+
+    private final class OrderSetView extends AbstractSet<Order> {
+        @Override
+        public Iterator<Order> iterator() {
+            return new Iterator<Order>() {
+                // levels are walked by price key, so emptied ones can be removed while iterating
+                private PriceLevel level;
+                private Iterator<Order> orderItr;
+                private PriceLevel lastLevel;
+                private Iterator<Order> lastItr;
+                private Order last;
+
+                @Override
+                public boolean hasNext() {
+                    while (orderItr == null || !orderItr.hasNext()) {
+                        Map.Entry<Long, PriceLevel> next = level == null ? levels.firstEntry()
+                                : levels.higherEntry(level.getKey());
+                        if (next == null) {
+                            return false;
+                        }
+                        level = next.getValue();
+                        orderItr = level.iterator();
+                    }
+                    return true;
+                }
+
+                @Override
+                public Order next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    lastLevel = level;
+                    lastItr = orderItr;
+                    last = orderItr.next();
+                    return last;
+                }
+
+                @Override
+                public void remove() {
+                    if (lastItr == null) {
+                        throw new IllegalStateException();
+                    }
+                    lastItr.remove();
+                    if (orders != null) {
+                        orders.remove(last);
+                    }
+                    lastItr = null;
+                    size--;
+                    if (lastLevel.isEmpty()) {
+                        removeLevel(lastLevel);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public boolean add(Order order) {
+            return OrderSet.this.add(order);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return (o instanceof Order) && OrderSet.this.remove((Order) o);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return (o instanceof Order) && OrderSet.this.contains((Order) o);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
\ No newline at end of file
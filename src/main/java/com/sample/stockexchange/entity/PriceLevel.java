@@ -0,0 +1,88 @@
+package com.sample.stockexchange.entity;
+
+import java.util.Comparator;
+import java.util.Iterator;
+
+/**
+ * PriceLevel is a FIFO queue of resting {@link Order} sharing the same price.
+ * The first order in the queue is the first one to be matched. Orders are
+ * kept on heap, or as {@link OffHeapOrders} records.
+ */
+public abstract class PriceLevel {
+    private final Long price;
+
+    PriceLevel(Long price) {
+        this.price = price;
+    }
+
+    /**
+     * @return fixed-point price of this level, see {@link Stock}
+     */
+    public long getPrice() {
+        return price;
+    }
+
+    /**
+     * @return boxed price, kept to avoid boxing on every lookup of this level
+     */
+    Long getKey() {
+        return price;
+    }
+
+    /**
+     * @return the order with time priority on this level, null if empty. Fills
+     *         of that order must be made on the returned instance
+     */
+    public abstract Order peek();
+
+    public abstract boolean isEmpty();
+
+    public abstract int size();
+
+    /**
+     * @return remaining quantity of every order on this level, kept up to date
+     *         as orders come and go so it's read in O(1). Only the first order may
+     *         be filled in place
+     */
+    public abstract long getQuantity();
+
+    /**
+     * Queues an order according to timePriority. Orders normally arrive in
+     * sequence and are appended, ones put back with a remainder are inserted
+     * behind every order which arrived before them.
+     */
+    abstract void add(Order order, Comparator<Order> timePriority);
+
+    abstract Order poll();
+
+    abstract boolean contains(Order order);
+
+    /**
+     * @return the resting order with the id of order, the live instance if
+     *         it's first, null if it isn't on this level
+     */
+    abstract Order get(Order order);
+
+    /**
+     * Removes the order with the id of order
+     *
+     * @return removed order with its remaining quantity, null if it isn't on
+     *         this level
+     */
+    abstract Order remove(Order order);
+
+    /**
+     * Sets the quantity of the order with the id of order in place, so it keeps
+     * its time priority
+     *
+     * @return false if it isn't on this level
+     */
+    abstract boolean setQuantity(Order order, int quantity);
+
+    /**
+     * Removes every order
+     */
+    abstract void clear();
+
+    abstract Iterator<Order> iterator();
+}
\ No newline at end of file
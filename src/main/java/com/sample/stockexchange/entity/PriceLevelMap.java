@@ -0,0 +1,94 @@
+package com.sample.stockexchange.entity;
+
+import java.util.Arrays;
+
+/**
+ * PriceLevelMap finds the {@link PriceLevel} of a fixed-point price in O(1),
+ * with open addressing on primitive long keys, so lookups don't box the price
+ * like a Map<Long, PriceLevel> would. Levels are their own entries, keyed by
+ * their price.
+ */
+final class PriceLevelMap {
+    private PriceLevel[] table;
+    private int size;
+
+    PriceLevelMap() {
+        table = new PriceLevel[16];
+    }
+
+    /**
+     * @return level of price, null if there is none
+     */
+    PriceLevel get(long price) {
+        int mask = table.length - 1;
+        for (int i = index(price, mask);; i = (i + 1) & mask) {
+            PriceLevel level = table[i];
+            if (level == null || level.getPrice() == price) {
+                return level;
+            }
+        }
+    }
+
+    /**
+     * Adds a level, there must not be another one with its price
+     */
+    void put(PriceLevel level) {
+        if (2 * (size + 1) > table.length) {
+            resize(table.length * 2);
+        }
+        insert(table, level);
+        size++;
+    }
+
+    void remove(PriceLevel level) {
+        int mask = table.length - 1;
+        int i = index(level.getPrice(), mask);
+        while (table[i] != level) {
+            if (table[i] == null) {
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        // shifts later levels of the probe sequence back into the hole
+        int hole = i;
+        for (i = (i + 1) & mask; table[i] != null; i = (i + 1) & mask) {
+            int home = index(table[i].getPrice(), mask);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                table[hole] = table[i];
+                hole = i;
+            }
+        }
+        table[hole] = null;
+        size--;
+    }
+
+    void clear() {
+        Arrays.fill(table, null);
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        PriceLevel[] resized = new PriceLevel[capacity];
+        for (PriceLevel level : table) {
+            if (level != null) {
+                insert(resized, level);
+            }
+        }
+        table = resized;
+    }
+
+    private static void insert(PriceLevel[] table, PriceLevel level) {
+        int mask = table.length - 1;
+        int i = index(level.getPrice(), mask);
+        while (table[i] != null) {
+            i = (i + 1) & mask;
+        }
+        table[i] = level;
+    }
+
+    private static int index(long price, int mask) {
+        long h = price * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
\ No newline at end of file
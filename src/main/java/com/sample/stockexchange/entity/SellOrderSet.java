@@ -1,38 +1,29 @@
 package com.sample.stockexchange.entity;
 
 import java.util.Comparator;
-import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
 
 /**
- * SellOrderSet is a set of {@link Order} of type SELL, sorted by price.
+ * SellOrderSet is a set of {@link Order} of type SELL, sorted by price(lowest
+ * first) then arrival sequence.
  */
-public class SellOrderSet {
-    private SortedSet<Order> orderSet;
+public class SellOrderSet extends OrderSet {
 
     public SellOrderSet() {
-        Comparator<Order> comparator = new SellOrderComparator();
-        this.orderSet = new TreeSet<>(comparator);
+        this(new OrderIndex());
     }
 
-    public Set<Order> getOrderSet() {
-        return orderSet;
+    /**
+     * @param orders index of resting orders by id, shared with the other sets of
+     *               a store
+     */
+    public SellOrderSet(OrderIndex orders) {
+        super(Comparator.naturalOrder(), new ArrivalComparator(), orders);
     }
-}
 
-final class SellOrderComparator implements Comparator<Order> {
-    @Override
-    public int compare(Order a, Order b) {
-        if (a.getId().equals(b.getId())) {
-            return 0; // invalid orders
-        }
-
-        int priceCompare = a.getAskingPrice().compareTo(b.getAskingPrice());
-        if (priceCompare == 0) {
-            // A tie on price, check time
-            return a.getTime().compareTo(b.getTime());
-        }
-        return priceCompare;
+    /**
+     * @param records where resting orders are kept, null to keep them on heap
+     */
+    public SellOrderSet(OffHeapOrders records) {
+        super(Comparator.naturalOrder(), new ArrivalComparator(), records);
     }
 }
\ No newline at end of file
@@ -1,17 +1,43 @@
 package com.sample.stockexchange.entity;
 
-import java.util.UUID;
+import java.math.BigDecimal;
 
+/**
+ * Stock traded on the exchange. Stocks are only created by
+ * {@link StockRegistry}, which gives each name a dense id. Prices of a stock
+ * are fixed-point longs: the number of 10^-scale units, e.g. 240.10 is 24010
+ * with a scale of 2. Every price must be a multiple of the stock's tick size,
+ * also in those units.
+ */
 public class Stock {
-    private final UUID id;
+    public static final int DEFAULT_SCALE = 2;
+    public static final long DEFAULT_TICK_SIZE = 1;
+
+    private final int id;
     private final String name;
+    private final int scale;
+    private final long tickSize;
+
+    /**
+     * Stocks are only created by {@link StockRegistry}, so each name has a
+     * single scale and tick size
+     */
+    Stock(String name) {
+        this(name, DEFAULT_SCALE, DEFAULT_TICK_SIZE);
+    }
+
+    Stock(String name, int scale, long tickSize) {
+        if (scale < 0 || scale > 18 || tickSize < 1) {
+            throw new IllegalArgumentException("Invalid scale/tick size for stock: " + name);
+        }
 
-    public Stock(String name) {
         this.name = name;
-        this.id = UUID.randomUUID();
+        this.id = StockRegistry.getInstance().idOf(name);
+        this.scale = scale;
+        this.tickSize = tickSize;
     }
 
-    public UUID getId() {
+    public int getId() {
         return id;
     }
 
@@ -19,9 +45,109 @@ public class Stock {
         return name;
     }
 
+    public int getScale() {
+        return scale;
+    }
+
+    public long getTickSize() {
+        return tickSize;
+    }
+
+    /**
+     * Parses a decimal price, e.g. "240.10", straight into its fixed-point value
+     * without going through BigDecimal. Digits past the scale must be zeros,
+     * "240.100" is 24010 while "240.125" is rejected rather than rounded.
+     *
+     * @throws NumberFormatException if it's not a valid price for this stock
+     */
+    public long parsePrice(CharSequence str) {
+        return parsePrice(str, name, scale, tickSize);
+    }
+
+    /**
+     * Same as {@link #parsePrice(CharSequence)} for a stock of scale and
+     * tickSize, e.g. to check a price before its stock is registered
+     *
+     * @param name of the stock, for error messages
+     */
+    public static long parsePrice(CharSequence str, String name, int scale, long tickSize) {
+        int len = str.length();
+        int i = 0;
+        boolean negative = false;
+        if (len > 0 && (str.charAt(0) == '-' || str.charAt(0) == '+')) {
+            negative = str.charAt(0) == '-';
+            i++;
+        }
+
+        long value = 0;
+        int fraction = -1; // digits seen after the decimal point, -1 before it
+        boolean digits = false;
+        try {
+            for (; i < len; i++) {
+                char c = str.charAt(i);
+                if (c == '.' && fraction < 0) {
+                    fraction = 0;
+                    continue;
+                }
+                if (c < '0' || c > '9') {
+                    throw new NumberFormatException("Invalid price: " + str);
+                }
+
+                digits = true;
+                if (fraction == scale) {
+                    // digits past the scale are allowed only if they don't change the value
+                    if (c != '0') {
+                        throw new NumberFormatException("Price " + str + " exceeds scale of stock: " + name);
+                    }
+                    continue;
+                } else if (fraction >= 0) {
+                    fraction++;
+                }
+                value = Math.addExact(Math.multiplyExact(value, 10), c - '0');
+            }
+
+            for (int f = Math.max(fraction, 0); f < scale; f++) {
+                value = Math.multiplyExact(value, 10);
+            }
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Price out of range: " + str);
+        }
+
+        if (!digits) {
+            throw new NumberFormatException("Invalid price: " + str);
+        }
+        return checkTick(negative ? -value : value, name, tickSize);
+    }
+
+    /**
+     * @return fixed-point value of price
+     * @throws NumberFormatException if it's not a valid price for this stock
+     */
+    public long toPrice(BigDecimal price) {
+        try {
+            return checkTick(price.setScale(scale).unscaledValue().longValueExact(), name, tickSize);
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Price " + price + " doesn't fit scale of stock: " + name);
+        }
+    }
+
+    /**
+     * @return decimal value of a fixed-point price
+     */
+    public BigDecimal toBigDecimal(long price) {
+        return BigDecimal.valueOf(price, scale);
+    }
+
+    private static long checkTick(long price, String name, long tickSize) {
+        if (price % tickSize != 0) {
+            throw new NumberFormatException("Price is not a multiple of tick size for stock: " + name);
+        }
+        return price;
+    }
+
     @Override
     public int hashCode() {
-        return this.name.hashCode();
+        return this.id;
     }
 
     @Override
@@ -33,6 +159,6 @@ public class Stock {
         if (getClass() != obj.getClass())
             return false;
         Stock other = (Stock) obj;
-        return this.name.equals(other.getName());
+        return this.id == other.getId();
     }
 }
\ No newline at end of file
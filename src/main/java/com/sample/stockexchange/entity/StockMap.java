@@ -0,0 +1,153 @@
+package com.sample.stockexchange.entity;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * StockMap maps {@link Stock} to values in an array indexed by stock id (see
+ * {@link StockRegistry}), so lookups don't hash the stock name. Iteration
+ * follows stock ids, i.e. registration order. Null values aren't supported.
+ */
+public final class StockMap<V> extends AbstractMap<Stock, V> {
+    private Stock[] keys;
+    private Object[] values;
+    private int size;
+    private final Set<Entry<Stock, V>> entrySet;
+
+    public StockMap() {
+        keys = new Stock[16];
+        values = new Object[16];
+        entrySet = new EntrySet();
+    }
+
+    /**
+     * @return value for a stock id, null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int stockId) {
+        return stockId < values.length ? (V) values[stockId] : null;
+    }
+
+    @Override
+    public V get(Object key) {
+        return (key instanceof Stock) ? get(((Stock) key).getId()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V put(Stock key, V value) {
+        if (value == null) {
+            throw new NullPointerException("StockMap doesn't support null values");
+        }
+
+        int id = key.getId();
+        if (id >= values.length) {
+            int length = Math.max(values.length * 2, id + 1);
+            keys = Arrays.copyOf(keys, length);
+            values = Arrays.copyOf(values, length);
+        }
+
+        V old = get(id);
+        if (old == null) {
+            size++;
+        }
+        keys[id] = key;
+        values[id] = value;
+        return old;
+    }
+
+    @Override
+    public V remove(Object key) {
+        V old = get(key);
+        if (old != null) {
+            int id = ((Stock) key).getId();
+            keys[id] = null;
+            values[id] = null;
+            size--;
+        }
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super Stock, ? super V> action) {
+        for (int id = 0; id < values.length; id++) {
+            if (values[id] != null) {
+                action.accept(keys[id], (V) values[id]);
+            }
+        }
+    }
+
+    @Override
+    public Set<Entry<Stock, V>> entrySet() {
+        return entrySet;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<Stock, V>> {
+        @Override
+        public Iterator<Entry<Stock, V>> iterator() {
+            return new Iterator<Entry<Stock, V>>() {
+                private int next = advance(0);
+                private int last = -1;
+
+                private int advance(int from) {
+                    while (from < values.length && values[from] == null) {
+                        from++;
+                    }
+                    return from;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next < values.length;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public Entry<Stock, V> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    last = next;
+                    next = advance(next + 1);
+                    return new SimpleImmutableEntry<>(keys[last], (V) values[last]);
+                }
+
+                @Override
+                public void remove() {
+                    if (last < 0) {
+                        throw new IllegalStateException();
+                    }
+                    StockMap.this.remove(keys[last]);
+                    last = -1;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.sample.stockexchange.entity;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * StockRegistry interns {@link Stock} by name and gives each symbol a dense int
+ * id, starting at 0 in registration order. Ids stay the same for the lifetime
+ * of the registry, so stores can index stocks by id in plain arrays.
+ */
+public final class StockRegistry {
+    private final Map<String, Integer> ids;
+    private volatile Stock[] stocks;
+    private int size;
+
+    private StockRegistry() {
+        ids = new HashMap<>();
+        stocks = new Stock[64];
+    }
+
+    private static class LazyHolder {
+        private static final StockRegistry INSTANCE = new StockRegistry();
+    }
+
+    public static StockRegistry getInstance() {
+        return LazyHolder.INSTANCE;
+    }
+
+    /**
+     * @return the registered Stock for name, registered with default scale and
+     *         tick size if it's new
+     */
+    public synchronized Stock intern(String name) {
+        Stock stock = get(idOf(name));
+        return stock != null ? stock : store(new Stock(name));
+    }
+
+    /**
+     * Registers a stock with its own price scale and tick size. Must happen
+     * before the stock is interned with defaults.
+     *
+     * @throws IllegalStateException if it's already registered differently
+     */
+    public synchronized Stock register(String name, int scale, long tickSize) {
+        Stock stock = get(idOf(name));
+        if (stock == null) {
+            return store(new Stock(name, scale, tickSize));
+        }
+
+        if (stock.getScale() != scale || stock.getTickSize() != tickSize) {
+            throw new IllegalStateException("Stock already registered with another scale/tick size: " + name);
+        }
+        return stock;
+    }
+
+    /**
+     * @return the registered Stock for id, null if there is none
+     */
+    public Stock get(int id) {
+        Stock[] current = stocks;
+        return id >= 0 && id < current.length ? current[id] : null;
+    }
+
+    /**
+     * @return the registered Stock for name, null if there is none
+     */
+    public synchronized Stock find(String name) {
+        Integer id = ids.get(name);
+        return id == null ? null : get(id);
+    }
+
+    /**
+     * @return number of ids given out, ids are in [0, size)
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return id for name, a new one if it's never been seen
+     */
+    synchronized int idOf(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = size++;
+            ids.put(name, id);
+        }
+        return id;
+    }
+
+    private Stock store(Stock stock) {
+        Stock[] current = stocks;
+        if (stock.getId() >= current.length) {
+            current = Arrays.copyOf(current, Math.max(current.length * 2, stock.getId() + 1));
+        }
+        current[stock.getId()] = stock;
+        stocks = current;
+        return stock;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,129 @@
+package com.sample.stockexchange.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * RingBuffer is a bounded single-producer/single-consumer queue of
+ * preallocated, mutable event slots. Events are never allocated per message:
+ * the producer claims a slot, fills it in place and publishes it, the consumer
+ * reads every published slot in a batch and releases them for reuse.
+ * 
+ * Slots are addressed by a sequence starting at 0. Each side must be used from
+ * a single thread.
+ */
+public final class RingBuffer<E> {
+    private final Object[] slots;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+    private final AtomicLong published;
+    private final AtomicLong released;
+
+    // producer side
+    private long claimed;
+    private long cachedReleased;
+
+    // consumer side
+    private long cachedPublished;
+
+    /**
+     * @param capacity rounded up to a power of 2
+     * @param factory  creates every slot upfront
+     */
+    public RingBuffer(int capacity, Supplier<E> factory, WaitStrategy waitStrategy) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid ring buffer capacity: " + capacity);
+        }
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new Object[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = factory.get();
+        }
+        this.mask = size - 1;
+        this.waitStrategy = waitStrategy;
+        this.published = new AtomicLong(-1);
+        this.released = new AtomicLong(-1);
+        this.claimed = -1;
+        this.cachedReleased = -1;
+        this.cachedPublished = -1;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Producer: claims the next slot, waiting for the consumer to release it if
+     * the ring is full
+     *
+     * @return sequence of the claimed slot
+     */
+    public long claim() throws InterruptedException {
+        long next = claimed + 1;
+        long wrap = next - slots.length;
+        if (wrap > cachedReleased) {
+            int attempt = 0;
+            while (wrap > (cachedReleased = released.get())) {
+                attempt = idle(attempt);
+            }
+        }
+        claimed = next;
+        return next;
+    }
+
+    /**
+     * Producer: makes every slot up to sequence visible to the consumer
+     */
+    public void publish(long sequence) {
+        published.lazySet(sequence);
+    }
+
+    /**
+     * @return slot of a claimed or available sequence
+     */
+    @SuppressWarnings("unchecked")
+    public E get(long sequence) {
+        return (E) slots[(int) sequence & mask];
+    }
+
+    /**
+     * Consumer: true if next can be read without waiting
+     */
+    public boolean isAvailable(long next) {
+        return next <= cachedPublished || next <= (cachedPublished = published.get());
+    }
+
+    /**
+     * Consumer: waits for next to be published
+     *
+     * @return highest published sequence, so every slot from next up to it can be
+     *         read as a batch
+     */
+    public long waitFor(long next) throws InterruptedException {
+        if (next > cachedPublished) {
+            int attempt = 0;
+            while (next > (cachedPublished = published.get())) {
+                attempt = idle(attempt);
+            }
+        }
+        return cachedPublished;
+    }
+
+    /**
+     * Consumer: hands every slot up to sequence back to the producer
+     */
+    public void release(long sequence) {
+        released.lazySet(sequence);
+    }
+
+    private int idle(int attempt) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        return waitStrategy.idle(attempt);
+    }
+}
@@ -0,0 +1,60 @@
+package com.sample.stockexchange.pipeline;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * WaitStrategy decides what a {@link RingBuffer} producer or consumer does
+ * while it waits for the other side, trading latency for CPU use.
+ */
+public enum WaitStrategy {
+    /**
+     * Spins on the sequence, lowest latency but keeps a core busy per waiting
+     * stage
+     */
+    BUSY_SPIN {
+        @Override
+        public int idle(int attempt) {
+            return attempt + 1;
+        }
+    },
+
+    /**
+     * Spins for a while, then yields the core to other threads
+     */
+    YIELD {
+        @Override
+        public int idle(int attempt) {
+            if (attempt >= SPIN_TRIES) {
+                Thread.yield();
+            }
+            return attempt + 1;
+        }
+    },
+
+    /**
+     * Spins, yields, then parks for short periods, the least CPU use while idle
+     */
+    PARK {
+        @Override
+        public int idle(int attempt) {
+            if (attempt >= SPIN_TRIES + YIELD_TRIES) {
+                LockSupport.parkNanos(PARK_NANOS);
+            } else if (attempt >= SPIN_TRIES) {
+                Thread.yield();
+            }
+            return attempt + 1;
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = 50_000;
+
+    /**
+     * Waits a bit
+     *
+     * @param attempt number of times idle() was called for the current wait
+     * @return attempt for the next call
+     */
+    public abstract int idle(int attempt);
+}
@@ -0,0 +1,97 @@
+package com.sample.stockexchange.usecase;
+
+import static com.sample.stockexchange.entity.OrderType.BUY;
+
+import com.sample.stockexchange.entity.OrderType;
+import com.sample.stockexchange.entity.Stock;
+
+/**
+ * Depth is a copy of the best price levels of a {@link Stock} on both sides,
+ * with the remaining quantity and number of orders of each level, as published
+ * by a {@link MarketDataFeed}. Level 0 is the best bid or ask. Instances are
+ * reused by readers, so reading again overwrites them.
+ */
+public final class Depth {
+    // bid count, ask count and publish sequence, then price, quantity and orders
+    // of each level, bids first
+    static final int HEADER = 3;
+    static final int STRIDE = 3;
+
+    private final int depth;
+    private final long[] values;
+    private Stock stock;
+
+    /**
+     * @param depth number of levels kept per side
+     */
+    public Depth(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Invalid depth: " + depth);
+        }
+        this.depth = depth;
+        this.values = new long[HEADER + 2 * depth * STRIDE];
+    }
+
+    public Stock getStock() {
+        return stock;
+    }
+
+    /**
+     * @return number of publishes of the feed when this depth was published
+     */
+    public long getSequence() {
+        return values[2];
+    }
+
+    /**
+     * @return number of levels of side, no more than the depth of the feed
+     */
+    public int getLevels(OrderType side) {
+        return (int) values[side == BUY ? 0 : 1];
+    }
+
+    /**
+     * @return fixed-point price of a level, see {@link Stock}
+     */
+    public long getPrice(OrderType side, int level) {
+        return values[offset(side, level)];
+    }
+
+    /**
+     * @return remaining quantity of every order of a level
+     */
+    public long getQuantity(OrderType side, int level) {
+        return values[offset(side, level) + 1];
+    }
+
+    public int getOrders(OrderType side, int level) {
+        return (int) values[offset(side, level) + 2];
+    }
+
+    /**
+     * @return level of side at price, -1 if there is none
+     */
+    int indexOf(OrderType side, long price) {
+        for (int i = 0; i < getLevels(side); i++) {
+            if (getPrice(side, i) == price) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    long[] values() {
+        return values;
+    }
+
+    void setStock(Stock stock) {
+        this.stock = stock;
+    }
+
+    private int offset(OrderType side, int level) {
+        if (level < 0 || level >= getLevels(side)) {
+            throw new IndexOutOfBoundsException("No " + side + " level " + level);
+        }
+        return HEADER + ((side == BUY ? 0 : depth) + level) * STRIDE;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.sample.stockexchange.usecase;
+
+import com.sample.stockexchange.entity.OrderType;
+import com.sample.stockexchange.entity.Stock;
+
+/**
+ * DepthListener receives the price levels of a {@link MarketDataFeed} which
+ * changed since it was last polled, see {@link DepthSubscription}.
+ */
+@FunctionalInterface
+public interface DepthListener {
+    /**
+     * @param price    fixed-point price of the level, see {@link Stock}
+     * @param quantity remaining quantity of every order of the level, 0 once
+     *                 it's gone or pushed out of the published depth
+     * @param orders   number of orders of the level
+     */
+    public void onLevel(Stock stock, OrderType side, long price, long quantity, int orders);
+}
\ No newline at end of file
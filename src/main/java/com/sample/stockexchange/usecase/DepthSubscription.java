@@ -0,0 +1,91 @@
+package com.sample.stockexchange.usecase;
+
+import static com.sample.stockexchange.entity.OrderType.BUY;
+import static com.sample.stockexchange.entity.OrderType.SELL;
+
+import java.util.Arrays;
+
+import com.sample.stockexchange.entity.OrderType;
+
+/**
+ * DepthSubscription turns the depths published by a {@link MarketDataFeed}
+ * into incremental updates: each poll compares the latest depth of every
+ * stock published since the previous poll with the one it had seen, and hands
+ * over the levels which differ. Updates are conflated, a subscriber polling
+ * less often than the feed publishes gets fewer updates rather than falling
+ * behind, and it costs the writer nothing. Not thread safe.
+ */
+public final class DepthSubscription {
+    private final MarketDataFeed feed;
+    // by stock id
+    private long[] versions;
+    private Depth[] seen;
+    private Depth spare;
+    private long published;
+
+    DepthSubscription(MarketDataFeed feed) {
+        this.feed = feed;
+        this.versions = new long[16];
+        this.seen = new Depth[16];
+        this.published = -1;
+    }
+
+    /**
+     * Hands listener every level added, changed or removed since the previous
+     * poll, all of the published levels on the first one. Levels of a stock are
+     * from a single publish.
+     *
+     * @return number of levels handed over
+     */
+    public int poll(DepthListener listener) {
+        long published = feed.getPublished();
+        if (published == this.published) {
+            return 0;
+        }
+        this.published = published;
+
+        DepthView[] views = feed.getViews();
+        if (views.length > versions.length) {
+            versions = Arrays.copyOf(versions, views.length);
+            seen = Arrays.copyOf(seen, views.length);
+        }
+        int updates = 0;
+        for (int id = 0; id < views.length; id++) {
+            DepthView view = views[id];
+            if (view == null || view.getVersion() == versions[id]) {
+                continue;
+            }
+
+            Depth depth = spare != null ? spare : new Depth(feed.getDepth());
+            versions[id] = view.read(depth);
+            updates += diff(seen[id], depth, BUY, listener) + diff(seen[id], depth, SELL, listener);
+            spare = seen[id];
+            seen[id] = depth;
+        }
+        return updates;
+    }
+
+    private static int diff(Depth previous, Depth current, OrderType side, DepthListener listener) {
+        int updates = 0;
+        for (int i = 0; i < current.getLevels(side); i++) {
+            long price = current.getPrice(side, i);
+            int at = previous == null ? -1 : previous.indexOf(side, price);
+            if (at < 0 || previous.getQuantity(side, at) != current.getQuantity(side, i)
+                    || previous.getOrders(side, at) != current.getOrders(side, i)) {
+                listener.onLevel(current.getStock(), side, price, current.getQuantity(side, i),
+                        current.getOrders(side, i));
+                updates++;
+            }
+        }
+        if (previous != null) {
+            for (int i = 0; i < previous.getLevels(side); i++) {
+                long price = previous.getPrice(side, i);
+                if (current.indexOf(side, price) < 0) {
+                    listener.onLevel(current.getStock(), side, price, 0, 0);
+                    updates++;
+                }
+            }
+        }
+        return updates;
+    }
+}
\ No newline at end of file
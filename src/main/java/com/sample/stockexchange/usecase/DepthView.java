@@ -0,0 +1,94 @@
+package com.sample.stockexchange.usecase;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sample.stockexchange.entity.OrderSet;
+import com.sample.stockexchange.entity.PriceLevel;
+import com.sample.stockexchange.entity.Stock;
+
+/**
+ * DepthView holds the published {@link Depth} of a stock behind a seqlock: its
+ * single writer bumps the version to odd, writes the levels in place and bumps
+ * it back to even, readers copy the levels and try again if the version moved
+ * meanwhile. The writer never waits for readers, and nothing is allocated.
+ */
+final class DepthView {
+    private final Stock stock;
+    private final int depth;
+    private final long[] values;
+    private final AtomicLong version;
+    // writer only, true while waiting to be published
+    boolean changed;
+
+    DepthView(Stock stock, int depth) {
+        this.stock = stock;
+        this.depth = depth;
+        this.values = new long[Depth.HEADER + 2 * depth * Depth.STRIDE];
+        this.version = new AtomicLong();
+    }
+
+    Stock getStock() {
+        return stock;
+    }
+
+    /**
+     * @return 0 until it's first written, then even between writes
+     */
+    long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Writer: copies the best levels of both sides, null sets being empty
+     */
+    void write(OrderSet buys, OrderSet sells, long sequence) {
+        long v = version.get();
+        version.lazySet(v + 1);
+        // the odd version is seen before any of the levels change
+        VarHandle.storeStoreFence();
+        values[0] = copy(buys, Depth.HEADER);
+        values[1] = copy(sells, Depth.HEADER + depth * Depth.STRIDE);
+        values[2] = sequence;
+        version.lazySet(v + 2);
+    }
+
+    /**
+     * Reader: copies the levels into depth, spinning while they're written
+     *
+     * @return version copied
+     */
+    long read(Depth depth) {
+        long[] into = depth.values();
+        while (true) {
+            long v = version.get();
+            if ((v & 1) == 0) {
+                System.arraycopy(values, 0, into, 0, values.length);
+                // the copy is done before the version is checked again
+                VarHandle.acquireFence();
+                if (version.get() == v) {
+                    depth.setStock(stock);
+                    return v;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private int copy(OrderSet orders, int at) {
+        int count = 0;
+        if (orders == null) {
+            return count;
+        }
+        for (PriceLevel level : orders.getLevels()) {
+            if (count == depth) {
+                break;
+            }
+            values[at++] = level.getPrice();
+            values[at++] = level.getQuantity();
+            values[at++] = level.size();
+            count++;
+        }
+        return count;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.sample.stockexchange.usecase;
+
+/**
+ * EngineListener receives the output of an engine running on its own threads:
+ * executed trades, rejected orders, and a hint when no output is pending,
+ * e.g. to flush buffered output.
+ */
+public interface EngineListener extends TradeListener {
+    public void onRejected(AddOrderException e);
+
+    public default void onIdle() {
+    }
+}
\ No newline at end of file
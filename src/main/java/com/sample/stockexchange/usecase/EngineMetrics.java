@@ -0,0 +1,148 @@
+package com.sample.stockexchange.usecase;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.sample.stockexchange.entity.OrderEntry;
+import com.sample.stockexchange.entity.Stock;
+
+/**
+ * EngineMetrics counts what a matching engine does: accepted and rejected
+ * orders, trades, volume and resting orders per {@link Stock}, and parsing and
+ * matching latencies in nanoseconds.
+ *
+ * Each instance has a single writer, e.g. the thread matching the orders of an
+ * {@link OrderUsecasesRepo}, which updates it with ordered stores and no
+ * atomic read-modify-writes, so recording never contends. Any thread can read
+ * it. Engines matching on several threads give each thread an instance of its
+ * own, and readers add them up.
+ */
+public final class EngineMetrics {
+    private final AtomicLong accepted;
+    private final AtomicLong rejected;
+    private final AtomicLong trades;
+    private final LatencyHistogram parsing;
+    private final LatencyHistogram matching;
+    // by stock id, replaced with larger copies by the writer as stocks come
+    private volatile AtomicLongArray volumes;
+    private volatile AtomicLongArray buyDepths;
+    private volatile AtomicLongArray sellDepths;
+
+    public EngineMetrics() {
+        this.accepted = new AtomicLong();
+        this.rejected = new AtomicLong();
+        this.trades = new AtomicLong();
+        this.parsing = new LatencyHistogram();
+        this.matching = new LatencyHistogram();
+        this.volumes = new AtomicLongArray(16);
+        this.buyDepths = new AtomicLongArray(16);
+        this.sellDepths = new AtomicLongArray(16);
+    }
+
+    public void onAccepted() {
+        accepted.lazySet(accepted.get() + 1);
+    }
+
+    /**
+     * @param nanos time taken to match an accepted order
+     */
+    public void onMatched(long nanos) {
+        matching.record(nanos);
+    }
+
+    public void onRejected() {
+        rejected.lazySet(rejected.get() + 1);
+    }
+
+    public void onTrade(OrderEntry entry) {
+        trades.lazySet(trades.get() + 1);
+        int id = entry.getParty().getStock().getId();
+        AtomicLongArray volumes = this.volumes;
+        if (id >= volumes.length()) {
+            volumes = this.volumes = grow(volumes, id);
+        }
+        volumes.lazySet(id, volumes.get(id) + entry.getQuantity());
+    }
+
+    /**
+     * @param nanos time taken to parse an order
+     */
+    public void onParsed(long nanos) {
+        parsing.record(nanos);
+    }
+
+    /**
+     * Sets the number of resting orders of stock
+     */
+    public void setDepth(Stock stock, int buys, int sells) {
+        int id = stock.getId();
+        AtomicLongArray buyDepths = this.buyDepths;
+        AtomicLongArray sellDepths = this.sellDepths;
+        if (id >= buyDepths.length()) {
+            buyDepths = this.buyDepths = grow(buyDepths, id);
+            sellDepths = this.sellDepths = grow(sellDepths, id);
+        }
+        buyDepths.lazySet(id, buys);
+        sellDepths.lazySet(id, sells);
+    }
+
+    public long getAccepted() {
+        return accepted.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getTrades() {
+        return trades.get();
+    }
+
+    /**
+     * @return traded quantity of stock
+     */
+    public long getVolume(Stock stock) {
+        return get(volumes, stock);
+    }
+
+    /**
+     * @return resting buy orders of stock
+     */
+    public long getBuyDepth(Stock stock) {
+        return get(buyDepths, stock);
+    }
+
+    /**
+     * @return resting sell orders of stock
+     */
+    public long getSellDepth(Stock stock) {
+        return get(sellDepths, stock);
+    }
+
+    /**
+     * @return latencies of parsing orders, only its writer may change it
+     */
+    public LatencyHistogram getParsingLatency() {
+        return parsing;
+    }
+
+    /**
+     * @return latencies of matching accepted orders, only its writer may change
+     *         it
+     */
+    public LatencyHistogram getMatchingLatency() {
+        return matching;
+    }
+
+    private static long get(AtomicLongArray values, Stock stock) {
+        return stock.getId() < values.length() ? values.get(stock.getId()) : 0;
+    }
+
+    private static AtomicLongArray grow(AtomicLongArray values, int id) {
+        AtomicLongArray grown = new AtomicLongArray(Math.max(values.length() * 2, id + 1));
+        for (int i = 0; i < values.length(); i++) {
+            grown.lazySet(i, values.get(i));
+        }
+        return grown;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+package com.sample.stockexchange.usecase;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram counts latencies in buckets whose width grows with their
+ * value, like an HDR histogram: values are kept with 3 significant digits (a
+ * relative error under 0.1%) from nanoseconds up to Long.MAX_VALUE, in a fixed
+ * 450KB of counts. Recording is a couple of shifts and ordered stores, so it
+ * can stay on the measured path.
+ *
+ * A single thread records values, any thread can read them while it does. Reads
+ * during recording may be off by the values being recorded.
+ */
+public final class LatencyHistogram {
+    // values below 2^SUB_BUCKET_BITS are counted exactly, larger ones with
+    // SUB_BUCKET_BITS - 1 bits after their highest one
+    private static final int SUB_BUCKET_BITS = 11;
+    private static final int HALF_BUCKET = 1 << (SUB_BUCKET_BITS - 1);
+
+    private final AtomicLongArray counts;
+    private final AtomicLong count;
+    private final AtomicLong min;
+    private final AtomicLong max;
+    private final AtomicLong sum;
+
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray((Long.SIZE - SUB_BUCKET_BITS + 1) * HALF_BUCKET + 2 * HALF_BUCKET);
+        this.count = new AtomicLong();
+        this.min = new AtomicLong(Long.MAX_VALUE);
+        this.max = new AtomicLong();
+        this.sum = new AtomicLong();
+    }
+
+    /**
+     * @param value latency, negative values count as 0
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        int index = indexOf(value);
+        // single writer, so ordered stores are enough
+        counts.lazySet(index, counts.get(index) + 1);
+        count.lazySet(count.get() + 1);
+        sum.lazySet(sum.get() + value);
+        if (value < min.get()) {
+            min.lazySet(value);
+        }
+        if (value > max.get()) {
+            max.lazySet(value);
+        }
+    }
+
+    /**
+     * Adds the values of other, e.g. to read histograms of several writers as
+     * one. Only the writer of this histogram may call it.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length(); i++) {
+            long added = other.counts.get(i);
+            if (added != 0) {
+                counts.lazySet(i, counts.get(i) + added);
+            }
+        }
+        count.lazySet(count.get() + other.count.get());
+        sum.lazySet(sum.get() + other.sum.get());
+        min.lazySet(Math.min(min.get(), other.min.get()));
+        max.lazySet(Math.max(max.get(), other.max.get()));
+    }
+
+    /**
+     * Only the writer of this histogram may call it
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.lazySet(i, 0);
+        }
+        count.lazySet(0);
+        min.lazySet(Long.MAX_VALUE);
+        max.lazySet(0);
+        sum.lazySet(0);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMin() {
+        return count.get() == 0 ? 0 : min.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return highest value of the bucket holding the value at percentile, no
+     *         more than the maximum recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        // counted again from buckets, which may be ahead of count while recording
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(max.get(), highestValueOf(i));
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * @return p50/p99/p99.9/max in microseconds, values being in nanoseconds
+     */
+    @Override
+    public String toString() {
+        return String.format("p50 %.1f, p99 %.1f, p99.9 %.1f, max %.1f us (%d values)",
+                getValueAtPercentile(50) / 1e3, getValueAtPercentile(99) / 1e3, getValueAtPercentile(99.9) / 1e3,
+                getMax() / 1e3, getCount());
+    }
+
+    private static int indexOf(long value) {
+        int shift = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return (shift * HALF_BUCKET) + (int) (value >>> shift);
+    }
+
+    private static long highestValueOf(int index) {
+        if (index < 2 * HALF_BUCKET) {
+            return index;
+        }
+        int shift = index / HALF_BUCKET - 1;
+        long subBucket = index - (long) shift * HALF_BUCKET;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,148 @@
+package com.sample.stockexchange.usecase;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sample.stockexchange.entity.BuyOrderSet;
+import com.sample.stockexchange.entity.SellOrderSet;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockMap;
+
+/**
+ * MarketDataFeed publishes the best bid and ask and the aggregated quantity of
+ * the best price levels of every {@link Stock}, as a {@link Depth} per stock.
+ *
+ * Its writer is the thread matching the orders of an {@link OrderUsecasesRepo},
+ * which marks stocks as changed as orders rest, fill or are cancelled, and
+ * publishes the changed ones at most once per interval: any number of changes
+ * to a stock within an interval cost a single copy of its best levels. Copies
+ * are kept behind a seqlock, so readers never block the writer, and they read
+ * the latest depth of a stock, or the levels which changed since they last
+ * polled with a {@link DepthSubscription}, instead of a queue of every change.
+ */
+public final class MarketDataFeed {
+    public static final int DEFAULT_DEPTH = 10;
+
+    private final int depth;
+    private final long interval;
+    private final AtomicLong published;
+    // by stock id, replaced with larger copies by the writer as stocks come
+    private volatile DepthView[] views;
+
+    // writer side
+    private DepthView[] changed;
+    private int changedCount;
+    private long lastPublish;
+
+    /**
+     * @param depth    number of levels published per side
+     * @param interval least time between publishes, 0 to publish after every
+     *                 change
+     */
+    public MarketDataFeed(int depth, long interval, TimeUnit unit) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Invalid depth: " + depth);
+        }
+        if (interval < 0) {
+            throw new IllegalArgumentException("Invalid interval: " + interval);
+        }
+        this.depth = depth;
+        this.interval = unit.toNanos(interval);
+        this.published = new AtomicLong();
+        this.views = new DepthView[16];
+        this.changed = new DepthView[16];
+        this.lastPublish = System.nanoTime();
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return least time between publishes, in nanoseconds
+     */
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return number of publishes so far
+     */
+    public long getPublished() {
+        return published.get();
+    }
+
+    /**
+     * Copies the latest published depth of stock, without waiting for the
+     * writer
+     *
+     * @param into reused copy, of this feed's depth
+     * @return false if stock hasn't been published yet
+     */
+    public boolean read(Stock stock, Depth into) {
+        DepthView[] views = this.views;
+        DepthView view = stock.getId() < views.length ? views[stock.getId()] : null;
+        return view != null && view.getVersion() != 0 && view.read(into) != 0;
+    }
+
+    /**
+     * @return a subscription to the levels which change from now on, to be
+     *         polled from a single thread
+     */
+    public DepthSubscription subscribe() {
+        return new DepthSubscription(this);
+    }
+
+    DepthView[] getViews() {
+        return views;
+    }
+
+    /**
+     * Writer: marks the depth of stock to be published
+     */
+    void onChanged(Stock stock) {
+        int id = stock.getId();
+        DepthView[] views = this.views;
+        if (id >= views.length) {
+            views = this.views = Arrays.copyOf(views, Math.max(views.length * 2, id + 1));
+        }
+        DepthView view = views[id];
+        if (view == null) {
+            view = views[id] = new DepthView(stock, depth);
+        }
+        if (!view.changed) {
+            if (changedCount == changed.length) {
+                changed = Arrays.copyOf(changed, changedCount * 2);
+            }
+            view.changed = true;
+            changed[changedCount++] = view;
+        }
+    }
+
+    /**
+     * Writer: publishes changed stocks if the interval has passed since the last
+     * publish
+     */
+    void publishIfDue(StockMap<BuyOrderSet> buys, StockMap<SellOrderSet> sells) {
+        if (changedCount > 0 && (interval == 0 || System.nanoTime() - lastPublish >= interval)) {
+            publish(buys, sells);
+        }
+    }
+
+    /**
+     * Writer: publishes changed stocks now
+     */
+    void publish(StockMap<BuyOrderSet> buys, StockMap<SellOrderSet> sells) {
+        long sequence = published.get() + 1;
+        for (int i = 0; i < changedCount; i++) {
+            DepthView view = changed[i];
+            view.write(buys.get(view.getStock()), sells.get(view.getStock()), sequence);
+            view.changed = false;
+            changed[i] = null;
+        }
+        changedCount = 0;
+        lastPublish = System.nanoTime();
+        published.lazySet(sequence);
+    }
+}
\ No newline at end of file
@@ -3,33 +3,163 @@ package com.sample.stockexchange.usecase;
 import static com.sample.stockexchange.entity.OrderType.BUY;
 import static com.sample.stockexchange.entity.OrderType.SELL;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
+import com.sample.stockexchange.adapter.IOrderJournal;
+import com.sample.stockexchange.adapter.JournalListener;
 import com.sample.stockexchange.adapter.IOrderSetStore;
+import com.sample.stockexchange.adapter.ISnapshotStore;
 import com.sample.stockexchange.adapter.ITransactionStore;
+import com.sample.stockexchange.entity.BookSnapshot;
 import com.sample.stockexchange.entity.BuyOrderSet;
 import com.sample.stockexchange.entity.Order;
 import com.sample.stockexchange.entity.OrderEntry;
+import com.sample.stockexchange.entity.OrderSet;
+import com.sample.stockexchange.entity.PriceLevel;
 import com.sample.stockexchange.entity.SellOrderSet;
 import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockMap;
 
 public final class OrderUsecasesRepo {
 
-    private final Map<Stock, BuyOrderSet> buys;
-    private final Map<Stock, SellOrderSet> sells;
+    private final IOrderSetStore orderStore;
+    private final StockMap<BuyOrderSet> buys;
+    private final StockMap<SellOrderSet> sells;
     private final List<OrderEntry> transactionList;
+    private final TradeListener recorder;
+    private final Sequence executionIds;
+    // arrival sequence of accepted orders, giving their time priority
+    private final Sequence arrivals;
+    private final IOrderJournal journal;
+    private final ISnapshotStore snapshots;
+    private final int snapshotInterval;
+    private final EngineMetrics metrics;
+    private final MarketDataFeed marketData;
+    private final Matcher matcher;
+    private long lastSequence;
 
     public OrderUsecasesRepo(IOrderSetStore orderStore, ITransactionStore transactionStore) {
+        this(orderStore, transactionStore, new Sequence());
+    }
+
+    /**
+     * @param executionIds sequence giving {@link OrderEntry} ids
+     */
+    public OrderUsecasesRepo(IOrderSetStore orderStore, ITransactionStore transactionStore, Sequence executionIds) {
+        this(orderStore, transactionStore, executionIds, null);
+    }
+
+    /**
+     * @param journal where placed orders are journaled before being matched, null
+     *                for none
+     */
+    public OrderUsecasesRepo(IOrderSetStore orderStore, ITransactionStore transactionStore, Sequence executionIds,
+            IOrderJournal journal) {
+        this(orderStore, transactionStore, executionIds, journal, null, 0);
+    }
+
+    /**
+     * @param snapshots        where order books are snapshotted, every
+     *                         snapshotInterval journal records. Ignored without
+     *                         a journal
+     * @param snapshotInterval
+     */
+    public OrderUsecasesRepo(IOrderSetStore orderStore, ITransactionStore transactionStore, Sequence executionIds,
+            IOrderJournal journal, ISnapshotStore snapshots, int snapshotInterval) {
+        this(orderStore, transactionStore, executionIds, journal, snapshots, snapshotInterval, null);
+    }
+
+    /**
+     * @param metrics where orders, trades and matching latencies are counted,
+     *                null for none. The thread placing orders is its writer
+     */
+    public OrderUsecasesRepo(IOrderSetStore orderStore, ITransactionStore transactionStore, Sequence executionIds,
+            IOrderJournal journal, ISnapshotStore snapshots, int snapshotInterval, EngineMetrics metrics) {
+        this(orderStore, transactionStore, executionIds, journal, snapshots, snapshotInterval, metrics, null);
+    }
+
+    /**
+     * @param marketData where the depth of stocks is published as their books
+     *                   change, null for none. The thread placing orders is its
+     *                   writer
+     */
+    public OrderUsecasesRepo(IOrderSetStore orderStore, ITransactionStore transactionStore, Sequence executionIds,
+            IOrderJournal journal, ISnapshotStore snapshots, int snapshotInterval, EngineMetrics metrics,
+            MarketDataFeed marketData) {
+        if (snapshots != null && snapshotInterval < 1) {
+            throw new IllegalArgumentException("Invalid snapshot interval: " + snapshotInterval);
+        }
+        this.orderStore = orderStore;
         this.buys = orderStore.getBuyOrderStore();
         this.sells = orderStore.getSellOrderStore();
         this.transactionList = transactionStore.getOrderEntries();
+        this.recorder = transactionList::add;
+        this.executionIds = executionIds;
+        this.arrivals = new Sequence();
+        this.journal = journal;
+        this.snapshots = journal == null ? null : snapshots;
+        this.snapshotInterval = snapshotInterval;
+        this.metrics = metrics;
+        this.marketData = marketData;
+        this.matcher = new Matcher(executionIds, metrics);
+    }
+
+    /**
+     * @return sequence giving {@link OrderEntry} ids, e.g. to persist its last
+     *         value
+     */
+    public Sequence getExecutionIds() {
+        return executionIds;
+    }
+
+    /**
+     * @return where orders are counted, null if they aren't
+     */
+    public EngineMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return where the depth of stocks is published, null if it isn't
+     */
+    public MarketDataFeed getMarketData() {
+        return marketData;
+    }
+
+    /**
+     * Publishes the depth of stocks changed since the last publish now, instead
+     * of waiting for the next change after the feed's interval, e.g. when orders
+     * stop coming. Must be called from the thread placing orders
+     */
+    public void publishMarketData() {
+        if (marketData != null) {
+            marketData.publish(buys, sells);
+        }
+    }
+
+    /**
+     * @return resting buy orders of stock, null if it has never been traded
+     */
+    public BuyOrderSet getBuyOrders(Stock stock) {
+        return buys.get(stock);
+    }
+
+    /**
+     * @return resting sell orders of stock, null if it has never been traded
+     */
+    public SellOrderSet getSellOrders(Stock stock) {
+        return sells.get(stock);
     }
 
     /**
      * Adds orders to {@link com.sample.stockexchange.entity.BuyOrderSet}. If
-     * Order.id is not unique, AddOrderException is thrown.
+     * Order.id is not unique among resting orders of the store, on either side
+     * of any stock, AddOrderException is thrown.
      *
      * @param orders
      * @throws AddOrderException
@@ -45,30 +175,43 @@ public final class OrderUsecasesRepo {
             }
 
             if (order.getStock() == null) {
+                reject();
                 throw new AddOrderException("No stocks attached to Order: " + order.getId());
             }
+            if (order.isPooled()) {
+                throw new IllegalArgumentException("Trades of pooled orders can't be recorded: " + order.getId());
+            }
 
-            Set<Order> orderSet = null;
+            OrderSet orderSet = null;
             if (order.getType() == BUY) {
                 BuyOrderSet buyOrders = buys.get(order.getStock());
                 if (buyOrders == null) {
-                    buyOrders = new BuyOrderSet();
+                    buyOrders = orderStore.newBuyOrderSet();
                     buys.put(order.getStock(), buyOrders);
                 }
-                orderSet = buyOrders.getOrderSet();
+                orderSet = buyOrders;
             } else if (order.getType() == SELL) {
                 SellOrderSet sellOrders = sells.get(order.getStock());
                 if (sellOrders == null) {
-                    sellOrders = new SellOrderSet();
+                    sellOrders = orderStore.newSellOrderSet();
                     sells.put(order.getStock(), sellOrders);
                 }
-                orderSet = sellOrders.getOrderSet();
+                orderSet = sellOrders;
             }
 
-            if (orderSet.contains(order)) {
+            if (orderStore.containsOrder(order.getId())) {
+                reject();
                 throw new AddOrderException("Order is possibly duplicated: " + order.getId());
             } else {
+                order.setSequence(arrivals.next());
                 orderSet.add(order);
+                if (metrics != null) {
+                    metrics.onAccepted();
+                    publishDepth(order.getStock());
+                }
+                if (marketData != null) {
+                    changed(order.getStock());
+                }
             }
         }
     }
@@ -77,9 +220,124 @@ public final class OrderUsecasesRepo {
      * Cleans in-memory data-stores. Useful for testing.
      */
     public void cleanup() {
+        if (metrics != null) {
+            buys.forEach((stock, orders) -> metrics.setDepth(stock, 0, 0));
+            sells.forEach((stock, orders) -> metrics.setDepth(stock, 0, 0));
+        }
+        if (marketData != null) {
+            buys.forEach((stock, orders) -> marketData.onChanged(stock));
+            sells.forEach((stock, orders) -> marketData.onChanged(stock));
+        }
+        buys.forEach((stock, orders) -> release(orders));
+        sells.forEach((stock, orders) -> release(orders));
         buys.clear();
         sells.clear();
         transactionList.clear();
+        executionIds.reset();
+        arrivals.reset();
+        lastSequence = 0;
+        publishMarketData();
+    }
+
+    /**
+     * Cleans in-memory data-stores, then rebuilds order books and execution ids:
+     * from the latest snapshot if there is one, then by placing every order
+     * journaled after it again, cancels and amends included, in order. Trades are
+     * executed again with the same ids, and handed to listener. Same as
+     * {@link #cleanup()} without a journal.
+     *
+     * @param listener
+     * @throws IllegalStateException if a journaled order is rejected, or a
+     *                               journaled cancel or amend finds no order
+     */
+    public void recover(TradeListener listener) {
+        cleanup();
+        if (journal == null) {
+            return;
+        }
+
+        BookSnapshot snapshot = snapshots == null ? null : snapshots.loadLatest();
+        if (snapshot != null) {
+            restore(snapshot);
+        }
+
+        journal.replay(lastSequence, new JournalListener() {
+            @Override
+            public void onPlaced(Order order) {
+                try {
+                    place(order, listener, false);
+                } catch (AddOrderException e) {
+                    throw new IllegalStateException("Journaled order rejected: " + order.getId(), e);
+                }
+                lastSequence++;
+            }
+
+            @Override
+            public void onCancelled(String id) {
+                if (cancel(id, false) == 0) {
+                    throw new IllegalStateException("Journaled cancel of no resting order: " + id);
+                }
+                lastSequence++;
+            }
+
+            @Override
+            public void onAmended(String id, int quantity) {
+                if (!amend(id, quantity, false)) {
+                    throw new IllegalStateException("Journaled amend of no resting order: " + id);
+                }
+                lastSequence++;
+            }
+        });
+    }
+
+    /**
+     * Copies every resting order, with the journal sequence and execution id
+     * they're at. Must be called between orders, from the thread placing them,
+     * and only takes as long as copying resting orders.
+     *
+     * @return snapshot in price then time priority per stock and side
+     */
+    public BookSnapshot snapshot() {
+        BookSnapshot snapshot = new BookSnapshot(lastSequence, executionIds.get());
+        buys.forEach((stock, orders) -> orders.getOrderSet().forEach(snapshot::add));
+        sells.forEach((stock, orders) -> orders.getOrderSet().forEach(snapshot::add));
+        return snapshot;
+    }
+
+    /**
+     * Cleans in-memory data-stores, then adds back the resting orders of
+     * snapshot
+     */
+    public void restore(BookSnapshot snapshot) {
+        cleanup();
+        for (Order order : snapshot.getOrders()) {
+            // orders keep their time priority, later ones arrive after them all
+            arrivals.set(Math.max(arrivals.get(), order.getSequence()));
+            if (order.getType() == BUY) {
+                BuyOrderSet buyOrders = buys.get(order.getStock());
+                if (buyOrders == null) {
+                    buyOrders = orderStore.newBuyOrderSet();
+                    buys.put(order.getStock(), buyOrders);
+                }
+                buyOrders.add(order);
+            } else if (order.getType() == SELL) {
+                SellOrderSet sellOrders = sells.get(order.getStock());
+                if (sellOrders == null) {
+                    sellOrders = orderStore.newSellOrderSet();
+                    sells.put(order.getStock(), sellOrders);
+                }
+                sellOrders.add(order);
+            }
+            if (metrics != null) {
+                publishDepth(order.getStock());
+            }
+            if (marketData != null) {
+                marketData.onChanged(order.getStock());
+            }
+        }
+        publishMarketData();
+        executionIds.set(snapshot.getExecutionId());
+        lastSequence = snapshot.getSequence();
     }
 
     /**
@@ -95,44 +353,486 @@ public final class OrderUsecasesRepo {
             return transactionList;
         }
 
-        // process buy orders
         buys.forEach((stock, orders) -> {
-            Set<Order> buyOrderSet = orders.getOrderSet();
-
-            if (buyOrderSet == null || buyOrderSet.isEmpty()) {
+            if (orders == null || orders.isEmpty()) {
                 return;
             }
 
-            SellOrderSet sOrderSet = sells.get(stock);
-            if (sOrderSet == null) {
+            SellOrderSet sellOrders = sells.get(stock);
+            if (sellOrders == null) {
                 return;
             }
 
-            Set<Order> sellOrderSet = sOrderSet.getOrderSet();
+            matchBatch(orders, sellOrders, matcher, recorder);
+            matched(stock);
+        });
 
-            buyOrderSet.stream().filter(order -> (order.getQuantity() > 0)).forEach((buy) -> {
-                for (Order sell : sellOrderSet) {
-                    if (sell.getQuantity() > 0 && buy.getAskingPrice().compareTo(sell.getAskingPrice()) >= 0) {
+        return transactionList;
+    }
 
-                        int qty = 0;
-                        if (sell.getQuantity() > buy.getQuantity()) {
-                            qty = buy.getQuantity();
-                            sell.setQuantity(sell.getQuantity() - buy.getQuantity());
-                            buy.setQuantity(0);
-                        } else {
-                            qty = sell.getQuantity();
-                            buy.setQuantity(buy.getQuantity() - sell.getQuantity());
-                            sell.setQuantity(0);
-                        }
+    /**
+     * Same as {@link #processOrders()}, except stocks are matched concurrently,
+     * as tasks of pool: its parallelism is the number of threads matching. Each
+     * task buffers the trades of its stock, then they're recorded stock by stock
+     * in stock id order, and given execution ids in that order, so trades and
+     * their ids are the same as processOrders' whatever the parallelism.
+     * Off-heap books, sharing their records across stocks, are matched on the
+     * calling thread.
+     *
+     * @return {@link ITransactionStore}. Returns existing transaction store if no
+     *         orders were processed
+     */
+    public List<OrderEntry> processOrders(ForkJoinPool pool) {
+        if (buys == null || buys.isEmpty() || sells == null || sells.isEmpty()) {
+            return transactionList;
+        }
 
-                        // record it in order entry
-                        OrderEntry entry = new OrderEntry(sell, buy, qty, sell.getAskingPrice());
-                        transactionList.add(entry);
-                    }
-                }
-            });
+        List<Stock> stocks = new ArrayList<>();
+        buys.forEach((stock, orders) -> {
+            if (orders != null && !orders.isEmpty() && sells.get(stock) != null) {
+                stocks.add(stock);
+            }
         });
+        if (stocks.isEmpty()) {
+            return transactionList;
+        }
+        if (!orderStore.supportsDetach()) {
+            return processOrders();
+        }
+
+        // sets of a store share their index of orders by id, left alone while
+        // stocks are matched on different threads
+        for (Stock stock : stocks) {
+            buys.get(stock).detach();
+            sells.get(stock).detach();
+        }
+        BatchMatch batch = new BatchMatch(stocks.toArray(new Stock[0]), pool.getParallelism());
+        try {
+            pool.invoke(batch);
+        } finally {
+            for (Stock stock : stocks) {
+                buys.get(stock).attach();
+                sells.get(stock).attach();
+            }
+        }
 
+        for (int i = 0; i < batch.stocks.length; i++) {
+            for (OrderEntry trade : batch.trades.get(i)) {
+                trade.setId(executionIds.next());
+                if (metrics != null) {
+                    metrics.onTrade(trade);
+                }
+                recorder.onTrade(trade);
+            }
+            matched(batch.stocks[i]);
+        }
         return transactionList;
     }
+
+    /**
+     * Places a single order in continuous mode: the order is matched against the
+     * opposite side of its stock's book the moment it arrives, based on
+     * FIFO(time) price-matching policy. Any unfilled remainder rests in the book
+     * for later orders.
+     *
+     * @param order
+     * @return {@link OrderEntry} list executed by this order. Entries are also
+     *         recorded in the transaction store
+     * @throws AddOrderException
+     */
+    public List<OrderEntry> placeOrder(Order order) throws AddOrderException {
+        if (order != null && order.isPooled()) {
+            throw new IllegalArgumentException("Trades of pooled orders can't be recorded: " + order.getId());
+        }
+        // the store keeps copies, the entries handed back refer to the orders
+        List<OrderEntry> entries = new ArrayList<>();
+        placeOrder(order, entry -> {
+            transactionList.add(entry);
+            entries.add(entry);
+        });
+        return entries;
+    }
+
+    /**
+     * Same as {@link #placeOrder(Order)}, except executed entries are handed to
+     * listener as they happen instead of being recorded in the transaction store.
+     * Memory use is then bounded by resting orders only. With a journal, the
+     * order is journaled before it's matched.
+     *
+     * Pooled orders, see {@link com.sample.stockexchange.entity.OrderPool}, are
+     * released once they're filled, and their entries once listener has been
+     * handed them, so listener must not keep entries. Rejected orders are left
+     * to the caller.
+     *
+     * @param order
+     * @param listener
+     * @throws AddOrderException
+     */
+    public void placeOrder(Order order, TradeListener listener) throws AddOrderException {
+        if (order == null) {
+            return;
+        }
+        if (metrics == null) {
+            place(order, listener, journal != null);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            place(order, listener, journal != null);
+        } catch (AddOrderException e) {
+            metrics.onRejected();
+            throw e;
+        }
+        metrics.onAccepted();
+        metrics.onMatched(System.nanoTime() - start);
+    }
+
+    /**
+     * Cancels the resting order with id, found in O(1) whichever its side, stock
+     * and price. A pooled order is released. With a journal, the cancel is
+     * journaled before it's applied.
+     *
+     * @return remaining quantity of the cancelled order, 0 if no order with id
+     *         is resting
+     */
+    public int cancelOrder(String id) {
+        return cancel(id, journal != null);
+    }
+
+    /**
+     * Reduces the quantity of the resting order with id in place, so it keeps
+     * its time priority. Reducing it to 0 cancels it, see
+     * {@link #cancelOrder(String)}. With a journal, the amend is journaled
+     * before it's applied.
+     *
+     * @return false if no order with id is resting
+     * @throws IllegalArgumentException if quantity is negative or more than the
+     *                                  remaining one, which would have to lose
+     *                                  time priority: cancel and place it again
+     */
+    public boolean amendOrder(String id, int quantity) {
+        return amend(id, quantity, journal != null);
+    }
+
+    private int cancel(String id, boolean journaled) {
+        Order order = orderStore.findOrder(id);
+        if (order == null) {
+            return 0;
+        }
+        if (journaled) {
+            lastSequence = journal.appendCancel(id);
+        }
+
+        Stock stock = order.getStock();
+        OrderSet orders = order.getType() == BUY ? buys.get(stock) : sells.get(stock);
+        Order cancelled = orders.cancel(id);
+        int quantity = cancelled.getQuantity();
+        cancelled.release();
+        if (metrics != null) {
+            publishDepth(stock);
+        }
+        if (marketData != null) {
+            changed(stock);
+        }
+        if (journaled) {
+            snapshotIfDue();
+        }
+        return quantity;
+    }
+
+    private boolean amend(String id, int quantity, boolean journaled) {
+        Order order = orderStore.findOrder(id);
+        if (order == null) {
+            return false;
+        }
+        if (quantity < 0 || quantity > order.getQuantity()) {
+            throw new IllegalArgumentException("Invalid quantity " + quantity + " for order " + id + " with "
+                    + order.getQuantity() + " remaining");
+        }
+        if (quantity == 0) {
+            cancel(id, journaled);
+            return true;
+        }
+        if (journaled) {
+            lastSequence = journal.appendAmend(id, quantity);
+        }
+
+        OrderSet orders = order.getType() == BUY ? buys.get(order.getStock()) : sells.get(order.getStock());
+        boolean amended = orders.amend(id, quantity);
+        if (marketData != null) {
+            changed(order.getStock());
+        }
+        if (journaled) {
+            snapshotIfDue();
+        }
+        return amended;
+    }
+
+    /**
+     * Accepted orders are journaled, if journaled is true, once they're checked
+     * and before they're matched. The books are snapshotted after every
+     * snapshotInterval journal records
+     */
+    private void place(Order order, TradeListener listener, boolean journaled) throws AddOrderException {
+        if (order == null) {
+            return;
+        }
+
+        Stock stock = order.getStock();
+        if (stock == null) {
+            throw new AddOrderException("No stocks attached to Order: " + order.getId());
+        }
+
+        BuyOrderSet buyOrders = buys.get(stock);
+        if (buyOrders == null) {
+            buyOrders = orderStore.newBuyOrderSet();
+            buys.put(stock, buyOrders);
+        }
+        SellOrderSet sellOrders = sells.get(stock);
+        if (sellOrders == null) {
+            sellOrders = orderStore.newSellOrderSet();
+            sells.put(stock, sellOrders);
+        }
+
+        OrderSet own = order.getType() == BUY ? buyOrders : sellOrders;
+        if (orderStore.containsOrder(order.getId())) {
+            throw new AddOrderException("Order is possibly duplicated: " + order.getId());
+        }
+
+        if (journaled) {
+            try {
+                lastSequence = journal.append(order);
+            } catch (IllegalArgumentException e) {
+                throw new AddOrderException(e.getMessage());
+            }
+        }
+        order.setSequence(arrivals.next());
+
+        if (order.getType() == BUY) {
+            matcher.matchBuy(order, sellOrders, listener);
+        } else if (order.getType() == SELL) {
+            matcher.matchSell(order, buyOrders, listener);
+        }
+        if (order.getQuantity() > 0) {
+            own.add(order);
+        } else {
+            order.release();
+        }
+        if (metrics != null) {
+            metrics.setDepth(stock, buyOrders.size(), sellOrders.size());
+        }
+        if (marketData != null) {
+            changed(stock);
+        }
+
+        if (journaled) {
+            snapshotIfDue();
+        }
+    }
+
+    /**
+     * Matches buy orders in arrival order, each one against the best sells first
+     */
+    private static void matchBatch(BuyOrderSet orders, SellOrderSet sellOrders, Matcher matcher,
+            TradeListener listener) {
+        for (Order buy : orders.getOrdersByTime()) {
+            PriceLevel best = sellOrders.getBestLevel();
+            if (buy.getQuantity() == 0 || best == null || buy.getPrice() < best.getPrice()) {
+                continue;
+            }
+            // taken out while it's filled, only the first order of a level is
+            // filled in place, and put back with its remainder, off-heap
+            // orders being copies
+            orders.remove(buy);
+            matcher.matchBuy(buy, sellOrders, listener);
+            if (buy.getQuantity() > 0) {
+                orders.add(buy);
+            }
+        }
+    }
+
+    /**
+     * Publishes the depth of stock once its batch is matched
+     */
+    private void matched(Stock stock) {
+        if (metrics != null) {
+            publishDepth(stock);
+        }
+        if (marketData != null) {
+            changed(stock);
+        }
+    }
+
+    /**
+     * Marks the depth of stock as changed, publishing changed stocks if the
+     * feed's interval has passed
+     */
+    private void changed(Stock stock) {
+        marketData.onChanged(stock);
+        marketData.publishIfDue(buys, sells);
+    }
+
+    /**
+     * Snapshots the books every snapshotInterval journal records, once the last
+     * one has been applied
+     */
+    private void snapshotIfDue() {
+        if (snapshots != null && lastSequence % snapshotInterval == 0) {
+            snapshots.save(snapshot());
+        }
+    }
+
+    private void reject() {
+        if (metrics != null) {
+            metrics.onRejected();
+        }
+    }
+
+    /**
+     * Counts the resting orders of stock
+     */
+    private void publishDepth(Stock stock) {
+        BuyOrderSet buyOrders = buys.get(stock);
+        SellOrderSet sellOrders = sells.get(stock);
+        metrics.setDepth(stock, buyOrders == null ? 0 : buyOrders.size(), sellOrders == null ? 0 : sellOrders.size());
+    }
+
+    /**
+     * Clears a set, releasing its pooled orders
+     */
+    private static void release(OrderSet orders) {
+        // removed first, released orders lose their id
+        for (Iterator<Order> itr = orders.getOrderSet().iterator(); itr.hasNext();) {
+            Order order = itr.next();
+            itr.remove();
+            order.release();
+        }
+    }
+
+    /**
+     * BatchMatch matches the batches of its stocks into a buffer of trades per
+     * stock, splitting them in halves down to a few tasks per thread, so idle
+     * threads steal work from busy ones. Trades are given ids of their own
+     * task, renumbered once they're merged.
+     */
+    private final class BatchMatch extends RecursiveAction {
+        private final Stock[] stocks;
+        // by stock index, each task setting the slots of its own stocks
+        private final List<List<OrderEntry>> trades;
+        private final int threshold;
+        private final int from;
+        private final int to;
+
+        BatchMatch(Stock[] stocks, int parallelism) {
+            this(stocks, new ArrayList<>(Collections.nCopies(stocks.length, null)),
+                    Math.max(1, stocks.length / (8 * parallelism)), 0, stocks.length);
+        }
+
+        private BatchMatch(Stock[] stocks, List<List<OrderEntry>> trades, int threshold, int from, int to) {
+            this.stocks = stocks;
+            this.trades = trades;
+            this.threshold = threshold;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BatchMatch(stocks, trades, threshold, from, middle),
+                        new BatchMatch(stocks, trades, threshold, middle, to));
+                return;
+            }
+
+            Matcher matcher = new Matcher(new Sequence(), null);
+            for (int i = from; i < to; i++) {
+                List<OrderEntry> stockTrades = new ArrayList<>();
+                matchBatch(buys.get(stocks[i]), sells.get(stocks[i]), matcher, stockTrades::add);
+                trades.set(i, stockTrades);
+            }
+        }
+    }
+
+    /**
+     * Matcher fills orders against the opposite side of a book, giving trades
+     * ids from a sequence and counting them in metrics, if any. Each thread
+     * matching orders has its own.
+     */
+    private static final class Matcher {
+        private final Sequence ids;
+        private final EngineMetrics metrics;
+
+        Matcher(Sequence ids, EngineMetrics metrics) {
+            this.ids = ids;
+            this.metrics = metrics;
+        }
+
+        /**
+         * Fills a buy against the best priced sells, stopping at the first
+         * price level that doesn't cross. Filled sells are removed from the
+         * book.
+         */
+        void matchBuy(Order buy, SellOrderSet sellOrders, TradeListener listener) {
+            PriceLevel level;
+            while (buy.getQuantity() > 0 && (level = sellOrders.getBestLevel()) != null
+                    && buy.getPrice() >= level.getPrice()) {
+                Order sell = level.peek();
+                if (sell.getQuantity() > 0) {
+                    execute(sell, buy, listener);
+                }
+                if (sell.getQuantity() == 0) {
+                    sellOrders.pollBest();
+                    sell.release();
+                }
+            }
+        }
+
+        /**
+         * Fills a sell against the best priced buys, stopping at the first
+         * price level that doesn't cross. Filled buys are removed from the
+         * book.
+         */
+        void matchSell(Order sell, BuyOrderSet buyOrders, TradeListener listener) {
+            PriceLevel level;
+            while (sell.getQuantity() > 0 && (level = buyOrders.getBestLevel()) != null
+                    && level.getPrice() >= sell.getPrice()) {
+                Order buy = level.peek();
+                if (buy.getQuantity() > 0) {
+                    execute(sell, buy, listener);
+                }
+                if (buy.getQuantity() == 0) {
+                    buyOrders.pollBest();
+                    buy.release();
+                }
+            }
+        }
+
+        /**
+         * Fills a crossing pair of orders and hands the trade, at the sell
+         * price, to listener. Pooled entries are released once listener
+         * returns.
+         */
+        private void execute(Order sell, Order buy, TradeListener listener) {
+            int qty = 0;
+            if (sell.getQuantity() > buy.getQuantity()) {
+                qty = buy.getQuantity();
+                sell.setQuantity(sell.getQuantity() - buy.getQuantity());
+                buy.setQuantity(0);
+            } else {
+                qty = sell.getQuantity();
+                buy.setQuantity(buy.getQuantity() - sell.getQuantity());
+                sell.setQuantity(0);
+            }
+
+            // record it in order entry
+            OrderEntry entry = OrderEntry.of(ids.next(), sell, buy, qty, sell.getPrice());
+            if (metrics != null) {
+                metrics.onTrade(entry);
+            }
+            listener.onTrade(entry);
+            entry.release();
+        }
+    }
 }
\ No newline at end of file
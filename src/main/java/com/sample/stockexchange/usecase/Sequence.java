@@ -0,0 +1,58 @@
+package com.sample.stockexchange.usecase;
+
+/**
+ * Sequence hands out monotonic long ids: initial + increment, initial + 2 *
+ * increment etc. Consumers can detect gaps from it. Not thread-safe, each
+ * sequence is meant to have a single writer.
+ */
+public final class Sequence {
+    private final long initial;
+    private final long increment;
+    private long last;
+
+    /**
+     * Sequence of 1, 2, 3...
+     */
+    public Sequence() {
+        this(0, 1);
+    }
+
+    /**
+     * @param initial   value before the first one handed out
+     * @param increment between values
+     */
+    public Sequence(long initial, long increment) {
+        if (increment < 1) {
+            throw new IllegalArgumentException("Sequence increment must be positive: " + increment);
+        }
+        this.initial = initial;
+        this.increment = increment;
+        this.last = initial;
+    }
+
+    public long next() {
+        last += increment;
+        return last;
+    }
+
+    /**
+     * @return last value handed out, or the initial one if none was
+     */
+    public long get() {
+        return last;
+    }
+
+    /**
+     * Continues the sequence after last, e.g. when restoring state on restart
+     */
+    public void set(long last) {
+        this.last = last;
+    }
+
+    /**
+     * Restarts the sequence from its initial value
+     */
+    public void reset() {
+        this.last = initial;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,211 @@
+package com.sample.stockexchange.usecase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.IntFunction;
+
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderEntry;
+
+/**
+ * ShardedOrderEngine matches orders on N worker threads. Stocks never interact,
+ * so each stock is routed by id to a single shard which owns its books through
+ * its own {@link OrderUsecasesRepo}, with no locks. Output of every shard goes
+ * to one publisher thread, keeping the trades of a stock in order; trades of
+ * different stocks may interleave differently from a single threaded run.
+ * 
+ * Order ids are only checked for duplicates within a shard, as each repo
+ * indexes its own resting orders: an id resting in one shard is accepted again
+ * for a stock of another shard.
+ * 
+ * Orders are submitted from a single router thread.
+ */
+public final class ShardedOrderEngine implements AutoCloseable {
+    private static final int QUEUE_CAPACITY = 16 * 1024;
+    private static final int BATCH_SIZE = 256;
+    private static final Order END = new Order(null, null, null, 0, null, 0);
+
+    private final Shard[] shards;
+    private final Thread[] workers;
+    private final Thread publisher;
+    private final BlockingQueue<Output> output;
+    private final EngineListener listener;
+    private volatile Throwable failure;
+    private boolean closed;
+
+    /**
+     * Starts shard and publisher threads
+     *
+     * @param shardCount number of worker threads
+     * @param repos      creates the repo of a shard from its index. Repos must not
+     *                   share stores, and should use disjoint execution id
+     *                   sequences, e.g. new Sequence(index, shardCount)
+     * @param listener   called from the publisher thread only
+     */
+    public ShardedOrderEngine(int shardCount, IntFunction<OrderUsecasesRepo> repos, EngineListener listener) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Invalid shard count: " + shardCount);
+        }
+
+        this.listener = listener;
+        this.output = new LinkedBlockingQueue<>();
+        this.shards = new Shard[shardCount];
+        this.workers = new Thread[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(repos.apply(i));
+            workers[i] = new Thread(shards[i], "shard-" + i);
+        }
+        this.publisher = new Thread(this::publish, "shard-publisher");
+
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        publisher.start();
+    }
+
+    /**
+     * Routes an order to the shard owning its stock, waiting if that shard is
+     * too far behind. Orders without a stock are rejected.
+     */
+    public void submit(Order order) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("Engine is closed");
+        }
+        if (order == null) {
+            return;
+        }
+
+        if (order.getStock() == null) {
+            Output rejected = new Output();
+            rejected.rejection = new AddOrderException("No stocks attached to Order: " + order.getId());
+            output.put(rejected);
+            return;
+        }
+        shards[order.getStock().getId() % shards.length].orders.put(order);
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Waits for every submitted order to be matched and published, then stops
+     * all threads
+     *
+     * @throws IllegalStateException if a shard failed while matching, or the
+     *                               listener failed
+     */
+    @Override
+    public void close() throws InterruptedException {
+        if (!closed) {
+            closed = true;
+            for (Shard shard : shards) {
+                shard.orders.put(END);
+            }
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        publisher.join();
+
+        if (failure != null) {
+            throw new IllegalStateException("Matching failed", failure);
+        }
+    }
+
+    private void publish() {
+        int ended = 0;
+        try {
+            while (ended < shards.length) {
+                Output out = output.poll();
+                if (out == null) {
+                    listener.onIdle();
+                    out = output.take();
+                }
+
+                if (out.end) {
+                    ended++;
+                    continue;
+                }
+                for (OrderEntry entry : out.trades) {
+                    listener.onTrade(entry);
+                }
+                if (out.rejection != null) {
+                    listener.onRejected(out.rejection);
+                }
+            }
+            listener.onIdle();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Output of a shard batch, trades followed by an optional rejection
+     */
+    private static final class Output {
+        private final List<OrderEntry> trades = new ArrayList<>();
+        private AddOrderException rejection;
+        private boolean end;
+    }
+
+    private final class Shard implements Runnable {
+        private final BlockingQueue<Order> orders;
+        private final OrderUsecasesRepo repo;
+        private final TradeListener collector;
+        private Output current;
+
+        Shard(OrderUsecasesRepo repo) {
+            this.orders = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+            this.repo = repo;
+            this.collector = entry -> current.trades.add(entry);
+        }
+
+        @Override
+        public void run() {
+            List<Order> batch = new ArrayList<>(BATCH_SIZE);
+            current = new Output();
+            try {
+                while (true) {
+                    batch.add(orders.take());
+                    orders.drainTo(batch, BATCH_SIZE - 1);
+
+                    for (Order order : batch) {
+                        if (order == END) {
+                            output.put(current);
+                            Output end = new Output();
+                            end.end = true;
+                            output.put(end);
+                            return;
+                        }
+
+                        try {
+                            if (failure == null) {
+                                repo.placeOrder(order, collector);
+                            }
+                        } catch (AddOrderException e) {
+                            current.rejection = e;
+                            output.put(current);
+                            current = new Output();
+                        } catch (RuntimeException e) {
+                            // keep draining so the router never blocks on a dead shard
+                            failure = e;
+                        }
+                    }
+                    if (!current.trades.isEmpty()) {
+                        output.put(current);
+                        current = new Output();
+                    }
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
\ No newline at end of file
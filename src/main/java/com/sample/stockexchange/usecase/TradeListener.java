@@ -0,0 +1,14 @@
+package com.sample.stockexchange.usecase;
+
+import com.sample.stockexchange.entity.OrderEntry;
+
+/**
+ * TradeListener receives each {@link OrderEntry} as soon as it's executed,
+ * e.g. to publish it instead of keeping it in the transaction store. Entries
+ * of pooled orders are recycled once onTrade returns, so they must be copied
+ * to be kept.
+ */
+@FunctionalInterface
+public interface TradeListener {
+    public void onTrade(OrderEntry entry);
+}
\ No newline at end of file
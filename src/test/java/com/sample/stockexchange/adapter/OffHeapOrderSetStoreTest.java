@@ -0,0 +1,108 @@
+package com.sample.stockexchange.adapter;
+
+import static com.sample.stockexchange.entity.OrderType.BUY;
+import static com.sample.stockexchange.entity.OrderType.SELL;
+import static com.sample.stockexchange.usecase.OrderFixtures.format;
+import static com.sample.stockexchange.usecase.OrderFixtures.randomOrders;
+import static com.sample.stockexchange.usecase.OrderFixtures.resting;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sample.stockexchange.entity.OffHeapOrders;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.SellOrderSet;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+import com.sample.stockexchange.usecase.AddOrderException;
+import com.sample.stockexchange.usecase.OrderUsecasesRepo;
+
+import org.junit.jupiter.api.Test;
+
+public class OffHeapOrderSetStoreTest {
+    private static final int ORDERS = 20_000;
+
+    @Test
+    void matchesLikeHeapStore() throws AddOrderException {
+        Stock[] stocks = { StockRegistry.getInstance().intern("OFFHEAPA"),
+                StockRegistry.getInstance().intern("OFFHEAPB") };
+
+        List<String> expected = new ArrayList<>();
+        OrderUsecasesRepo heap = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore());
+        for (Order order : randomOrders(5, ORDERS, stocks)) {
+            heap.placeOrder(order, entry -> expected.add(format(entry)));
+        }
+
+        List<String> actual = new ArrayList<>();
+        OffHeapOrderSetStore store = new OffHeapOrderSetStore();
+        OrderUsecasesRepo offHeap = new OrderUsecasesRepo(store, new TransactionStore());
+        for (Order order : randomOrders(5, ORDERS, stocks)) {
+            offHeap.placeOrder(order, entry -> actual.add(format(entry)));
+        }
+
+        assertTrue(expected.size() > 1000);
+        assertEquals(expected, actual);
+        assertEquals(resting(heap), resting(offHeap));
+        assertEquals(resting(offHeap).size(), store.getRecords().size());
+
+        offHeap.cleanup();
+        assertEquals(0, store.getRecords().size());
+    }
+
+    @Test
+    void reuseFreedRecords() {
+        Stock stock = StockRegistry.getInstance().intern("OFFHEAPC");
+        String longId = "#an-id-too-long-for-a-record";
+        OffHeapOrders records = new OffHeapOrders();
+        int first = records.allocate(new Order("#1", LocalTime.NOON, BUY, 10, stock, 1005));
+        int second = records.allocate(new Order(longId, LocalTime.MIDNIGHT, SELL, 20, stock, 990));
+
+        Order order = records.read(second);
+        assertEquals(longId, order.getId());
+        assertEquals(LocalTime.MIDNIGHT, order.getTime());
+        assertEquals(SELL, order.getType());
+        assertEquals(20, order.getQuantity());
+        assertSame(stock, order.getStock());
+        assertEquals(990, order.getPrice());
+        assertTrue(records.hasId(first, "#1"));
+        assertFalse(records.hasId(first, "#10"));
+        assertTrue(records.hasId(second, longId));
+
+        assertEquals(0, records.getSequence(second));
+        records.setQuantity(first, 7);
+        assertEquals(7, records.read(first).getQuantity());
+        assertEquals(2, records.size());
+
+        records.free(first);
+        records.free(second);
+        assertEquals(0, records.size());
+        assertEquals(second, records.allocate(new Order("#3", LocalTime.NOON, BUY, 1, stock, 1000)));
+        assertEquals(first, records.allocate(new Order("#4", LocalTime.NOON, BUY, 1, stock, 1000)));
+        assertEquals("#3", records.getId(second));
+    }
+
+    @Test
+    void queueLevelsByRecordedSequence() {
+        Stock stock = StockRegistry.getInstance().intern("OFFHEAPD");
+        OffHeapOrders records = new OffHeapOrders();
+        SellOrderSet sells = new SellOrderSet(records);
+        for (long sequence : new long[] { 3, 1, 4, 2 }) {
+            Order order = new Order("#" + sequence, LocalTime.NOON, SELL, 10, stock, 1000);
+            order.setSequence(sequence);
+            sells.add(order);
+        }
+
+        List<String> polled = new ArrayList<>();
+        for (Order order; (order = sells.pollBest()) != null;) {
+            polled.add(order.getId());
+        }
+        assertEquals(List.of("#1", "#2", "#3", "#4"), polled);
+        assertEquals(0, records.size());
+    }
+
+}
\ No newline at end of file
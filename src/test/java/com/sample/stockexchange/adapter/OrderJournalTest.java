@@ -0,0 +1,130 @@
+package com.sample.stockexchange.adapter;
+
+import static com.sample.stockexchange.entity.OrderType.BUY;
+import static com.sample.stockexchange.entity.OrderType.SELL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.sample.stockexchange.adapter.OrderJournal.SyncPolicy;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class OrderJournalTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayAcrossSegments() throws IOException {
+        Stock stock = StockRegistry.getInstance().register("JOURNAL", 4, 5);
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            orders.add(new Order("#" + i + "-\u00e9", LocalTime.ofNanoOfDay(i * 1_000_000_007L), i % 2 == 0 ? BUY : SELL,
+                    10 + i, stock, 1_000_000 + i * 5));
+        }
+
+        try (OrderJournal journal = new OrderJournal(dir, 4, SyncPolicy.ROLLOVER)) {
+            for (int i = 0; i < 10; i++) {
+                assertEquals(i + 1, journal.append(orders.get(i)));
+            }
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(3, files.count());
+        }
+
+        try (OrderJournal journal = new OrderJournal(dir, 4, SyncPolicy.NONE)) {
+            assertEquals(10, journal.size());
+            List<Order> replayed = new ArrayList<>();
+            journal.replay(new JournalListener() {
+                @Override
+                public void onPlaced(Order order) {
+                    replayed.add(order);
+                }
+
+                @Override
+                public void onCancelled(String id) {
+                    throw new AssertionError(id);
+                }
+
+                @Override
+                public void onAmended(String id, int quantity) {
+                    throw new AssertionError(id);
+                }
+            });
+            assertEquals(orders.size(), replayed.size());
+            for (int i = 0; i < orders.size(); i++) {
+                Order expected = orders.get(i);
+                Order actual = replayed.get(i);
+                assertEquals(expected.getId(), actual.getId());
+                assertEquals(expected.getTime(), actual.getTime());
+                assertEquals(expected.getType(), actual.getType());
+                assertEquals(expected.getQuantity(), actual.getQuantity());
+                assertEquals(expected.getPrice(), actual.getPrice());
+                assertSame(stock, actual.getStock());
+            }
+
+            assertEquals(11, journal.append(orders.get(0)));
+        }
+    }
+
+    @Test
+    void replayCancelsAndAmends() throws IOException {
+        Stock stock = StockRegistry.getInstance().intern("JOURNAL3");
+        try (OrderJournal journal = new OrderJournal(dir, 2, SyncPolicy.NONE)) {
+            assertEquals(1, journal.append(new Order("#1", LocalTime.NOON, BUY, 10, stock, 100)));
+            assertEquals(2, journal.appendAmend("#1", 4));
+            assertEquals(3, journal.appendCancel("#1"));
+            assertThrows(IllegalArgumentException.class, () -> journal.appendCancel("x".repeat(
+                    OrderJournal.MAX_ID_LENGTH + 1)));
+        }
+
+        try (OrderJournal journal = new OrderJournal(dir, 2, SyncPolicy.NONE)) {
+            List<String> replayed = new ArrayList<>();
+            journal.replay(1, new JournalListener() {
+                @Override
+                public void onPlaced(Order order) {
+                    replayed.add("place " + order.getId());
+                }
+
+                @Override
+                public void onCancelled(String id) {
+                    replayed.add("cancel " + id);
+                }
+
+                @Override
+                public void onAmended(String id, int quantity) {
+                    replayed.add("amend " + id + " " + quantity);
+                }
+            });
+            assertEquals(List.of("amend #1 4", "cancel #1"), replayed);
+        }
+    }
+
+    @Test
+    void rejectLongIds() throws IOException {
+        Stock stock = StockRegistry.getInstance().intern("JOURNAL2");
+        StringBuilder id = new StringBuilder();
+        for (int i = 0; i < OrderJournal.MAX_ID_LENGTH; i++) {
+            id.append(i < OrderJournal.MAX_ID_LENGTH - 1 ? 'x' : '\u00e9');
+        }
+
+        try (OrderJournal journal = new OrderJournal(dir)) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> journal.append(new Order(id.toString(), LocalTime.NOON, BUY, 1, stock, 100)));
+            assertEquals(0, journal.size());
+            assertEquals(1, journal.append(new Order("#1", LocalTime.NOON, BUY, 1, stock, 100)));
+        }
+    }
+}
\ No newline at end of file
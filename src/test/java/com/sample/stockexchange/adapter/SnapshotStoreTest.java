@@ -0,0 +1,88 @@
+package com.sample.stockexchange.adapter;
+
+import static com.sample.stockexchange.entity.OrderType.BUY;
+import static com.sample.stockexchange.entity.OrderType.SELL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.sample.stockexchange.entity.BookSnapshot;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SnapshotStoreTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void loadLatest() throws IOException {
+        Stock a = StockRegistry.getInstance().register("SNAPA", 3, 5);
+        Stock b = StockRegistry.getInstance().intern("SNAPB");
+
+        try (SnapshotStore store = new SnapshotStore(dir)) {
+            assertNull(store.loadLatest());
+            for (long sequence = 1; sequence <= 3; sequence++) {
+                BookSnapshot snapshot = new BookSnapshot(sequence * 100, sequence * 10);
+                snapshot.add(new Order("#1", LocalTime.NOON, BUY, 10, a, 1005));
+                snapshot.add(new Order("#2", LocalTime.MIDNIGHT, SELL, 20 + (int) sequence, b, 2000));
+                store.save(snapshot);
+            }
+        }
+
+        try (SnapshotStore store = new SnapshotStore(dir)) {
+            BookSnapshot latest = store.loadLatest();
+            assertEquals(300, latest.getSequence());
+            assertEquals(30, latest.getExecutionId());
+            List<Order> orders = latest.getOrders();
+            assertEquals(2, orders.size());
+            assertEquals("#1", orders.get(0).getId());
+            assertEquals(LocalTime.NOON, orders.get(0).getTime());
+            assertEquals(BUY, orders.get(0).getType());
+            assertEquals(10, orders.get(0).getQuantity());
+            assertSame(a, orders.get(0).getStock());
+            assertEquals(1005, orders.get(0).getPrice());
+            assertEquals(23, orders.get(1).getQuantity());
+            assertSame(b, orders.get(1).getStock());
+        }
+        assertEquals(2, snapshotFiles().size());
+    }
+
+    @Test
+    void skipCorruptSnapshot() throws IOException {
+        Stock stock = StockRegistry.getInstance().intern("SNAPC");
+        try (SnapshotStore store = new SnapshotStore(dir)) {
+            for (long sequence = 1; sequence <= 2; sequence++) {
+                BookSnapshot snapshot = new BookSnapshot(sequence, 0);
+                snapshot.add(new Order("#1", LocalTime.NOON, BUY, 10, stock, 1005));
+                store.save(snapshot);
+            }
+        }
+
+        Path latest = snapshotFiles().get(1);
+        byte[] bytes = Files.readAllBytes(latest);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(latest, bytes);
+
+        try (SnapshotStore store = new SnapshotStore(dir)) {
+            assertEquals(1, store.loadLatest().getSequence());
+        }
+    }
+
+    private List<Path> snapshotFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.sample.stockexchange.adapter;
+
+import static com.sample.stockexchange.entity.OrderType.BUY;
+import static com.sample.stockexchange.entity.OrderType.SELL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderEntry;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+import com.sample.stockexchange.usecase.AddOrderException;
+import com.sample.stockexchange.usecase.OrderUsecasesRepo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TradeTapeTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void streamTradesAcrossFileAndMemory() throws IOException {
+        Stock stock = StockRegistry.getInstance().intern("TAPEA");
+        Stock other = StockRegistry.getInstance().intern("TAPEB");
+        Path file = dir.resolve("trades.tape");
+        List<OrderEntry> entries = new ArrayList<>();
+        try (TradeTape tape = new TradeTape(file, 4)) {
+            for (int i = 0; i < 10; i++) {
+                Stock s = i % 3 == 0 ? other : stock;
+                entries.add(new OrderEntry(100 + i, new Order("#s" + i + (i == 5 ? "-\u00e9" : ""), LocalTime.NOON,
+                        SELL, 10, s, 990 + i), new Order("#b" + i, LocalTime.NOON, BUY, 10, s, 1000), 1 + i, 990 + i));
+                tape.add(entries.get(i));
+            }
+            assertEquals(10, tape.size());
+            assertEquals(2, tape.getSpilledChunks());
+            assertTrue(Files.size(file) > 0);
+
+            Iterator<OrderEntry> iterator = tape.iterator();
+            for (OrderEntry expected : entries) {
+                assertEntry(expected, iterator.next());
+            }
+            assertFalse(iterator.hasNext());
+            // out of order too
+            assertEntry(entries.get(1), tape.get(1));
+            assertEntry(entries.get(9), tape.get(9));
+            assertEntry(entries.get(5), tape.get(5));
+            assertThrows(IndexOutOfBoundsException.class, () -> tape.get(10));
+
+            tape.clear();
+            assertTrue(tape.isEmpty());
+            assertEquals(0, Files.size(file));
+            tape.add(entries.get(7));
+            assertEntry(entries.get(7), tape.get(0));
+        }
+    }
+
+    @Test
+    void recordSameTradesAsBefore() throws AddOrderException {
+        Stock stock = StockRegistry.getInstance().intern("TAPEC");
+        OrderUsecasesRepo repo = new OrderUsecasesRepo(new OrderSetStore(),
+                new TransactionStore(dir.resolve("trades.tape"), 16));
+        List<OrderEntry> placed = new ArrayList<>();
+        Random random = new Random(17);
+        for (int i = 0; i < 2_000; i++) {
+            placed.addAll(repo.placeOrder(new Order("#" + i, LocalTime.ofSecondOfDay(i), random.nextBoolean() ? BUY
+                    : SELL, 1 + random.nextInt(100), stock, 990 + random.nextInt(20))));
+        }
+
+        List<OrderEntry> recorded = repo.processOrders();
+        assertTrue(placed.size() > 100);
+        assertEquals(placed.size(), recorded.size());
+        for (int i = 0; i < placed.size(); i++) {
+            assertEntry(placed.get(i), recorded.get(i));
+        }
+    }
+
+    private static void assertEntry(OrderEntry expected, OrderEntry actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getParty().getId(), actual.getParty().getId());
+        assertEquals(expected.getCounterParty().getId(), actual.getCounterParty().getId());
+        assertSame(expected.getParty().getStock(), actual.getParty().getStock());
+        assertEquals(SELL, actual.getParty().getType());
+        assertEquals(BUY, actual.getCounterParty().getType());
+        assertEquals(expected.getQuantity(), actual.getQuantity());
+        assertEquals(expected.getPrice(), actual.getPrice());
+    }
+}
\ No newline at end of file
@@ -1,29 +1,53 @@
 package com.sample.stockexchange.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Random;
 
 import com.sample.stockexchange.adapter.OrderSetStore;
 import com.sample.stockexchange.adapter.TransactionStore;
 import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+import com.sample.stockexchange.pipeline.WaitStrategy;
 import com.sample.stockexchange.usecase.OrderUsecasesRepo;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 public class CLIControllerTest {
+    private OrderUsecasesRepo repo;
     private CLIController controller;
 
     @BeforeEach
     void instantiateController() {
-        OrderUsecasesRepo repo = new OrderUsecasesRepo(OrderSetStore.getInstance(), TransactionStore.getInstance());
+        this.repo = new OrderUsecasesRepo(OrderSetStore.getInstance(), TransactionStore.getInstance());
         this.controller = new CLIController(repo);
     }
 
+    @AfterEach
+    void cleanup() {
+        this.repo.cleanup();
+    }
+
     @Test
     void parseValidInputFormat() {
         Order o = controller.parse("   #9   10:02 BAC buy 150 242.70     ");
@@ -34,6 +58,40 @@ public class CLIControllerTest {
         assertEquals("buy", o.getType().name().toLowerCase());
         assertEquals(150, o.getQuantity());
         assertEquals(new BigDecimal("242.70"), o.getAskingPrice());
+        assertEquals(24270, o.getPrice());
+    }
+
+    @Test
+    void parsePrices() {
+        assertEquals(24270, controller.parse("#9 10:02 BAC buy 150 242.7").getPrice());
+        assertEquals(24200, controller.parse("#9 10:02 BAC buy 150 242").getPrice());
+        assertEquals(24271, controller.parse("#9 10:02 BAC buy 150 242.7100").getPrice());
+        assertEquals(5, controller.parse("#9 10:02 BAC buy 150 .05").getPrice());
+
+        assertThrows(NumberFormatException.class, () -> {
+            controller.parse("#9 10:02 BAC buy 150 242.701");
+        });
+
+        assertThrows(NumberFormatException.class, () -> {
+            controller.parse("#9 10:02 BAC buy 150 242.7.1");
+        });
+
+        assertThrows(NumberFormatException.class, () -> {
+            controller.parse("#9 10:02 BAC buy 150 99999999999999999999");
+        });
+
+        Stock stock = StockRegistry.getInstance().register("CLIBAC3", 3, 5);
+        assertEquals(242705, stock.parsePrice("242.705"));
+        assertEquals(242705, stock.toPrice(new BigDecimal("242.705")));
+        assertEquals(new BigDecimal("242.705"), stock.toBigDecimal(242705));
+        assertThrows(NumberFormatException.class, () -> {
+            stock.parsePrice("242.701");
+        });
+        // a stock has one scale, shared by every book of it
+        assertSame(stock, StockRegistry.getInstance().register("CLIBAC3", 3, 5));
+        assertThrows(IllegalStateException.class, () -> {
+            StockRegistry.getInstance().register("BAC", 3, 5);
+        });
     }
 
     @Test
@@ -55,10 +113,147 @@ public class CLIControllerTest {
         });
     }
 
+    @Test
+    void parseInternsStocks() {
+        Order o = controller.parse("#1\t10:02 BAC SELL 150 242.70\r");
+        Order o1 = controller.parse("#2 10:03 BAC Buy -1 242.70");
+
+        assertEquals("#1", o.getId());
+        assertEquals("sell", o.getType().name().toLowerCase());
+        assertEquals("buy", o1.getType().name().toLowerCase());
+        assertEquals(-1, o1.getQuantity());
+        assertSame(o.getStock(), o1.getStock());
+        assertSame(StockRegistry.getInstance().intern("BAC"), o.getStock());
+        assertSame(o.getTime(), controller.parse("#3 10:02 TCS buy 1 1").getTime());
+
+        assertThrows(DateTimeParseException.class, () -> {
+            controller.parse("#9 24:00 BAC buy 1 1");
+        });
+
+        assertThrows(NumberFormatException.class, () -> {
+            controller.parse("#9 12:12 BAC buy 2147483648 1");
+        });
+    }
+
+    @Test
+    void readLines() throws IOException {
+        String longLine = String.join("", Collections.nCopies(100, "x"));
+        String input = "a\r\n\nb c\n" + longLine + "\nlast";
+        LineReader reader = new LineReader(new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)), 16);
+
+        List<String> lines = new ArrayList<>();
+        while (reader.next()) {
+            lines.add(new String(reader.buffer(), reader.lineStart(), reader.lineLength(), StandardCharsets.US_ASCII));
+        }
+
+        assertEquals(Arrays.asList("a", "", "b c", longLine, "last"), lines);
+        assertFalse(reader.next());
+    }
+
     @Test
     void parseEmptyInput() {
         assertThrows(NoSuchElementException.class, () -> {
             controller.parse("");
         });
     }
+
+    @Test
+    void writeTradesLikeStringFormat() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TradeWriter writer = new TradeWriter(bytes, 64);
+        StringBuilder expected = new StringBuilder();
+
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            int scale = random.nextInt(6);
+            long price = random.nextInt(4) == 0 ? random.nextLong() / 1000 : random.nextInt(2000000) - 1000;
+            int qty = random.nextInt(Integer.MAX_VALUE);
+            writer.write("#" + i, qty, price, scale, "#b" + i);
+            expected.append(String.format("%s %d %.2f %s", "#" + i, qty, BigDecimal.valueOf(price, scale), "#b" + i))
+                    .append(System.lineSeparator());
+        }
+        writer.flush();
+
+        assertEquals(expected.toString(), new String(bytes.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void runStreamsTrades() {
+        String output = run("#1 09:45 BAC sell 100 240.10\n#2 09:45 BAC sell 90 237.45\n#3 09:47 BAC buy 80 238.10\n"
+                + "#5 09:48 BAC sell 220 241.50\n#6 09:49 BAC buy 50 238.50\n#7 09:52 TCS buy 10 1001.10\n"
+                + "#8 10:01 BAC sell 20 240.10\n#9 10:02 BAC buy 150 242.70\nEOF\n");
+
+        String[] lines = output.split(System.lineSeparator());
+        assertEquals(6, lines.length);
+        assertEquals("#2 80 237.45 #3", lines[1]);
+        assertEquals("#2 10 237.45 #6", lines[2]);
+        assertEquals("#1 100 240.10 #9", lines[3]);
+        assertEquals("#8 20 240.10 #9", lines[4]);
+        assertEquals("#5 30 241.50 #9", lines[5]);
+        assertTrue(TransactionStore.getInstance().getOrderEntries().isEmpty());
+    }
+
+    @Test
+    void runWithoutEOF() {
+        String output = run("#1 09:45 BAC sell 100 240.10\n#2 09:47 BAC buy 80 240.10");
+
+        String[] lines = output.split(System.lineSeparator());
+        assertEquals(2, lines.length);
+        assertEquals("#1 80 240.10 #2", lines[1]);
+    }
+
+    @Test
+    void runRejectsPricesFinerThanScale() {
+        // trailing zeros past the scale are fine, other digits can't be kept
+        // in fixed point, so unlike with BigDecimal prices the line is invalid
+        String output = run("#1 09:45 BAC sell 100 240.100\n#2 09:47 BAC buy 80 240.10\n"
+                + "#3 09:48 BAC buy 10 240.125\n#4 09:49 BAC buy 10 240.10\nEOF\n");
+
+        String[] lines = output.split(System.lineSeparator());
+        assertEquals(3, lines.length);
+        assertEquals("#1 80 240.10 #2", lines[1]);
+        assertEquals("Invalid input format! Exception: Price 240.125 exceeds scale of stock: BAC", lines[2]);
+    }
+
+    @Test
+    void runPipelineLikeRun() {
+        Random random = new Random(3);
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            input.append('#').append(i).append(String.format(" %02d:%02d ", i / 60 % 24, i % 60))
+                    .append(random.nextBoolean() ? "BAC" : "TCS").append(random.nextBoolean() ? " buy " : " sell ")
+                    .append(1 + random.nextInt(100)).append(' ').append(99 + random.nextInt(3)).append('.')
+                    .append(random.nextInt(100)).append('\n');
+        }
+        String valid = input.toString();
+        String invalid = valid + "#x 10:00 BAC buy ten 100.00\n" + valid;
+        String duplicate = valid + "#20000 10:00 BAC buy 1 1.00\n#20000 10:00 BAC buy 1 1.00\n" + valid;
+
+        for (String lines : new String[] { valid + "EOF\n", invalid, duplicate }) {
+            String expected = run(lines, controller::run);
+            assertTrue(expected.split(System.lineSeparator()).length > 1000);
+            for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+                assertEquals(expected, run(lines, () -> controller.run(waitStrategy)));
+            }
+        }
+    }
+
+    private String run(String input) {
+        return run(input, controller::run);
+    }
+
+    private String run(String input, Runnable action) {
+        InputStream in = System.in;
+        PrintStream out = System.out;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            System.setIn(new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)));
+            System.setOut(new PrintStream(bytes, true));
+            action.run();
+        } finally {
+            System.setIn(in);
+            System.setOut(out);
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.US_ASCII);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.sample.stockexchange.controller;
+
+import static com.sample.stockexchange.entity.OrderType.BUY;
+import static com.sample.stockexchange.entity.OrderType.SELL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.TransactionStore;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+import com.sample.stockexchange.usecase.AddOrderException;
+import com.sample.stockexchange.usecase.EngineMetrics;
+import com.sample.stockexchange.usecase.OrderUsecasesRepo;
+import com.sample.stockexchange.usecase.Sequence;
+
+import org.junit.jupiter.api.Test;
+
+public class EngineMetricsBeanTest {
+
+    @Test
+    void countOrdersOfEveryRepo() throws Exception {
+        Stock a = StockRegistry.getInstance().intern("METRICSA");
+        Stock b = StockRegistry.getInstance().intern("METRICSB");
+        try (EngineMetricsBean bean = new EngineMetricsBean()) {
+            OrderUsecasesRepo first = repo(bean.newMetrics());
+            OrderUsecasesRepo second = repo(bean.newMetrics());
+
+            first.placeOrder(new Order("#1", LocalTime.NOON, SELL, 100, a, 24010), entry -> {
+            });
+            first.placeOrder(new Order("#2", LocalTime.NOON, SELL, 50, a, 24020), entry -> {
+            });
+            first.placeOrder(new Order("#3", LocalTime.NOON, BUY, 120, a, 24020), entry -> {
+            });
+            assertThrows(AddOrderException.class,
+                    () -> first.placeOrder(new Order("#2", LocalTime.NOON, SELL, 10, a, 24020)));
+            second.placeOrder(new Order("#4", LocalTime.NOON, BUY, 10, b, 1000), entry -> {
+            });
+            second.placeOrder(new Order("#5", LocalTime.NOON, BUY, 10, b, 1000), entry -> {
+            });
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(EngineMetricsBean.OBJECT_NAME);
+            assertEquals(5L, server.getAttribute(name, "OrdersAccepted"));
+            assertEquals(1L, server.getAttribute(name, "OrdersRejected"));
+            assertEquals(2L, server.getAttribute(name, "Trades"));
+            assertEquals(120L, get((TabularData) server.getAttribute(name, "VolumeByStock"), "METRICSA"));
+            // #2 has 30 left and #3 is filled
+            assertEquals(1L, get((TabularData) server.getAttribute(name, "SellDepthByStock"), "METRICSA"));
+            assertEquals(null, get((TabularData) server.getAttribute(name, "BuyDepthByStock"), "METRICSA"));
+            assertEquals(2L, get((TabularData) server.getAttribute(name, "BuyDepthByStock"), "METRICSB"));
+
+            Map<String, Double> matching = bean.getMatchingLatency();
+            assertEquals(5, matching.get("count"));
+            assertTrue(matching.get("max") > 0 && matching.get("p50") <= matching.get("max"));
+            assertEquals(0, bean.getParsingLatency().get("count"));
+
+            first.cleanup();
+            assertEquals(Map.of("METRICSB", 2L), bean.getBuyDepthByStock());
+            assertEquals(Map.of(), bean.getSellDepthByStock());
+        }
+
+        // unregistered once closed, so another one can be registered
+        new EngineMetricsBean().close();
+    }
+
+    @Test
+    void skipMetricsWhenDisabled() throws AddOrderException {
+        Stock stock = StockRegistry.getInstance().intern("METRICSC");
+        OrderUsecasesRepo repo = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore());
+        repo.placeOrder(new Order("#1", LocalTime.NOON, SELL, 10, stock, 1000));
+        assertEquals(null, repo.getMetrics());
+
+        EngineMetrics metrics = new EngineMetrics();
+        OrderUsecasesRepo batch = repo(metrics);
+        batch.addOrders(List.of(new Order("#1", LocalTime.NOON, SELL, 10, stock, 1000),
+                new Order("#2", LocalTime.NOON, BUY, 4, stock, 1000)));
+        batch.placeOrder(null, entry -> {
+        });
+        assertEquals(2, metrics.getAccepted());
+        assertEquals(1, metrics.getSellDepth(stock));
+        batch.processOrders();
+        assertEquals(1, metrics.getTrades());
+        assertEquals(4, metrics.getVolume(stock));
+        assertEquals(0, metrics.getBuyDepth(stock));
+        assertEquals(1, metrics.getSellDepth(stock));
+    }
+
+    private static OrderUsecasesRepo repo(EngineMetrics metrics) {
+        return new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore(), new Sequence(), null, null, 0,
+                metrics);
+    }
+
+    private static Object get(TabularData table, String key) {
+        CompositeData row = table.get(new Object[] { key });
+        return row == null ? null : row.get("value");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,182 @@
+package com.sample.stockexchange.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.TransactionStore;
+import com.sample.stockexchange.entity.StockRegistry;
+import com.sample.stockexchange.usecase.MarketDataFeed;
+import com.sample.stockexchange.usecase.OrderUsecasesRepo;
+import com.sample.stockexchange.usecase.Sequence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class HttpGatewayTest {
+    private HttpClient http;
+
+    @BeforeEach
+    void startClient() {
+        http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterEach
+    void stopClient() {
+        http.close();
+    }
+
+    @Test
+    void placeOrdersAndGetBook() throws Exception {
+        try (HttpGateway gateway = start(Executors.newVirtualThreadPerTaskExecutor())) {
+            assertEquals("200 {\"status\":\"accepted\",\"remaining\":100,\"trades\":[]}",
+                    post(gateway, order("#1", "09:45", "sell", 100, "240.10")));
+            post(gateway, order("#2", "09:45", "sell", 90, "237.45"));
+            assertEquals("200 {\"status\":\"accepted\",\"remaining\":0,\"trades\":[{\"executionId\":1,"
+                    + "\"stock\":\"HTTPBAC\",\"sellOrderId\":\"#2\",\"buyOrderId\":\"#3\",\"quantity\":80,"
+                    + "\"price\":237.45}]}", post(gateway, order("#3", "09:47", "buy", 80, "238.10")));
+            post(gateway, order("#6", "09:49", "buy", 50, "236.50"));
+
+            assertEquals("200 {\"stock\":\"HTTPBAC\",\"bids\":[{\"price\":236.50,\"quantity\":50,\"orders\":1}],"
+                    + "\"asks\":[{\"price\":237.45,\"quantity\":10,\"orders\":1},"
+                    + "{\"price\":240.10,\"quantity\":100,\"orders\":1}]}", get(gateway, "/books/HTTPBAC"));
+            assertTrue(get(gateway, "/books/NOSUCHSTOCK").startsWith("404 "));
+        }
+    }
+
+    @Test
+    void rejectOrders() throws Exception {
+        try (HttpGateway gateway = start(Executors.newVirtualThreadPerTaskExecutor())) {
+            post(gateway, order("#1", "09:45", "sell", 100, "240.10"));
+            assertTrue(post(gateway, order("#1", "09:45", "sell", 100, "240.10")).startsWith("409 "));
+            assertTrue(post(gateway, order("#2", "9h45", "sell", 100, "240.10")).startsWith("400 "));
+            assertTrue(post(gateway, order("#2", "09:45", "hold", 100, "240.10")).startsWith("400 "));
+            assertTrue(post(gateway, "{\"id\":\"#2\"}").startsWith("400 "));
+            assertTrue(post(gateway, "not json").startsWith("400 "));
+            assertTrue(post(gateway, order("#2", "09:45", "sell", 0, "240.10")).startsWith("400 "));
+            assertTrue(post(gateway, order("#2", "09:45", "sell", -5, "240.10")).startsWith("400 "));
+
+            // nothing is registered for invalid orders of a new stock
+            String newStock = "{\"id\":\"#3\",\"time\":\"09:45\",\"stock\":\"HTTPNEW\",\"side\":\"sell\","
+                    + "\"quantity\":%d,\"price\":\"%s\"}";
+            assertTrue(post(gateway, String.format(newStock, 0, "240.10")).startsWith("400 "));
+            assertTrue(post(gateway, String.format(newStock, 10, "240.125")).startsWith("400 "));
+            assertNull(StockRegistry.getInstance().find("HTTPNEW"));
+            assertTrue(post(gateway, String.format(newStock, 10, "240.10")).startsWith("200 "));
+            assertNotNull(StockRegistry.getInstance().find("HTTPNEW"));
+        }
+    }
+
+    @Test
+    void streamTrades() throws Exception {
+        try (HttpGateway gateway = start(Executors.newVirtualThreadPerTaskExecutor())) {
+            HttpResponse<Stream<String>> stream = http.send(
+                    HttpRequest.newBuilder(uri(gateway, "/trades")).build(), HttpResponse.BodyHandlers.ofLines());
+            assertEquals(200, stream.statusCode());
+
+            post(gateway, order("#1", "09:45", "sell", 100, "240.10"));
+            post(gateway, order("#2", "09:46", "buy", 30, "241.00"));
+            post(gateway, order("#3", "09:47", "buy", 30, "241.00"));
+
+            Iterator<String> trades = stream.body().iterator();
+            assertEquals("{\"executionId\":1,\"stock\":\"HTTPBAC\",\"sellOrderId\":\"#1\",\"buyOrderId\":\"#2\","
+                    + "\"quantity\":30,\"price\":240.10}", trades.next());
+            assertEquals("{\"executionId\":2,\"stock\":\"HTTPBAC\",\"sellOrderId\":\"#1\",\"buyOrderId\":\"#3\","
+                    + "\"quantity\":30,\"price\":240.10}", trades.next());
+        }
+    }
+
+    @Test
+    void getAndStreamDepth() throws Exception {
+        OrderUsecasesRepo repo = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore(), new Sequence(),
+                null, null, 0, null, new MarketDataFeed(MarketDataFeed.DEFAULT_DEPTH, 5, TimeUnit.MILLISECONDS));
+        try (HttpGateway gateway = new HttpGateway(repo, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                Executors.newVirtualThreadPerTaskExecutor())) {
+            gateway.start();
+            HttpResponse<Stream<String>> stream = http.send(
+                    HttpRequest.newBuilder(uri(gateway, "/depth")).build(), HttpResponse.BodyHandlers.ofLines());
+            assertEquals(200, stream.statusCode());
+
+            post(gateway, order("#1", "09:45", "sell", 100, "240.10"));
+            post(gateway, order("#2", "09:46", "sell", 50, "240.10"));
+            post(gateway, order("#3", "09:47", "buy", 30, "239.00"));
+
+            // published as orders come or by the gateway once the interval has passed,
+            // so the sell level may first show up with #1 only
+            Iterator<String> levels = stream.body().iterator();
+            Set<String> expected = new HashSet<>(List.of(
+                    "{\"stock\":\"HTTPBAC\",\"side\":\"buy\",\"price\":239.00,\"quantity\":30,\"orders\":1}",
+                    "{\"stock\":\"HTTPBAC\",\"side\":\"sell\",\"price\":240.10,\"quantity\":150,\"orders\":2}"));
+            while (!expected.isEmpty()) {
+                String level = levels.next();
+                assertTrue(expected.remove(level) || level.contains("\"quantity\":100,"), level);
+            }
+            String depth = get(gateway, "/depth/HTTPBAC");
+            assertTrue(depth.startsWith("200 {\"stock\":\"HTTPBAC\",\"sequence\":"), depth);
+            assertTrue(depth.endsWith(",\"bids\":[{\"price\":239.00,\"quantity\":30,\"orders\":1}],"
+                    + "\"asks\":[{\"price\":240.10,\"quantity\":150,\"orders\":2}]}"), depth);
+            assertTrue(get(gateway, "/depth/NOSUCHSTOCK").startsWith("404 "));
+        }
+    }
+
+    @Test
+    void parseObject() {
+        Map<String, String> fields = HttpGateway.parseObject(" { \"a\" : \"x\\\"\\u0041\", \"b\":12.5, \"c\":true } ");
+        assertEquals("x\"A", fields.get("a"));
+        assertEquals("12.5", fields.get("b"));
+        assertEquals("true", fields.get("c"));
+        assertThrows(IllegalArgumentException.class, () -> HttpGateway.parseObject("{\"a\":{\"b\":1}}"));
+        assertThrows(IllegalArgumentException.class, () -> HttpGateway.parseObject("{\"a\":1} x"));
+    }
+
+    private static HttpGateway start(ExecutorService executor) throws IOException {
+        HttpGateway gateway = new HttpGateway(new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore()),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), executor);
+        gateway.start();
+        return gateway;
+    }
+
+    private static URI uri(HttpGateway gateway, String path) {
+        return URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + gateway.getPort()
+                + path);
+    }
+
+    private static String order(String id, String time, String side, int quantity, String price) {
+        return String.format(
+                "{\"id\":\"%s\",\"time\":\"%s\",\"stock\":\"HTTPBAC\",\"side\":\"%s\",\"quantity\":%d,\"price\":\"%s\"}",
+                id, time, side, quantity, price);
+    }
+
+    private String post(HttpGateway gateway, String body) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(uri(gateway, "/orders"))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+        return response.statusCode() + " " + response.body();
+    }
+
+    private String get(HttpGateway gateway, String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(uri(gateway, path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        return response.statusCode() + " " + response.body();
+    }
+}
\ No newline at end of file
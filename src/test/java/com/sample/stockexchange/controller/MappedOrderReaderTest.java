@@ -0,0 +1,95 @@
+package com.sample.stockexchange.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.sample.stockexchange.entity.Order;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MappedOrderReaderTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void readOrdersInInputOrder() throws Exception {
+        Random random = new Random(5);
+        OrderLineParser parser = new OrderLineParser();
+        StringBuilder input = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            String line = "#" + i + " " + String.format("%02d:%02d", i / 60 % 24, i % 60) + " STK"
+                    + random.nextInt(50) + (random.nextBoolean() ? " buy " : " sell ") + (1 + random.nextInt(100))
+                    + " " + (99 + random.nextInt(3)) + "." + random.nextInt(100);
+            input.append(line).append(i % 7 == 0 ? "\r\n" : "\n");
+            expected.add(line(parser.parse(line.getBytes(StandardCharsets.US_ASCII), 0, line.length())));
+        }
+        // no line terminator at the end
+        input.setLength(input.length() - 1);
+        Path file = write(input.toString());
+
+        for (int chunkSize : new int[] { 1, 50, 4096, MappedOrderReader.DEFAULT_CHUNK_SIZE }) {
+            for (int parallelism : new int[] { 1, 3 }) {
+                try (MappedOrderReader reader = new MappedOrderReader(file, parallelism, chunkSize)) {
+                    assertEquals(expected, lines(reader));
+                }
+            }
+        }
+    }
+
+    @Test
+    void stopAtEOFLine() throws Exception {
+        Path file = write("#1 09:45 BAC sell 100 240.10\n#2 09:47 BAC buy 80 240.10\nEOF\n#3 09:48 BAC buy 80 240.10");
+        try (MappedOrderReader reader = new MappedOrderReader(file, 2, 10)) {
+            assertEquals(List.of("#1 09:45 BAC sell 100 240.10", "#2 09:47 BAC buy 80 240.10"), lines(reader));
+        }
+    }
+
+    @Test
+    void handOverOrdersBeforeInvalidLine() throws Exception {
+        Path file = write("#1 09:45 BAC sell 100 240.10\n#2 09:47 BAC buy ten 240.10\n#3 09:48 BAC buy 80 240.10\n");
+        for (int chunkSize : new int[] { 1, 1024 }) {
+            try (MappedOrderReader reader = new MappedOrderReader(file, 2, chunkSize)) {
+                List<String> lines = new ArrayList<>();
+                assertThrows(NumberFormatException.class, () -> {
+                    List<Order> orders;
+                    while ((orders = reader.next()) != null) {
+                        orders.forEach(order -> lines.add(line(order)));
+                    }
+                });
+                assertEquals(List.of("#1 09:45 BAC sell 100 240.10"), lines);
+                assertNull(reader.next());
+            }
+        }
+    }
+
+    private Path write(String input) throws IOException {
+        Path file = dir.resolve("orders.txt");
+        Files.write(file, input.getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+
+    private static List<String> lines(MappedOrderReader reader) throws IOException, InterruptedException {
+        List<String> lines = new ArrayList<>();
+        List<Order> orders;
+        while ((orders = reader.next()) != null) {
+            orders.forEach(order -> lines.add(line(order)));
+        }
+        return lines;
+    }
+
+    private static String line(Order order) {
+        return order.getId() + " " + order.getTime() + " " + order.getStock().getName() + " "
+                + order.getType().name().toLowerCase() + " " + order.getQuantity() + " " + order.getAskingPrice();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,190 @@
+package com.sample.stockexchange.controller;
+
+import static com.sample.stockexchange.entity.OrderType.BUY;
+import static com.sample.stockexchange.entity.OrderType.SELL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sample.stockexchange.adapter.OrderJournal;
+import com.sample.stockexchange.adapter.OrderJournal.SyncPolicy;
+import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.TransactionStore;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderType;
+import com.sample.stockexchange.entity.StockRegistry;
+import com.sample.stockexchange.usecase.OrderUsecasesRepo;
+import com.sample.stockexchange.usecase.Sequence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class OrderGatewayTest {
+    private OrderGateway gateway;
+    private Thread thread;
+
+    @BeforeEach
+    void startGateway() throws IOException {
+        gateway = new OrderGateway(new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore()),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        thread = new Thread(gateway, "order-gateway");
+        thread.start();
+    }
+
+    @AfterEach
+    void stopGateway() throws InterruptedException {
+        gateway.close();
+        thread.join();
+    }
+
+    @Test
+    void reportExecutions() throws IOException {
+        try (SocketChannel channel = SocketChannel.open(address())) {
+            ByteBuffer out = BinaryProtocol.allocate(1024);
+            putOrder(out, "#1", "09:45", SELL, 100, 24010);
+            putOrder(out, "#2", "09:45", SELL, 90, 23745);
+            putOrder(out, "#3", "09:47", BUY, 80, 23810);
+            putOrder(out, "#1", "09:47", SELL, 5, 24010);
+            putOrder(out, "#4", "09:48", BUY, 0, 23810);
+            putOrder(out, "#9", "10:02", BUY, 150, 24270);
+            out.flip();
+            channel.write(out);
+
+            List<String> reports = read(channel, 9);
+            assertEquals("1 0 #1 - 100 24010 2", reports.get(0));
+            assertEquals("1 0 #2 - 90 23745 2", reports.get(1));
+            assertEquals("2 1 #2 #3 80 23745 2", reports.get(2));
+            assertEquals("1 0 #3 - 0 23810 2", reports.get(3));
+            assertEquals("3 0 #1 - 0 0 0", reports.get(4));
+            assertEquals("3 0 #4 - 0 0 0", reports.get(5));
+            assertEquals("2 2 #2 #9 10 23745 2", reports.get(6));
+            assertEquals("2 3 #1 #9 100 24010 2", reports.get(7));
+            assertEquals("1 0 #9 - 40 24270 2", reports.get(8));
+        }
+    }
+
+    @Test
+    void reportToBothClients() throws IOException {
+        try (SocketChannel seller = SocketChannel.open(address());
+                SocketChannel buyer = SocketChannel.open(address())) {
+            ByteBuffer out = BinaryProtocol.allocate(1024);
+            putOrder(out, "#1", "09:45", SELL, 100, 24010);
+            out.flip();
+            seller.write(out);
+            assertEquals("1 0 #1 - 100 24010 2", read(seller, 1).get(0));
+
+            out.clear();
+            putOrder(out, "#2", "09:46", BUY, 40, 24100);
+            out.flip();
+            buyer.write(out);
+            assertEquals("2 1 #1 #2 40 24010 2", read(buyer, 1).get(0));
+            assertEquals("2 1 #1 #2 40 24010 2", read(seller, 1).get(0));
+        }
+    }
+
+    @Test
+    void rejectInvalidOrdersBeforeRegisteringStocks() throws IOException {
+        StockRegistry.getInstance().register("GWTICK", 2, 5);
+        try (SocketChannel channel = SocketChannel.open(address())) {
+            ByteBuffer out = BinaryProtocol.allocate(1024);
+            BinaryProtocol.putOrder(out, "#1", 0, SELL, 10, "GWTICK", 24012);
+            BinaryProtocol.putOrder(out, "#2", 0, SELL, 10, "GWTICK", 24010);
+            BinaryProtocol.putOrder(out, "#3", 0, SELL, 0, "GWNEW", 24010);
+            out.flip();
+            channel.write(out);
+
+            List<String> reports = read(channel, 3);
+            assertEquals("3 0 #1 - 0 0 0", reports.get(0));
+            assertEquals("1 0 #2 - 10 24010 2", reports.get(1));
+            assertEquals("3 0 #3 - 0 0 0", reports.get(2));
+            assertNull(StockRegistry.getInstance().find("GWNEW"));
+        }
+    }
+
+    @Test
+    void reportLongIdsOfJournaledOrders(@TempDir Path dir) throws Exception {
+        String longId = "#" + "x".repeat(BinaryProtocol.MAX_REPORT_ID_LENGTH - 1);
+        try (OrderJournal journal = new OrderJournal(dir, 1024, SyncPolicy.NONE)) {
+            OrderUsecasesRepo repo = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore(),
+                    new Sequence(), journal);
+            repo.placeOrder(new Order(longId, LocalTime.NOON, SELL, 100, StockRegistry.getInstance().intern("GWLONG"),
+                    24010));
+        }
+
+        // recovered by the gateway, then matched by an order of a client
+        try (OrderJournal journal = new OrderJournal(dir, 1024, SyncPolicy.NONE)) {
+            OrderGateway recovered = new OrderGateway(new OrderUsecasesRepo(new OrderSetStore(),
+                    new TransactionStore(), new Sequence(), journal),
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            Thread serving = new Thread(recovered, "order-gateway-recovered");
+            serving.start();
+            try (SocketChannel channel = SocketChannel.open(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), recovered.getPort()))) {
+                ByteBuffer out = BinaryProtocol.allocate(1024);
+                BinaryProtocol.putOrder(out, "#2", LocalTime.NOON.toNanoOfDay(), BUY, 80, "GWLONG", 24010);
+                out.flip();
+                channel.write(out);
+
+                List<String> reports = read(channel, 2);
+                assertEquals("2 1 " + longId + " #2 80 24010 2", reports.get(0));
+                assertEquals("1 0 #2 - 0 24010 2", reports.get(1));
+            } finally {
+                recovered.close();
+                serving.join();
+            }
+        }
+    }
+
+    @Test
+    void loadClient() throws Exception {
+        LoadResult result = new GatewayLoadClient(address(), 50_000, 1000).run();
+        assertEquals(50_000, result.getResponses());
+        assertEquals(50_000, result.getAccepted() + result.getRejected());
+        assertTrue(result.getExecutions() > 0);
+        assertTrue(result.getLatency(50) <= result.getLatency(99));
+    }
+
+    private InetSocketAddress address() {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), gateway.getPort());
+    }
+
+    private static void putOrder(ByteBuffer out, String id, String time, OrderType side, int quantity, long price) {
+        BinaryProtocol.putOrder(out, id, LocalTime.parse(time).toNanoOfDay(), side, quantity, "BAC", price);
+    }
+
+    /**
+     * @return reports as "type execution-id id counter-id quantity price scale"
+     */
+    private static List<String> read(SocketChannel channel, int count) throws IOException {
+        ByteBuffer in = BinaryProtocol.allocate(count * BinaryProtocol.REPORT_SIZE);
+        while (in.hasRemaining()) {
+            if (channel.read(in) < 0) {
+                throw new IOException("Gateway closed the connection");
+            }
+        }
+
+        List<String> reports = new ArrayList<>();
+        for (int at = 0; at < in.capacity(); at += BinaryProtocol.REPORT_SIZE) {
+            String counterId = BinaryProtocol.getString(in, at + BinaryProtocol.COUNTER_ID,
+                    in.get(at + BinaryProtocol.COUNTER_ID_LENGTH));
+            reports.add(in.get(at + BinaryProtocol.TYPE) + " " + in.getLong(at + BinaryProtocol.EXECUTION_ID) + " "
+                    + BinaryProtocol.getString(in, at + BinaryProtocol.ID, in.get(at + BinaryProtocol.ID_LENGTH))
+                    + " " + (counterId.isEmpty() ? "-" : counterId) + " " + in.getInt(at + BinaryProtocol.QUANTITY)
+                    + " " + in.getLong(at + BinaryProtocol.EXECUTION_PRICE) + " "
+                    + in.get(at + BinaryProtocol.SCALE));
+        }
+        return reports;
+    }
+}
\ No newline at end of file
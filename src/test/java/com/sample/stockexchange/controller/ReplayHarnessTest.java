@@ -0,0 +1,113 @@
+package com.sample.stockexchange.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.TransactionStore;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderType;
+import com.sample.stockexchange.usecase.AddOrderException;
+import com.sample.stockexchange.usecase.LatencyHistogram;
+import com.sample.stockexchange.usecase.OrderUsecasesRepo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ReplayHarnessTest {
+    private static final int ORDERS = 20_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void generateSkewedOrderFlow() throws IOException {
+        String flow = generate(new OrderFlowGenerator(20, 1, 0.7, 0.3, 1, 7), ORDERS);
+        assertEquals(flow, generate(new OrderFlowGenerator(20, 1, 0.7, 0.3, 1, 7), ORDERS));
+
+        Path file = dir.resolve("orders.txt");
+        Files.writeString(file, flow, StandardCharsets.US_ASCII);
+        List<Order> orders = ReplayHarness.load(file);
+        assertEquals(ORDERS, orders.size());
+        assertEquals("#1", orders.get(0).getId());
+        assertEquals(23, orders.get(ORDERS - 1).getTime().getHour());
+
+        int[] perSymbol = new int[20];
+        int buys = 0;
+        for (Order order : orders) {
+            perSymbol[Integer.parseInt(order.getStock().getName().substring("SYM".length()))]++;
+            buys += order.getType() == OrderType.BUY ? 1 : 0;
+        }
+        // SYM0 gets 1 / H(20) of the orders with an exponent of 1, twice as many as SYM1
+        assertEquals(ORDERS / 3.5977, perSymbol[0], ORDERS * 0.01);
+        assertEquals(2, (double) perSymbol[0] / perSymbol[1], 0.15);
+        assertTrue(perSymbol[1] > perSymbol[9] && perSymbol[9] > 0);
+        assertEquals(0.7, (double) buys / ORDERS, 0.01);
+    }
+
+    @Test
+    void recordLatenciesWithThreeDigits() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1_000_000; value++) {
+            histogram.record(value * 10);
+        }
+
+        assertEquals(1_000_000, histogram.getCount());
+        assertEquals(10, histogram.getMin());
+        assertEquals(10_000_000, histogram.getMax());
+        assertEquals(5_000_005, histogram.getMean(), 1e-3);
+        assertEquals(5_000_000, histogram.getValueAtPercentile(50), 5_000);
+        assertEquals(9_900_000, histogram.getValueAtPercentile(99), 9_900);
+        assertEquals(9_990_000, histogram.getValueAtPercentile(99.9), 9_990);
+        assertEquals(10_000_000, histogram.getValueAtPercentile(100));
+
+        histogram.reset();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(-1);
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void replayAtTargetRate() throws IOException, AddOrderException {
+        Path file = dir.resolve("orders.txt");
+        Files.writeString(file, generate(new OrderFlowGenerator(10, 1, 0.5, 0.3, 1, 11), ORDERS),
+                StandardCharsets.US_ASCII);
+
+        long[] expected = new long[1];
+        OrderUsecasesRepo unpaced = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore());
+        for (Order order : ReplayHarness.load(file)) {
+            unpaced.placeOrder(order, entry -> expected[0]++);
+        }
+
+        ReplayHarness harness = new ReplayHarness(new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore()),
+                100_000, 1000);
+        long start = System.nanoTime();
+        harness.run(ReplayHarness.load(file));
+        long elapsed = System.nanoTime() - start;
+
+        // 20k orders at 100k/s take at least 0.2s
+        assertTrue(elapsed >= 199_000_000L, "replayed in " + elapsed + "ns");
+        assertEquals(100_000, harness.getOrdersPerSecond(), 100_000 * 0.2);
+        assertEquals(expected[0], harness.getTrades());
+        assertTrue(expected[0] > 1000);
+        assertEquals(0, harness.getRejected());
+        assertEquals(ORDERS - 1000, harness.getResponseTimes().getCount());
+        assertEquals(ORDERS - 1000, harness.getServiceTimes().getCount());
+        // orders can only be late, never early
+        assertTrue(harness.getResponseTimes().getMax() >= harness.getServiceTimes().getMax());
+    }
+
+    private static String generate(OrderFlowGenerator generator, int orders) throws IOException {
+        StringWriter out = new StringWriter();
+        generator.write(out, orders);
+        return out.toString();
+    }
+}
\ No newline at end of file
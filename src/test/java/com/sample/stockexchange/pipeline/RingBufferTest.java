@@ -0,0 +1,78 @@
+package com.sample.stockexchange.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class RingBufferTest {
+    private static final int EVENTS = 1_000_000;
+
+    @Test
+    void capacityIsPowerOfTwo() {
+        assertEquals(1, new RingBuffer<>(1, AtomicLong::new, WaitStrategy.PARK).capacity());
+        assertEquals(8, new RingBuffer<>(5, AtomicLong::new, WaitStrategy.PARK).capacity());
+        assertEquals(8, new RingBuffer<>(8, AtomicLong::new, WaitStrategy.PARK).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(0, AtomicLong::new, WaitStrategy.PARK));
+    }
+
+    @Test
+    void slotsAreReused() throws Exception {
+        RingBuffer<AtomicLong> ring = new RingBuffer<>(4, AtomicLong::new, WaitStrategy.PARK);
+        AtomicLong first = ring.get(ring.claim());
+        ring.publish(0);
+        assertEquals(0, ring.waitFor(0));
+        ring.release(0);
+        for (int i = 1; i < 4; i++) {
+            ring.publish(ring.claim());
+        }
+        assertSame(first, ring.get(ring.claim()));
+    }
+
+    @Test
+    void passesEventsInOrder() throws Exception {
+        for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+            // a busy spinning consumer only gives way when preempted on a single core
+            int events = waitStrategy == WaitStrategy.BUSY_SPIN && Runtime.getRuntime().availableProcessors() < 2
+                    ? EVENTS / 100
+                    : EVENTS;
+            RingBuffer<AtomicLong> ring = new RingBuffer<>(64, AtomicLong::new, waitStrategy);
+            // asserting on the consumer thread would leave the producer waiting
+            long[] sum = new long[1];
+            Thread consumer = new Thread(() -> {
+                long next = 0;
+                try {
+                    while (next < events) {
+                        long available = ring.waitFor(next);
+                        for (; next <= available; next++) {
+                            sum[0] += ring.get(next).get();
+                        }
+                        ring.release(available);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            consumer.start();
+
+            for (long i = 0; i < events; i++) {
+                long seq = ring.claim();
+                ring.get(seq).set(i);
+                ring.publish(seq);
+            }
+            consumer.join();
+
+            assertEquals((long) events * (events - 1) / 2, sum[0]);
+        }
+    }
+
+    @Test
+    void waitIsInterruptible() throws Exception {
+        RingBuffer<AtomicLong> ring = new RingBuffer<>(4, AtomicLong::new, WaitStrategy.PARK);
+        Thread.currentThread().interrupt();
+        assertThrows(InterruptedException.class, () -> ring.waitFor(0));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,189 @@
+package com.sample.stockexchange.usecase;
+
+import static com.sample.stockexchange.entity.OrderType.BUY;
+import static com.sample.stockexchange.entity.OrderType.SELL;
+import static com.sample.stockexchange.usecase.OrderFixtures.format;
+import static com.sample.stockexchange.usecase.OrderFixtures.randomOrder;
+import static com.sample.stockexchange.usecase.OrderFixtures.resting;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.sample.stockexchange.adapter.IOrderSetStore;
+import com.sample.stockexchange.adapter.OffHeapOrderSetStore;
+import com.sample.stockexchange.adapter.OrderJournal;
+import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.SnapshotStore;
+import com.sample.stockexchange.adapter.TransactionStore;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderPool;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CancelOrderTest {
+    private static final int ORDERS = 20_000;
+
+    @Test
+    void rejectDuplicatesOnEitherSideOfAnyStock() throws AddOrderException {
+        for (IOrderSetStore store : new IOrderSetStore[] { new OrderSetStore(), new OffHeapOrderSetStore() }) {
+            Stock a = StockRegistry.getInstance().intern("CANCELA");
+            Stock b = StockRegistry.getInstance().intern("CANCELB");
+            OrderUsecasesRepo repo = new OrderUsecasesRepo(store, new TransactionStore());
+            repo.placeOrder(new Order("#1", LocalTime.NOON, BUY, 10, a, 1000));
+
+            assertThrows(AddOrderException.class, () -> repo.placeOrder(new Order("#1", LocalTime.NOON, SELL, 10, a,
+                    1100)));
+            assertThrows(AddOrderException.class, () -> repo.placeOrder(new Order("#1", LocalTime.NOON, BUY, 10, b,
+                    900)));
+            assertTrue(store.containsOrder("#1"));
+            assertEquals(1000, store.findOrder("#1").getPrice());
+
+            // a cancelled id can be placed again
+            assertEquals(10, repo.cancelOrder("#1"));
+            assertFalse(store.containsOrder("#1"));
+            repo.placeOrder(new Order("#1", LocalTime.NOON, SELL, 10, b, 900));
+            assertEquals(b, store.findOrder("#1").getStock());
+            repo.cleanup();
+            assertNull(store.findOrder("#1"));
+        }
+    }
+
+    @Test
+    void cancelAndAmendInPlace() throws AddOrderException {
+        for (IOrderSetStore store : new IOrderSetStore[] { new OrderSetStore(), new OffHeapOrderSetStore() }) {
+            Stock stock = StockRegistry.getInstance().intern("CANCELC");
+            OrderUsecasesRepo repo = new OrderUsecasesRepo(store, new TransactionStore());
+            repo.placeOrder(new Order("#1", LocalTime.of(9, 0), BUY, 10, stock, 1000));
+            repo.placeOrder(new Order("#2", LocalTime.of(9, 1), BUY, 10, stock, 1000));
+            repo.placeOrder(new Order("#3", LocalTime.of(9, 2), BUY, 10, stock, 1000));
+            repo.placeOrder(new Order("#4", LocalTime.of(9, 3), BUY, 5, stock, 1010));
+
+            assertEquals(5, repo.cancelOrder("#4"));
+            assertEquals(10, repo.cancelOrder("#2"));
+            assertEquals(0, repo.cancelOrder("#2"));
+            assertEquals(0, repo.cancelOrder("#5"));
+            assertTrue(repo.amendOrder("#1", 4));
+            assertFalse(repo.amendOrder("#5", 4));
+            assertThrows(IllegalArgumentException.class, () -> repo.amendOrder("#1", 5));
+            assertThrows(IllegalArgumentException.class, () -> repo.amendOrder("#1", -1));
+            assertEquals(2, repo.getBuyOrders(stock).size());
+            assertEquals(1, repo.getBuyOrders(stock).getLevels().size());
+
+            // #1 kept its time priority, #2 and #4 are gone
+            List<String> trades = new ArrayList<>();
+            repo.placeOrder(new Order("#6", LocalTime.of(9, 4), SELL, 6, stock, 990), entry -> trades.add(
+                    format(entry)));
+            assertEquals(List.of("#6 4 990 #1", "#6 2 990 #3"), trades);
+
+            assertTrue(repo.amendOrder("#3", 0));
+            assertTrue(repo.getBuyOrders(stock).isEmpty());
+            assertFalse(store.containsOrder("#3"));
+            repo.cleanup();
+        }
+    }
+
+    @Test
+    void releaseCancelledPooledOrders() throws AddOrderException {
+        Stock stock = StockRegistry.getInstance().intern("CANCELD");
+        OrderPool pool = new OrderPool(true);
+        OrderUsecasesRepo repo = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore());
+        repo.placeOrder(pool.acquire("#1", LocalTime.NOON, SELL, 10, stock, 1000), entry -> {
+        });
+        repo.placeOrder(pool.acquire("#2", LocalTime.NOON, SELL, 10, stock, 1000), entry -> {
+        });
+
+        assertEquals(10, repo.cancelOrder("#1"));
+        assertEquals(1, pool.getOutstandingOrders());
+        repo.cleanup();
+        pool.checkLeaks();
+    }
+
+    @Test
+    void recoverCancelsAndAmends(@TempDir Path dir) throws IOException, AddOrderException {
+        Stock[] stocks = { StockRegistry.getInstance().intern("CANCELG"),
+                StockRegistry.getInstance().intern("CANCELH") };
+        OrderUsecasesRepo plain = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore());
+        run(plain, stocks, new ArrayList<>());
+
+        // from the journal only, then from snapshots taken between cancels too
+        for (int interval : new int[] { 0, 7000 }) {
+            Path journalDir = dir.resolve("journal-" + interval);
+            try (OrderJournal journal = new OrderJournal(journalDir);
+                    SnapshotStore snapshots = new SnapshotStore(journalDir)) {
+                run(journaled(journal, snapshots, interval), stocks, new ArrayList<>());
+                assertTrue(journal.size() > ORDERS);
+            }
+
+            // a new process, rebuilding its book from the journal
+            try (OrderJournal journal = new OrderJournal(journalDir);
+                    SnapshotStore snapshots = new SnapshotStore(journalDir)) {
+                OrderUsecasesRepo recovered = journaled(journal, snapshots, interval);
+                recovered.recover(entry -> {
+                });
+                assertEquals(resting(plain), resting(recovered));
+                if (interval > 0) {
+                    assertEquals(journal.size() / interval * interval, snapshots.loadLatest().getSequence());
+                }
+            }
+        }
+    }
+
+    @Test
+    void cancelOffHeapLikeOnHeap() throws AddOrderException {
+        Stock[] stocks = { StockRegistry.getInstance().intern("CANCELE"),
+                StockRegistry.getInstance().intern("CANCELF") };
+        List<String> expected = new ArrayList<>();
+        OrderSetStore heapStore = new OrderSetStore();
+        OrderUsecasesRepo heap = new OrderUsecasesRepo(heapStore, new TransactionStore());
+        run(heap, stocks, expected);
+
+        List<String> actual = new ArrayList<>();
+        OrderUsecasesRepo offHeap = new OrderUsecasesRepo(new OffHeapOrderSetStore(), new TransactionStore());
+        run(offHeap, stocks, actual);
+
+        assertTrue(expected.size() > 1000);
+        assertEquals(expected, actual);
+        assertEquals(resting(heap), resting(offHeap));
+        for (Order order : heap.snapshot().getOrders()) {
+            assertEquals(order.getQuantity(), heapStore.findOrder(order.getId()).getQuantity());
+        }
+    }
+
+    /**
+     * Places orders around a few prices, cancelling or amending a random earlier
+     * one every third order. Trades, cancelled and amended quantities are added
+     * to results
+     */
+    private static void run(OrderUsecasesRepo repo, Stock[] stocks, List<String> results) throws AddOrderException {
+        Random random = new Random(7);
+        for (int i = 0; i < ORDERS; i++) {
+            repo.placeOrder(randomOrder(random, i, null, stocks), entry -> results.add(format(entry)));
+            if (i % 3 == 0) {
+                String id = "#" + random.nextInt(i + 1);
+                if (random.nextBoolean()) {
+                    results.add("cancel " + id + " " + repo.cancelOrder(id));
+                } else {
+                    results.add("amend " + id + " " + repo.amendOrder(id, 1));
+                }
+            }
+        }
+    }
+
+    private static OrderUsecasesRepo journaled(OrderJournal journal, SnapshotStore snapshots, int interval) {
+        return new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore(), new Sequence(), journal,
+                interval > 0 ? snapshots : null, interval);
+    }
+
+}
\ No newline at end of file
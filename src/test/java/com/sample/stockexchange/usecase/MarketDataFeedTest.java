@@ -0,0 +1,185 @@
+package com.sample.stockexchange.usecase;
+
+import static com.sample.stockexchange.entity.OrderType.BUY;
+import static com.sample.stockexchange.entity.OrderType.SELL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.sample.stockexchange.adapter.IOrderSetStore;
+import com.sample.stockexchange.adapter.OffHeapOrderSetStore;
+import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.TransactionStore;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderSet;
+import com.sample.stockexchange.entity.OrderType;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+
+import org.junit.jupiter.api.Test;
+
+public class MarketDataFeedTest {
+    private static final int ORDERS = 20_000;
+
+    @Test
+    void publishBestLevelsOfBooks() throws AddOrderException {
+        for (IOrderSetStore store : new IOrderSetStore[] { new OrderSetStore(), new OffHeapOrderSetStore() }) {
+            Stock stock = StockRegistry.getInstance().intern("DEPTHA");
+            MarketDataFeed feed = new MarketDataFeed(5, 0, TimeUnit.MILLISECONDS);
+            OrderUsecasesRepo repo = repo(store, feed);
+            Depth depth = new Depth(feed.getDepth());
+            assertFalse(feed.read(stock, depth));
+
+            Random random = new Random(11);
+            for (int i = 0; i < ORDERS; i++) {
+                repo.placeOrder(new Order("#" + i, LocalTime.ofSecondOfDay(i % 86400), random.nextBoolean() ? BUY
+                        : SELL, 1 + random.nextInt(100), stock, 990 + random.nextInt(20)), entry -> {
+                        });
+                if (i % 4 == 0) {
+                    repo.cancelOrder("#" + random.nextInt(i + 1));
+                }
+                if (i % 50 == 0) {
+                    assertTrue(feed.read(stock, depth));
+                    assertEquals(levels(repo.getBuyOrders(stock), 5), levels(depth, BUY));
+                    assertEquals(levels(repo.getSellOrders(stock), 5), levels(depth, SELL));
+                }
+            }
+
+            repo.cleanup();
+            assertTrue(feed.read(stock, depth));
+            assertEquals(0, depth.getLevels(BUY) + depth.getLevels(SELL));
+        }
+    }
+
+    @Test
+    void conflateUpdates() throws AddOrderException {
+        Stock stock = StockRegistry.getInstance().intern("DEPTHB");
+        MarketDataFeed feed = new MarketDataFeed(MarketDataFeed.DEFAULT_DEPTH, 1, TimeUnit.HOURS);
+        OrderUsecasesRepo repo = repo(new OrderSetStore(), feed);
+        DepthSubscription subscription = feed.subscribe();
+        List<String> updates = new ArrayList<>();
+        DepthListener listener = (s, side, price, quantity, orders) -> updates
+                .add(s.getName() + " " + side + " " + price + " " + quantity + " " + orders);
+
+        for (int i = 0; i < 100; i++) {
+            repo.placeOrder(new Order("#" + i, LocalTime.NOON, i % 2 == 0 ? BUY : SELL, 10, stock,
+                    i % 2 == 0 ? 990 : 1010));
+        }
+        assertEquals(0, subscription.poll(listener));
+        repo.publishMarketData();
+        assertEquals(2, subscription.poll(listener));
+        assertEquals(List.of("DEPTHB BUY 990 500 50", "DEPTHB SELL 1010 500 50"), updates);
+        assertEquals(0, subscription.poll(listener));
+
+        // filled then replaced within an interval, only the end result is seen
+        updates.clear();
+        repo.placeOrder(new Order("#100", LocalTime.NOON, SELL, 500, stock, 990));
+        repo.placeOrder(new Order("#101", LocalTime.NOON, BUY, 5, stock, 980));
+        repo.placeOrder(new Order("#102", LocalTime.NOON, SELL, 5, stock, 1010));
+        repo.publishMarketData();
+        assertEquals(3, subscription.poll(listener));
+        assertEquals(List.of("DEPTHB BUY 980 5 1", "DEPTHB BUY 990 0 0", "DEPTHB SELL 1010 505 51"), updates);
+
+        Depth depth = new Depth(feed.getDepth());
+        assertTrue(feed.read(stock, depth));
+        assertEquals(980, depth.getPrice(BUY, 0));
+        assertEquals(feed.getPublished(), depth.getSequence());
+    }
+
+    /**
+     * Every level of the book holds orders of 10, so a level copied while it's
+     * written would show up with a quantity other than 10 per order
+     */
+    @Test
+    void readConsistentLevelsWhileMatching() throws Exception {
+        Stock stock = StockRegistry.getInstance().intern("DEPTHC");
+        MarketDataFeed feed = new MarketDataFeed(MarketDataFeed.DEFAULT_DEPTH, 0, TimeUnit.MILLISECONDS);
+        OrderUsecasesRepo repo = repo(new OrderSetStore(), feed);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            Random random = new Random(13);
+            try {
+                for (int i = 0; i < ORDERS * 10; i++) {
+                    boolean buy = random.nextBoolean();
+                    repo.placeOrder(new Order("#" + i, LocalTime.NOON, buy ? BUY : SELL, 10, stock,
+                            buy ? 950 + random.nextInt(50) : 1001 + random.nextInt(50)), entry -> {
+                            });
+                    if (i % 2 == 0) {
+                        repo.cancelOrder("#" + random.nextInt(i + 1));
+                    }
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        writer.start();
+
+        Depth depth = new Depth(feed.getDepth());
+        long reads = 0;
+        long sequence = 0;
+        while (writer.isAlive()) {
+            if (!feed.read(stock, depth)) {
+                continue;
+            }
+            assertTrue(depth.getSequence() >= sequence);
+            sequence = depth.getSequence();
+            for (OrderType side : OrderType.values()) {
+                for (int i = 0; i < depth.getLevels(side); i++) {
+                    assertEquals(10L * depth.getOrders(side, i), depth.getQuantity(side, i));
+                    if (i > 0) {
+                        assertTrue(side == BUY ? depth.getPrice(side, i) < depth.getPrice(side, i - 1)
+                                : depth.getPrice(side, i) > depth.getPrice(side, i - 1));
+                    }
+                }
+            }
+            reads++;
+        }
+        writer.join();
+
+        assertNull(failure.get());
+        assertTrue(reads > 0);
+    }
+
+    private static OrderUsecasesRepo repo(IOrderSetStore store, MarketDataFeed feed) {
+        return new OrderUsecasesRepo(store, new TransactionStore(), new Sequence(), null, null, 0, null, feed);
+    }
+
+    /**
+     * @return price to quantity and orders of the best levels, summed up from
+     *         the resting orders
+     */
+    private static Map<Long, List<Long>> levels(OrderSet orders, int depth) {
+        Map<Long, List<Long>> levels = new TreeMap<>();
+        List<Long> prices = new ArrayList<>();
+        for (Order order : orders.getOrderSet()) {
+            if (!prices.contains(order.getPrice())) {
+                prices.add(order.getPrice());
+            }
+            if (prices.size() > depth) {
+                break;
+            }
+            List<Long> level = levels.computeIfAbsent(order.getPrice(), price -> new ArrayList<>(List.of(0L, 0L)));
+            level.set(0, level.get(0) + order.getQuantity());
+            level.set(1, level.get(1) + 1);
+        }
+        return levels;
+    }
+
+    private static Map<Long, List<Long>> levels(Depth depth, OrderType side) {
+        Map<Long, List<Long>> levels = new TreeMap<>();
+        for (int i = 0; i < depth.getLevels(side); i++) {
+            levels.put(depth.getPrice(side, i), List.of(depth.getQuantity(side, i), (long) depth.getOrders(side, i)));
+        }
+        return levels;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.sample.stockexchange.usecase;
+
+import static com.sample.stockexchange.entity.OrderType.BUY;
+import static com.sample.stockexchange.entity.OrderType.SELL;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderEntry;
+import com.sample.stockexchange.entity.OrderPool;
+import com.sample.stockexchange.entity.OrderType;
+import com.sample.stockexchange.entity.Stock;
+
+/**
+ * Random order flow and trade formats shared by the tests comparing matching
+ * runs with each other
+ */
+public final class OrderFixtures {
+    private OrderFixtures() {
+    }
+
+    /**
+     * @return count orders from seed, see
+     *         {@link #randomOrder(Random, int, OrderPool, Stock...)}
+     */
+    public static List<Order> randomOrders(long seed, int count, Stock... stocks) {
+        Random random = new Random(seed);
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orders.add(randomOrder(random, i, null, stocks));
+        }
+        return orders;
+    }
+
+    /**
+     * @return order #i of a random stock, around a few prices so many of them
+     *         trade, a tenth of them timed before earlier ones. Acquired from
+     *         pool unless it's null
+     */
+    public static Order randomOrder(Random random, int i, OrderPool pool, Stock... stocks) {
+        int second = random.nextInt(10) == 0 ? random.nextInt(i + 1) : i;
+        LocalTime time = LocalTime.ofSecondOfDay(second % 86400);
+        OrderType type = random.nextBoolean() ? BUY : SELL;
+        int quantity = 1 + random.nextInt(100);
+        Stock stock = stocks[random.nextInt(stocks.length)];
+        long price = 990 + random.nextInt(20);
+        return pool == null ? new Order("#" + i, time, type, quantity, stock, price)
+                : pool.acquire("#" + i, time, type, quantity, stock, price);
+    }
+
+    /**
+     * @return resting orders of repo in price then time priority, as id, side,
+     *         quantity and price
+     */
+    public static List<String> resting(OrderUsecasesRepo repo) {
+        List<String> resting = new ArrayList<>();
+        for (Order order : repo.snapshot().getOrders()) {
+            resting.add(order.getId() + " " + order.getType() + " " + order.getQuantity() + " " + order.getPrice());
+        }
+        return resting;
+    }
+
+    /**
+     * @return trade as parties, quantity and price, the same whichever ids
+     *         trades are given
+     */
+    public static String format(OrderEntry entry) {
+        return entry.getParty().getId() + " " + entry.getQuantity() + " " + entry.getPrice() + " "
+                + entry.getCounterParty().getId();
+    }
+
+    /**
+     * @return trade as {@link #format(OrderEntry)}, after its execution id
+     */
+    public static String formatWithId(OrderEntry entry) {
+        return entry.getId() + " " + format(entry);
+    }
+}
\ No newline at end of file
@@ -3,29 +3,39 @@ package com.sample.stockexchange.usecase;
 
 import static com.sample.stockexchange.entity.OrderType.BUY;
 import static com.sample.stockexchange.entity.OrderType.SELL;
+import static com.sample.stockexchange.usecase.OrderFixtures.formatWithId;
+import static com.sample.stockexchange.usecase.OrderFixtures.randomOrders;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
+import com.sample.stockexchange.adapter.OrderJournal;
 import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.SnapshotStore;
 import com.sample.stockexchange.adapter.TransactionStore;
 import com.sample.stockexchange.entity.BuyOrderSet;
 import com.sample.stockexchange.entity.Order;
 import com.sample.stockexchange.entity.OrderEntry;
 import com.sample.stockexchange.entity.SellOrderSet;
 import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class OrderUsecasesRepoTest {
 
@@ -47,7 +57,7 @@ public class OrderUsecasesRepoTest {
 
     @Test
     void addValidOrders() {
-        Stock test = new Stock("test");
+        Stock test = StockRegistry.getInstance().intern("test");
 
         List<Order> orders = new ArrayList<>();
         Order o = new Order("#1", LocalTime.parse("10:00:00"), BUY, 100, test, new BigDecimal("10.01"));
@@ -66,6 +76,51 @@ public class OrderUsecasesRepoTest {
         assertTrue(buys.get(test).getOrderSet().contains(o));
     }
 
+    @Test
+    void addOrdersSortedByPriceThenArrival() {
+        Stock test = StockRegistry.getInstance().intern("test");
+
+        List<Order> orders = new ArrayList<>();
+        Order o = new Order("#1", LocalTime.parse("10:00:00"), BUY, 100, test, new BigDecimal("10.01"));
+        orders.add(o);
+        Order o1 = new Order("#2", LocalTime.parse("10:01:00"), BUY, 100, test, new BigDecimal("10.02"));
+        orders.add(o1);
+        Order o2 = new Order("#3", LocalTime.parse("09:59:00"), BUY, 100, test, new BigDecimal("10.01"));
+        orders.add(o2);
+
+        assertDoesNotThrow(() -> {
+            repo.addOrders(orders);
+        });
+
+        BuyOrderSet buy = buys.get(test);
+        assertEquals(buy.getLevels().size(), 2);
+        assertEquals(buy.getBestLevel().getPrice(), 1002);
+        // #3 arrived last, whatever its time
+        assertArrayEquals(new Order[] { o1, o, o2 }, buy.getOrderSet().toArray());
+        assertArrayEquals(new Order[] { o, o1, o2 }, buy.getOrdersByTime().toArray());
+    }
+
+    @Test
+    void keepArrivalOrderOnTiesOfTime() throws AddOrderException {
+        Stock test = StockRegistry.getInstance().intern("test");
+        LocalTime time = LocalTime.parse("10:00:00");
+        List<Order> orders = new ArrayList<>();
+        for (int i = 1; i <= 12; i++) {
+            orders.add(new Order("#" + i, time, i % 2 == 0 ? BUY : SELL, 10, test, new BigDecimal("10.01")));
+        }
+        repo.addOrders(orders.subList(0, 10));
+        repo.addOrders(orders.subList(10, 12));
+
+        // "#10" doesn't jump "#2", and sells at the same time and price all rest
+        assertArrayEquals(new Order[] { orders.get(1), orders.get(3), orders.get(5), orders.get(7), orders.get(9),
+                orders.get(11) }, buys.get(test).getOrderSet().toArray());
+        assertArrayEquals(new Order[] { orders.get(0), orders.get(2), orders.get(4), orders.get(6), orders.get(8),
+                orders.get(10) }, sells.get(test).getOrderSet().toArray());
+        for (int i = 1; i < orders.size(); i++) {
+            assertTrue(orders.get(i - 1).getSequence() < orders.get(i).getSequence());
+        }
+    }
+
     @Test
     void addInvalidOrders() {
         List<Order> orders = new ArrayList<>();
@@ -82,7 +137,7 @@ public class OrderUsecasesRepoTest {
 
     @Test
     void addDuplicateOrders() {
-        Stock test = new Stock("test");
+        Stock test = StockRegistry.getInstance().intern("test");
 
         List<Order> orders = new ArrayList<>();
         Order o = new Order("#1", LocalTime.parse("10:00:00"), BUY, 100, test, new BigDecimal("10.01"));
@@ -113,7 +168,7 @@ public class OrderUsecasesRepoTest {
 
     @Test
     void testCleanup() {
-        Stock test = new Stock("test");
+        Stock test = StockRegistry.getInstance().intern("test");
         BuyOrderSet buy = new BuyOrderSet();
         buys.put(test, buy);
 
@@ -133,6 +188,25 @@ public class OrderUsecasesRepoTest {
         assertTrue(TransactionStore.getInstance().getOrderEntries().isEmpty());
     }
 
+    @Test
+    void storeStocksById() {
+        Stock test = StockRegistry.getInstance().intern("test");
+        Stock test1 = StockRegistry.getInstance().intern("test1");
+        Stock test2 = StockRegistry.getInstance().intern("test2");
+
+        assertEquals(test, StockRegistry.getInstance().intern("test"));
+        assertEquals(test1, StockRegistry.getInstance().intern("test1"));
+        assertTrue(test1.getId() < test2.getId());
+        assertEquals(test2.getId(), StockRegistry.getInstance().intern("test2").getId());
+
+        buys.put(test2, new BuyOrderSet());
+        buys.put(test, new BuyOrderSet());
+        assertEquals(buys.size(), 2);
+        assertEquals(Arrays.asList(test, test2), new ArrayList<>(buys.keySet()));
+        assertTrue(buys.containsKey(StockRegistry.getInstance().intern("test2")));
+        assertNull(buys.get(test1));
+    }
+
     @Test
     void processEmptyOrders() {
         List<OrderEntry> result = repo.processOrders();
@@ -142,7 +216,7 @@ public class OrderUsecasesRepoTest {
 
     @Test
     void processBuySellComplete() {
-        Stock test = new Stock("test");
+        Stock test = StockRegistry.getInstance().intern("test");
         BuyOrderSet buy = new BuyOrderSet();
         buys.put(test, buy);
 
@@ -166,7 +240,7 @@ public class OrderUsecasesRepoTest {
 
     @Test
     void processBuySellSplitOrders() {
-        Stock test = new Stock("test");
+        Stock test = StockRegistry.getInstance().intern("test");
         BuyOrderSet buy = new BuyOrderSet();
         buys.put(test, buy);
 
@@ -197,7 +271,7 @@ public class OrderUsecasesRepoTest {
 
     @Test
     void processBuyOrderPriority() {
-        Stock test = new Stock("test");
+        Stock test = StockRegistry.getInstance().intern("test");
         BuyOrderSet buy = new BuyOrderSet();
         buys.put(test, buy);
 
@@ -214,16 +288,17 @@ public class OrderUsecasesRepoTest {
 
         List<OrderEntry> result = repo.processOrders();
 
+        // #1 was added first, though #2's time is earlier
         assertTrue(result.size() == 1);
         assertEquals(result.get(0).getParty().getId(), "#3");
-        assertEquals(result.get(0).getCounterParty().getId(), "#2");
+        assertEquals(result.get(0).getCounterParty().getId(), "#1");
         assertEquals(result.get(0).getExecutionPrice().compareTo(new BigDecimal("10.01")), 0);
         assertEquals(result.get(0).getQuantity(), 90);
     }
 
     @Test
     void processSellOrderPriority() {
-        Stock test = new Stock("test");
+        Stock test = StockRegistry.getInstance().intern("test");
         BuyOrderSet buy = new BuyOrderSet();
         buys.put(test, buy);
 
@@ -254,8 +329,8 @@ public class OrderUsecasesRepoTest {
 
     @Test
     void processMultiStockOrders() {
-        Stock test = new Stock("test");
-        Stock test1 = new Stock("test1");
+        Stock test = StockRegistry.getInstance().intern("test");
+        Stock test1 = StockRegistry.getInstance().intern("test1");
 
         BuyOrderSet buy = new BuyOrderSet();
         BuyOrderSet buy1 = new BuyOrderSet();
@@ -291,4 +366,156 @@ public class OrderUsecasesRepoTest {
         assertEquals(result.get(1).getExecutionPrice().compareTo(new BigDecimal("9.01")), 0);
         assertEquals(result.get(1).getQuantity(), 100);
     }
+
+    @Test
+    void placeOrdersReadmeExample() {
+        Stock bac = StockRegistry.getInstance().intern("BAC");
+        Stock tcs = StockRegistry.getInstance().intern("TCS");
+
+        List<Order> orders = new ArrayList<>();
+        orders.add(new Order("#1", LocalTime.parse("09:45"), SELL, 100, bac, new BigDecimal("240.10")));
+        orders.add(new Order("#2", LocalTime.parse("09:45"), SELL, 90, bac, new BigDecimal("237.45")));
+        orders.add(new Order("#3", LocalTime.parse("09:47"), BUY, 80, bac, new BigDecimal("238.10")));
+        orders.add(new Order("#5", LocalTime.parse("09:48"), SELL, 220, bac, new BigDecimal("241.50")));
+        orders.add(new Order("#6", LocalTime.parse("09:49"), BUY, 50, bac, new BigDecimal("238.50")));
+        orders.add(new Order("#7", LocalTime.parse("09:52"), BUY, 10, tcs, new BigDecimal("1001.10")));
+        orders.add(new Order("#8", LocalTime.parse("10:01"), SELL, 20, bac, new BigDecimal("240.10")));
+        orders.add(new Order("#9", LocalTime.parse("10:02"), BUY, 150, bac, new BigDecimal("242.70")));
+
+        List<OrderEntry> result = new ArrayList<>();
+        assertDoesNotThrow(() -> {
+            for (Order order : orders) {
+                result.addAll(repo.placeOrder(order));
+            }
+        });
+
+        String[][] expected = { { "#2", "80", "237.45", "#3" }, { "#2", "10", "237.45", "#6" },
+                { "#1", "100", "240.10", "#9" }, { "#8", "20", "240.10", "#9" }, { "#5", "30", "241.50", "#9" } };
+        assertEquals(expected.length, result.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(i + 1, result.get(i).getId());
+            assertEquals(expected[i][0], result.get(i).getParty().getId());
+            assertEquals(Integer.parseInt(expected[i][1]), result.get(i).getQuantity());
+            assertEquals(new BigDecimal(expected[i][2]), result.get(i).getExecutionPrice());
+            assertEquals(expected[i][3], result.get(i).getCounterParty().getId());
+        }
+
+        // remainders rest in the book
+        assertTrue(buys.get(bac).getOrderSet().contains(orders.get(4)));
+        assertEquals(190, orders.get(3).getQuantity());
+        assertTrue(buys.get(tcs).getOrderSet().contains(orders.get(5)));
+    }
+
+    @Test
+    void placeSellOrderPriority() {
+        Stock test = StockRegistry.getInstance().intern("test");
+
+        Order o = new Order("#1", LocalTime.parse("10:00:00"), BUY, 100, test, new BigDecimal("10.01"));
+        Order o1 = new Order("#2", LocalTime.parse("10:01:00"), BUY, 100, test, new BigDecimal("10.02"));
+        Order s = new Order("#3", LocalTime.parse("10:02:00"), SELL, 150, test, new BigDecimal("10.00"));
+
+        List<OrderEntry> result = new ArrayList<>();
+        assertDoesNotThrow(() -> {
+            result.addAll(repo.placeOrder(o));
+            result.addAll(repo.placeOrder(o1));
+            result.addAll(repo.placeOrder(s));
+        });
+
+        assertTrue(result.size() == 2);
+        assertEquals(result.get(0).getParty().getId(), "#3");
+        assertEquals(result.get(0).getCounterParty().getId(), "#2");
+        assertEquals(result.get(0).getExecutionPrice().compareTo(new BigDecimal("10.00")), 0);
+        assertEquals(result.get(0).getQuantity(), 100);
+
+        assertEquals(result.get(1).getCounterParty().getId(), "#1");
+        assertEquals(result.get(1).getQuantity(), 50);
+        assertEquals(o.getQuantity(), 50);
+        assertTrue(sells.get(test).getOrderSet().isEmpty());
+    }
+
+    @Test
+    void placeDuplicateOrder() {
+        Stock test = StockRegistry.getInstance().intern("test");
+
+        Order o = new Order("#1", LocalTime.parse("10:00:00"), SELL, 100, test, new BigDecimal("10.01"));
+        Order o1 = new Order("#1", LocalTime.parse("10:00:00"), SELL, 100, test, new BigDecimal("10.01"));
+
+        assertThrows(AddOrderException.class, () -> {
+            repo.placeOrder(o);
+            repo.placeOrder(o1);
+        });
+
+        assertEquals(sells.get(test).getOrderSet().size(), 1);
+    }
+
+    @Test
+    void recoverFromJournal(@TempDir Path dir) throws IOException, AddOrderException {
+        // matching fills orders in place, so each run gets its own copies
+        List<Order> orders = randomOrders(11, 2000, StockRegistry.getInstance().intern("RECOVER"));
+
+        List<String> trades = new ArrayList<>();
+        try (OrderJournal journal = new OrderJournal(dir)) {
+            OrderUsecasesRepo journaled = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore(),
+                    new Sequence(), journal);
+            for (Order order : orders.subList(0, 1000)) {
+                journaled.placeOrder(order, entry -> trades.add(formatWithId(entry)));
+            }
+        }
+
+        // a new process, rebuilding its book from the journal then carrying on
+        List<String> recovered = new ArrayList<>();
+        try (OrderJournal journal = new OrderJournal(dir)) {
+            OrderUsecasesRepo journaled = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore(),
+                    new Sequence(), journal);
+            journaled.recover(entry -> recovered.add(formatWithId(entry)));
+            assertEquals(trades, recovered);
+            for (Order order : orders.subList(1000, 2000)) {
+                journaled.placeOrder(order, entry -> recovered.add(formatWithId(entry)));
+            }
+            assertEquals(2000, journal.size());
+        }
+
+        List<String> expected = new ArrayList<>();
+        OrderUsecasesRepo plain = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore());
+        for (Order order : randomOrders(11, 2000, StockRegistry.getInstance().intern("RECOVER"))) {
+            plain.placeOrder(order, entry -> expected.add(formatWithId(entry)));
+        }
+        assertTrue(expected.size() > 100);
+        assertEquals(expected, recovered);
+    }
+
+    @Test
+    void recoverFromSnapshot(@TempDir Path dir) throws IOException, AddOrderException {
+        List<String> expected = new ArrayList<>();
+        OrderUsecasesRepo plain = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore());
+        for (Order order : randomOrders(11, 2000, StockRegistry.getInstance().intern("SNAPSHOT"))) {
+            plain.placeOrder(order, entry -> expected.add(formatWithId(entry)));
+        }
+
+        List<Order> orders = randomOrders(11, 2000, StockRegistry.getInstance().intern("SNAPSHOT"));
+        List<String> trades = new ArrayList<>();
+        try (OrderJournal journal = new OrderJournal(dir); SnapshotStore snapshots = new SnapshotStore(dir)) {
+            OrderUsecasesRepo journaled = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore(),
+                    new Sequence(), journal, snapshots, 300);
+            for (Order order : orders.subList(0, 1000)) {
+                journaled.placeOrder(order, entry -> trades.add(formatWithId(entry)));
+            }
+        }
+
+        // only orders after the snapshot at 900 are placed again
+        List<String> recovered = new ArrayList<>();
+        try (OrderJournal journal = new OrderJournal(dir); SnapshotStore snapshots = new SnapshotStore(dir)) {
+            OrderUsecasesRepo journaled = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore(),
+                    new Sequence(), journal, snapshots, 300);
+            journaled.recover(entry -> recovered.add(formatWithId(entry)));
+            assertEquals(900, snapshots.loadLatest().getSequence());
+            long replayedFrom = Long.parseLong(recovered.get(0).split(" ")[0]);
+            assertEquals(trades.subList((int) replayedFrom - 1, trades.size()), recovered);
+
+            for (Order order : orders.subList(1000, 2000)) {
+                journaled.placeOrder(order, entry -> trades.add(formatWithId(entry)));
+            }
+        }
+        assertEquals(expected, trades);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.sample.stockexchange.usecase;
+
+import static com.sample.stockexchange.entity.OrderType.BUY;
+import static com.sample.stockexchange.entity.OrderType.SELL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import com.sample.stockexchange.adapter.IOrderSetStore;
+import com.sample.stockexchange.adapter.OffHeapOrderSetStore;
+import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.TransactionStore;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderEntry;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+
+import org.junit.jupiter.api.Test;
+
+public class ParallelBatchTest {
+    private static final int STOCKS = 200;
+    private static final int ORDERS = 20_000;
+
+    @Test
+    void matchSameTradesAsOneThread() throws AddOrderException {
+        List<String> expected = trades(new OrderSetStore(), null);
+        assertTrue(expected.size() > 1_000);
+        for (int parallelism : new int[] { 1, 2, 4, 8 }) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                assertEquals(expected, trades(new OrderSetStore(), pool));
+                assertEquals(expected, trades(new OffHeapOrderSetStore(), pool));
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void keepOrdersIndexedById() throws AddOrderException {
+        Stock stock = StockRegistry.getInstance().intern("PARBAC");
+        Stock other = StockRegistry.getInstance().intern("PARTCS");
+        IOrderSetStore store = new OrderSetStore();
+        OrderUsecasesRepo repo = new OrderUsecasesRepo(store, new TransactionStore());
+        repo.addOrders(List.of(new Order("#1", LocalTime.of(9, 45), SELL, 100, stock, 24010),
+                new Order("#2", LocalTime.of(9, 46), SELL, 50, other, 100110),
+                new Order("#3", LocalTime.of(9, 47), BUY, 80, stock, 24010),
+                new Order("#4", LocalTime.of(9, 48), BUY, 60, other, 100110),
+                new Order("#5", LocalTime.of(9, 49), BUY, 10, other, 100000)));
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertEquals(2, repo.processOrders(pool).size());
+        } finally {
+            pool.shutdown();
+        }
+
+        // filled ones are gone, remainders rest
+        assertFalse(store.containsOrder("#2"));
+        assertFalse(store.containsOrder("#3"));
+        assertEquals(20, store.findOrder("#1").getQuantity());
+        assertEquals(10, store.findOrder("#4").getQuantity());
+        assertEquals(10, repo.cancelOrder("#5"));
+        assertThrows(AddOrderException.class,
+                () -> repo.addOrders(List.of(new Order("#4", LocalTime.NOON, SELL, 10, stock, 24010))));
+        repo.addOrders(List.of(new Order("#3", LocalTime.NOON, SELL, 10, stock, 24010)));
+        assertEquals(2, repo.getSellOrders(stock).size());
+    }
+
+    /**
+     * @return trades of a batch of orders across stocks, matched on pool, on the
+     *         calling thread if it's null
+     */
+    private static List<String> trades(IOrderSetStore store, ForkJoinPool pool) throws AddOrderException {
+        OrderUsecasesRepo repo = new OrderUsecasesRepo(store, new TransactionStore());
+        Random random = new Random(23);
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            Stock stock = StockRegistry.getInstance().intern("PAR" + random.nextInt(STOCKS));
+            orders.add(new Order("#" + i, LocalTime.ofSecondOfDay(random.nextInt(86400)), random.nextBoolean() ? BUY
+                    : SELL, 1 + random.nextInt(100), stock, 990 + random.nextInt(20)));
+        }
+        repo.addOrders(orders);
+
+        List<String> trades = new ArrayList<>();
+        for (OrderEntry entry : pool == null ? repo.processOrders() : repo.processOrders(pool)) {
+            trades.add(entry.getId() + " " + entry.getParty().getId() + " " + entry.getCounterParty().getId() + " "
+                    + entry.getQuantity() + " " + entry.getPrice());
+        }
+        // resting orders are left indexed, filled ones aren't. Off heap, orders
+        // are filled as copies
+        for (Order order : store instanceof OffHeapOrderSetStore ? List.<Order>of() : orders) {
+            assertEquals(order.getQuantity() > 0, store.containsOrder(order.getId()), order.getId());
+        }
+        return trades;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,149 @@
+package com.sample.stockexchange.usecase;
+
+import static com.sample.stockexchange.entity.OrderType.BUY;
+import static com.sample.stockexchange.entity.OrderType.SELL;
+import static com.sample.stockexchange.usecase.OrderFixtures.format;
+import static com.sample.stockexchange.usecase.OrderFixtures.randomOrder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.sample.stockexchange.adapter.OffHeapOrderSetStore;
+import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.TransactionStore;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderEntry;
+import com.sample.stockexchange.entity.OrderPool;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+
+import org.junit.jupiter.api.Test;
+
+public class PooledOrdersTest {
+    private static final int ORDERS = 20_000;
+
+    @Test
+    void releaseFilledOrdersAndEntries() throws AddOrderException {
+        Stock stock = StockRegistry.getInstance().intern("POOLA");
+        List<String> expected = new ArrayList<>();
+        OrderUsecasesRepo plain = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore());
+        Random random = new Random(3);
+        for (int i = 0; i < ORDERS; i++) {
+            plain.placeOrder(randomOrder(random, i, null, stock), entry -> expected.add(format(entry)));
+        }
+
+        List<String> actual = new ArrayList<>();
+        OrderPool pool = new OrderPool(true);
+        OrderUsecasesRepo pooled = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore());
+        random = new Random(3);
+        for (int i = 0; i < ORDERS; i++) {
+            pooled.placeOrder(randomOrder(random, i, pool, stock), entry -> actual.add(format(entry)));
+        }
+
+        assertTrue(expected.size() > 1000);
+        assertEquals(expected, actual);
+        // only resting orders are still out, and far fewer were created than placed
+        assertEquals(pooled.getBuyOrders(stock).size() + pooled.getSellOrders(stock).size(),
+                pool.getOutstandingOrders());
+        assertEquals(0, pool.getOutstandingEntries());
+        assertTrue(pool.getCreated() < ORDERS / 2);
+
+        pooled.cleanup();
+        pool.checkLeaks();
+    }
+
+    @Test
+    void releaseOrdersCopiedOffHeap() throws AddOrderException {
+        Stock stock = StockRegistry.getInstance().intern("POOLD");
+        List<String> expected = new ArrayList<>();
+        OrderUsecasesRepo plain = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore());
+        Random random = new Random(4);
+        for (int i = 0; i < ORDERS; i++) {
+            plain.placeOrder(randomOrder(random, i, null, stock), entry -> expected.add(format(entry)));
+        }
+
+        List<String> actual = new ArrayList<>();
+        OrderPool pool = new OrderPool(true);
+        OffHeapOrderSetStore store = new OffHeapOrderSetStore();
+        OrderUsecasesRepo pooled = new OrderUsecasesRepo(store, new TransactionStore());
+        random = new Random(4);
+        for (int i = 0; i < ORDERS; i++) {
+            pooled.placeOrder(randomOrder(random, i, pool, stock), entry -> actual.add(format(entry)));
+        }
+
+        assertTrue(expected.size() > 1000);
+        assertEquals(expected, actual);
+        // resting orders are records, so every pooled one is back in the pool
+        assertTrue(store.getRecords().size() > 0);
+        assertEquals(0, pool.getOutstandingOrders());
+        pool.checkLeaks();
+    }
+
+    @Test
+    void detectLeaks() throws AddOrderException {
+        Stock stock = StockRegistry.getInstance().intern("POOLB");
+        OrderPool pool = new OrderPool(true);
+        OrderUsecasesRepo repo = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore());
+        repo.placeOrder(pool.acquire("#1", LocalTime.NOON, BUY, 10, stock, 1000), entry -> {
+        });
+        Order leaked = pool.acquire("#2", LocalTime.NOON, SELL, 5, stock, 1000);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, pool::checkLeaks);
+        assertEquals("2 order(s) and 0 entry(ies) not released", e.getMessage());
+        assertEquals("Acquired here", e.getCause().getMessage());
+
+        List<OrderEntry> kept = new ArrayList<>();
+        repo.placeOrder(leaked, kept::add);
+        assertEquals(1, pool.getOutstandingOrders());
+        assertThrows(IllegalStateException.class, () -> kept.get(0).release());
+        assertThrows(IllegalStateException.class, leaked::release);
+        assertThrows(IllegalArgumentException.class,
+                () -> repo.placeOrder(pool.acquire("#3", LocalTime.NOON, SELL, 5, stock, 1000)));
+    }
+
+    @Test
+    void steadyStateMatchingDoesNotAllocate() throws AddOrderException {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        Stock stock = StockRegistry.getInstance().intern("POOLC");
+        OrderPool pool = new OrderPool();
+        OrderUsecasesRepo repo = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore());
+        long[] traded = new long[1];
+        TradeListener listener = entry -> traded[0] += entry.getQuantity();
+        for (int i = 0; i < 10; i++) {
+            repo.placeOrder(pool.acquire("B" + i, LocalTime.NOON, BUY, Integer.MAX_VALUE, stock, 24_000 - i), listener);
+            repo.placeOrder(pool.acquire("S" + i, LocalTime.NOON, SELL, Integer.MAX_VALUE, stock, 24_010 + i),
+                    listener);
+        }
+        String[] ids = new String[1024];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = "#" + i;
+        }
+
+        // orders crossing the touch, filled on arrival against resting orders
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < 10; round++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < ORDERS * 10; i++) {
+                boolean buy = (i & 1) == 0;
+                repo.placeOrder(pool.acquire(ids[i & 1023], LocalTime.NOON, buy ? BUY : SELL, 10, stock,
+                        buy ? 24_010 : 24_000), listener);
+            }
+            best = Math.min(best, (double) (threads.getCurrentThreadAllocatedBytes() - before) / (ORDERS * 10));
+        }
+
+        assertEquals(1000L * ORDERS, traded[0]);
+        assertTrue(best < 1, "allocated " + best + " bytes/order");
+        assertEquals(20, pool.getOutstandingOrders());
+    }
+}
\ No newline at end of file
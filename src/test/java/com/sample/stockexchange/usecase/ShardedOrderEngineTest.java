@@ -0,0 +1,108 @@
+package com.sample.stockexchange.usecase;
+
+import static com.sample.stockexchange.entity.OrderType.BUY;
+import static com.sample.stockexchange.entity.OrderType.SELL;
+import static com.sample.stockexchange.usecase.OrderFixtures.format;
+import static com.sample.stockexchange.usecase.OrderFixtures.randomOrders;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.sample.stockexchange.adapter.OrderSetStore;
+import com.sample.stockexchange.adapter.TransactionStore;
+import com.sample.stockexchange.entity.Order;
+import com.sample.stockexchange.entity.OrderEntry;
+import com.sample.stockexchange.entity.Stock;
+import com.sample.stockexchange.entity.StockRegistry;
+
+import org.junit.jupiter.api.Test;
+
+public class ShardedOrderEngineTest {
+    private static final int ORDERS = 200_000;
+    private static final int STOCKS = 64;
+
+    @Test
+    void shardsMatchLikeSingleThread() throws Exception {
+        Stock[] stocks = new Stock[STOCKS];
+        for (int i = 0; i < STOCKS; i++) {
+            stocks[i] = StockRegistry.getInstance().intern("SHARD" + i);
+        }
+
+        Map<Stock, List<String>> expected = new HashMap<>();
+        OrderUsecasesRepo repo = new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore());
+        for (Order order : randomOrders(7, ORDERS, stocks)) {
+            repo.placeOrder(order, entry -> tradesOf(expected, entry).add(format(entry)));
+        }
+
+        for (int shards : new int[] { 1, 2, 4, 8 }) {
+            Map<Stock, List<String>> actual = new HashMap<>();
+            Set<Long> ids = new HashSet<>();
+            List<AddOrderException> rejections = new ArrayList<>();
+            List<Order> orders = randomOrders(7, ORDERS, stocks);
+
+            ShardedOrderEngine engine = new ShardedOrderEngine(shards, shard -> new OrderUsecasesRepo(
+                    new OrderSetStore(), new TransactionStore(), new Sequence(shard, shards)), new EngineListener() {
+                        @Override
+                        public void onTrade(OrderEntry entry) {
+                            tradesOf(actual, entry).add(format(entry));
+                            ids.add(entry.getId());
+                        }
+
+                        @Override
+                        public void onRejected(AddOrderException e) {
+                            rejections.add(e);
+                        }
+                    });
+            for (Order order : orders) {
+                engine.submit(order);
+            }
+            engine.close();
+
+            assertEquals(expected, actual);
+            assertEquals(expected.values().stream().mapToInt(List::size).sum(), ids.size());
+            assertTrue(rejections.isEmpty());
+        }
+    }
+
+    @Test
+    void idsAreUniquePerShard() throws Exception {
+        Stock a = StockRegistry.getInstance().intern("SHARDIDA");
+        Stock b = StockRegistry.getInstance().intern("SHARDIDB");
+        if (a.getId() % 2 == b.getId() % 2) {
+            b = StockRegistry.getInstance().intern("SHARDIDC");
+        }
+
+        List<String> rejections = new ArrayList<>();
+        ShardedOrderEngine engine = new ShardedOrderEngine(2,
+                shard -> new OrderUsecasesRepo(new OrderSetStore(), new TransactionStore(), new Sequence(shard, 2)),
+                new EngineListener() {
+                    @Override
+                    public void onTrade(OrderEntry entry) {
+                    }
+
+                    @Override
+                    public void onRejected(AddOrderException e) {
+                        rejections.add(e.getMessage());
+                    }
+                });
+        engine.submit(new Order("#1", LocalTime.NOON, BUY, 10, a, 1000));
+        // another shard, its books don't know #1
+        engine.submit(new Order("#1", LocalTime.NOON, BUY, 10, b, 1000));
+        engine.submit(new Order("#1", LocalTime.NOON, SELL, 10, a, 2000));
+        engine.close();
+
+        assertEquals(1, rejections.size());
+        assertTrue(rejections.get(0).contains("#1"), rejections.get(0));
+    }
+
+    private static List<String> tradesOf(Map<Stock, List<String>> trades, OrderEntry entry) {
+        return trades.computeIfAbsent(entry.getParty().getStock(), stock -> new ArrayList<>());
+    }
+}
\ No newline at end of file